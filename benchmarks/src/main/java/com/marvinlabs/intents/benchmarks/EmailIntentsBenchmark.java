@@ -0,0 +1,145 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents.benchmarks;
+
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+
+import com.marvinlabs.intents.EmailIntents;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@link EmailIntents} factories. The directory variant of the attachments intent works on a
+ * temporary directory of 100 small files, half of them accepted by the filter. The content URIs of the list variant
+ * have no provider behind them, so their size is unknown.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EmailIntentsBenchmark {
+
+    private static final String ADDRESS = "test@example.com";
+    private static final String[] ADDRESSES = {"test@example.com", "other@example.com"};
+    private static final String SUBJECT = "My subject";
+    private static final String BODY = "My content";
+    private static final int FILE_COUNT = 100;
+
+    private Context context;
+    private Uri attachment;
+    private List<Uri> attachments;
+    private File directory;
+    private FilenameFilter logFilter;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = FakeAndroid.newContext();
+        attachment = Uri.parse("content://com.example.provider/files/report.pdf");
+
+        attachments = new ArrayList<Uri>();
+        for (int i = 0; i < 20; ++i) {
+            attachments.add(Uri.parse("content://com.example.provider/files/photo" + i + ".jpg"));
+        }
+
+        directory = File.createTempFile("attachments", null);
+        directory.delete();
+        directory.mkdirs();
+        for (int i = 0; i < FILE_COUNT; ++i) {
+            final File file = new File(directory, "file" + i + (i % 2 == 0 ? ".log" : ".tmp"));
+            final FileOutputStream out = new FileOutputStream(file);
+            try {
+                out.write(new byte[1024]);
+            } finally {
+                out.close();
+            }
+        }
+
+        logFilter = new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(".log");
+            }
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public Intent email() {
+        return EmailIntents.newEmailIntent(ADDRESS, SUBJECT, BODY);
+    }
+
+    @Benchmark
+    public Intent emailWithAttachment() {
+        return EmailIntents.newEmailIntent(ADDRESS, SUBJECT, BODY, attachment);
+    }
+
+    @Benchmark
+    public Intent emailToManyWithAttachment() {
+        return EmailIntents.newEmailIntent(ADDRESSES, SUBJECT, BODY, attachment);
+    }
+
+    @Benchmark
+    public Intent emailGuarded() {
+        return EmailIntents.newEmailIntent(context, ADDRESSES, SUBJECT, BODY, attachment);
+    }
+
+    @Benchmark
+    public Intent emailWithAttachmentList() {
+        return EmailIntents.newEmailWithAttachmentsIntent(context, ADDRESSES, SUBJECT, BODY, attachments, 10,
+                1024 * 1024);
+    }
+
+    @Benchmark
+    public Intent emailWithAttachmentDirectory() {
+        return EmailIntents.newEmailWithAttachmentsIntent(context, ADDRESSES, SUBJECT, BODY, directory, logFilter,
+                10, 1024 * 1024);
+    }
+}
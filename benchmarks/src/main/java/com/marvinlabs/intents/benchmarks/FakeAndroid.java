@@ -0,0 +1,171 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents.benchmarks;
+
+import android.content.ActivityNotFoundException;
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.pm.ActivityInfo;
+import android.content.pm.PackageManager;
+import android.content.pm.ResolveInfo;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Fake context and package manager for the benchmarks. The package manager pretends that one activity handles the
+ * intents without data and the intents whose data scheme is in a given set, and none handles the others. Starting an
+ * activity for one of the others throws an ActivityNotFoundException, like on a device. The listed activity comes with
+ * a filter which accepts the action and scheme of the queried intent, whatever the MIME type.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+final class FakeAndroid {
+
+    static final String PACKAGE_NAME = "com.marvinlabs.intents.benchmarks";
+
+    /**
+     * The schemes handled on a typical phone with the Play Store and the YouTube app
+     */
+    static final String[] DEFAULT_SCHEMES = {"tel", "smsto", "sms", "mailto", "geo", "google.navigation",
+            "google.streetview", "http", "https", "content", "file", "market", "vnd.youtube"};
+
+    private FakeAndroid() {
+    }
+
+    /**
+     * @return a context whose package manager handles the {@link #DEFAULT_SCHEMES}
+     */
+    static Context newContext() {
+        return newContext(DEFAULT_SCHEMES);
+    }
+
+    /**
+     * @param handledSchemes The data schemes an activity is installed for
+     * @return a context whose package manager handles the given schemes
+     */
+    static Context newContext(String... handledSchemes) {
+        final PackageManager packageManager = newPackageManager(handledSchemes);
+        final File cacheDir = new File(System.getProperty("java.io.tmpdir"), PACKAGE_NAME);
+
+        final Context context = mock(Context.class, withSettings().stubOnly());
+        when(context.getApplicationContext()).thenReturn(context);
+        when(context.getPackageName()).thenReturn(PACKAGE_NAME);
+        when(context.getPackageManager()).thenReturn(packageManager);
+        when(context.getCacheDir()).thenReturn(cacheDir);
+        // No provider behind it: queries return null
+        when(context.getContentResolver()).thenReturn(mock(ContentResolver.class, withSettings().stubOnly()));
+
+        final Set<String> schemes = new HashSet<String>(Arrays.asList(handledSchemes));
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                final Intent intent = (Intent) invocation.getArguments()[0];
+                final String scheme = intent.getScheme();
+                if (scheme != null && !schemes.contains(scheme)) {
+                    throw new ActivityNotFoundException("No activity for " + intent);
+                }
+                return null;
+            }
+        }).when(context).startActivity(any(Intent.class));
+        return context;
+    }
+
+    /**
+     * @param handledSchemes The data schemes an activity is installed for
+     * @return a package manager which handles the given schemes
+     */
+    static PackageManager newPackageManager(String... handledSchemes) {
+        final Set<String> schemes = new HashSet<String>(Arrays.asList(handledSchemes));
+
+        final ResolveInfo handler = new ResolveInfo();
+        handler.activityInfo = new ActivityInfo();
+        handler.activityInfo.packageName = "com.example.handler";
+        handler.activityInfo.name = "com.example.handler.HandlerActivity";
+        final List<ResolveInfo> handlers = Collections.singletonList(handler);
+        final List<ResolveInfo> none = Collections.emptyList();
+
+        final PackageManager packageManager = mock(PackageManager.class, withSettings().stubOnly());
+        when(packageManager.queryIntentActivities(any(Intent.class), anyInt())).thenAnswer(
+                new Answer<List<ResolveInfo>>() {
+                    @Override
+                    public List<ResolveInfo> answer(InvocationOnMock invocation) {
+                        final Intent intent = (Intent) invocation.getArguments()[0];
+                        final String scheme = intent.getScheme();
+                        if (scheme != null && !schemes.contains(scheme)) {
+                            return none;
+                        }
+                        final int flags = (Integer) invocation.getArguments()[1];
+                        return (flags & PackageManager.GET_RESOLVED_FILTER) == 0 ? handlers
+                                : Collections.singletonList(newHandlerWithFilter(handler, intent));
+                    }
+                });
+        when(packageManager.resolveActivity(any(Intent.class), anyInt())).thenAnswer(
+                new Answer<ResolveInfo>() {
+                    @Override
+                    public ResolveInfo answer(InvocationOnMock invocation) {
+                        final Intent intent = (Intent) invocation.getArguments()[0];
+                        final String scheme = intent.getScheme();
+                        return scheme == null || schemes.contains(scheme) ? handler : null;
+                    }
+                });
+        return packageManager;
+    }
+
+    /**
+     * @return a copy of the handler with a filter which accepts the action and scheme of the intent, and any type
+     */
+    private static ResolveInfo newHandlerWithFilter(ResolveInfo handler, Intent intent) {
+        final IntentFilter filter = new IntentFilter(intent.getAction());
+        filter.addCategory(Intent.CATEGORY_DEFAULT);
+        if (intent.getCategories() != null) {
+            for (String category : intent.getCategories()) {
+                filter.addCategory(category);
+            }
+        }
+        if (intent.getScheme() != null) {
+            filter.addDataScheme(intent.getScheme());
+        }
+        if (intent.getType() != null) {
+            try {
+                filter.addDataType("*/*");
+            } catch (IntentFilter.MalformedMimeTypeException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        final ResolveInfo copy = new ResolveInfo(handler);
+        copy.filter = filter;
+        return copy;
+    }
+}
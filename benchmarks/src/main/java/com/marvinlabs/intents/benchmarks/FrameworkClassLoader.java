@@ -0,0 +1,264 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents.benchmarks;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class loader which makes the framework classes of the android-all jar usable on the desktop JVM. It is installed as
+ * the system class loader of the benchmark JVMs (-Djava.system.class.loader, see build.gradle), so that every class
+ * of the class path is defined by it and sees the rewritten framework.
+ * <p/>
+ * Two kinds of changes are made to the framework classes, like Robolectric does:
+ * <ul>
+ * <li>the calls to the typed System.arraycopy overloads of the Android core library (int[], char[], ...) are sent to
+ * the generic one of the JVM</li>
+ * <li>native methods get a body returning 0, false or null, except the ones reading the system properties which
+ * answer from the JVM system properties or from the values of a stock device, so that for instance the static
+ * initializer of android.os.Build runs</li>
+ * </ul>
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+public final class FrameworkClassLoader extends ClassLoader {
+
+    private static final String[] PARENT_FIRST_PREFIXES = {"java.", "javax.", "sun.", "com.sun.", "jdk.",
+            "org.objectweb.asm.", FrameworkClassLoader.class.getName()};
+
+    private static final String[] FRAMEWORK_PREFIXES = {"android.", "com.android.", "dalvik.", "libcore.",
+            "org.apache.harmony.", "com.google.android."};
+
+    private static final String ARRAYCOPY_DESCRIPTOR = "(Ljava/lang/Object;ILjava/lang/Object;II)V";
+
+    private static final String SYSTEM_PROPERTIES = "android/os/SystemProperties";
+
+    private static final String GET_SYSTEM_PROPERTY_DESCRIPTOR =
+            "(Ljava/lang/String;Ljava/lang/String;)Ljava/lang/String;";
+
+    private static final Map<String, String> sSystemProperties = new HashMap<String, String>();
+
+    static {
+        registerAsParallelCapable();
+
+        sSystemProperties.put("ro.build.version.sdk", "22");
+        sSystemProperties.put("ro.build.version.release", "5.1.1");
+        sSystemProperties.put("ro.build.version.codename", "REL");
+        sSystemProperties.put("ro.build.version.all_codenames", "REL");
+        sSystemProperties.put("ro.build.type", "user");
+        sSystemProperties.put("ro.debuggable", "0");
+        // Build takes its CPU_ABI from the first item of these lists
+        sSystemProperties.put("ro.product.cpu.abilist", "x86");
+        sSystemProperties.put("ro.product.cpu.abilist32", "x86");
+        sSystemProperties.put("ro.product.cpu.abilist64", "");
+    }
+
+    public FrameworkClassLoader(ClassLoader parent) {
+        super(parent);
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (startsWithAny(name, PARENT_FIRST_PREFIXES)) {
+            return super.loadClass(name, resolve);
+        }
+
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> c = findLoadedClass(name);
+            if (c == null) {
+                c = findClass(name);
+            }
+            if (resolve) {
+                resolveClass(c);
+            }
+            return c;
+        }
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        final InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class");
+        if (in == null) {
+            throw new ClassNotFoundException(name);
+        }
+
+        byte[] bytes;
+        try {
+            bytes = readFully(in);
+        } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+        }
+
+        if (startsWithAny(name, FRAMEWORK_PREFIXES)) {
+            bytes = rewrite(bytes);
+        }
+        return defineClass(name, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Body of the native getters of android.os.SystemProperties. Public as it is called from the framework classes.
+     *
+     * @param key The name of the property
+     * @param def The value to return if the property is not set
+     * @return the JVM system property of that name, else the value it has on a stock device, else the default value
+     */
+    public static String getSystemProperty(String key, String def) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = sSystemProperties.get(key);
+        }
+        return value == null ? def : value;
+    }
+
+    private static byte[] rewrite(byte[] bytes) {
+        final ClassReader reader = new ClassReader(bytes);
+        final ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        reader.accept(new FrameworkClassVisitor(writer), 0);
+        return writer.toByteArray();
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+            final byte[] buffer = new byte[8192];
+            int count;
+            while ((count = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    private static boolean startsWithAny(String name, String[] prefixes) {
+        for (String prefix : prefixes) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class FrameworkClassVisitor extends ClassVisitor {
+
+        private String className;
+
+        FrameworkClassVisitor(ClassVisitor next) {
+            super(Opcodes.ASM5, next);
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName,
+                          String[] interfaces) {
+            className = name;
+            super.visit(version, access, name, signature, superName, interfaces);
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String desc, String signature,
+                                         String[] exceptions) {
+            if ((access & Opcodes.ACC_NATIVE) == 0) {
+                return new ArrayCopyMethodVisitor(super.visitMethod(access, name, desc, signature, exceptions));
+            }
+
+            final MethodVisitor mv = super.visitMethod(access & ~Opcodes.ACC_NATIVE, name, desc, signature,
+                    exceptions);
+            mv.visitCode();
+            if (SYSTEM_PROPERTIES.equals(className) && "native_get".equals(name)) {
+                returnSystemProperty(mv, Type.getArgumentTypes(desc).length);
+            } else {
+                returnDefaultValue(mv, Type.getReturnType(desc));
+            }
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+            return null;
+        }
+
+        /**
+         * native_get(key) and native_get(key, def)
+         */
+        private static void returnSystemProperty(MethodVisitor mv, int argumentCount) {
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            if (argumentCount > 1) {
+                mv.visitVarInsn(Opcodes.ALOAD, 1);
+            } else {
+                mv.visitLdcInsn("");
+            }
+            mv.visitMethodInsn(Opcodes.INVOKESTATIC, Type.getInternalName(FrameworkClassLoader.class),
+                    "getSystemProperty", GET_SYSTEM_PROPERTY_DESCRIPTOR, false);
+            mv.visitInsn(Opcodes.ARETURN);
+        }
+
+        private static void returnDefaultValue(MethodVisitor mv, Type type) {
+            switch (type.getSort()) {
+                case Type.VOID:
+                    mv.visitInsn(Opcodes.RETURN);
+                    break;
+                case Type.BOOLEAN:
+                case Type.CHAR:
+                case Type.BYTE:
+                case Type.SHORT:
+                case Type.INT:
+                    mv.visitInsn(Opcodes.ICONST_0);
+                    mv.visitInsn(Opcodes.IRETURN);
+                    break;
+                case Type.LONG:
+                    mv.visitInsn(Opcodes.LCONST_0);
+                    mv.visitInsn(Opcodes.LRETURN);
+                    break;
+                case Type.FLOAT:
+                    mv.visitInsn(Opcodes.FCONST_0);
+                    mv.visitInsn(Opcodes.FRETURN);
+                    break;
+                case Type.DOUBLE:
+                    mv.visitInsn(Opcodes.DCONST_0);
+                    mv.visitInsn(Opcodes.DRETURN);
+                    break;
+                default:
+                    mv.visitInsn(Opcodes.ACONST_NULL);
+                    mv.visitInsn(Opcodes.ARETURN);
+                    break;
+            }
+        }
+    }
+
+    private static final class ArrayCopyMethodVisitor extends MethodVisitor {
+
+        ArrayCopyMethodVisitor(MethodVisitor next) {
+            super(Opcodes.ASM5, next);
+        }
+
+        @Override
+        public void visitMethodInsn(int opcode, String owner, String name, String desc, boolean itf) {
+            if (opcode == Opcodes.INVOKESTATIC && "java/lang/System".equals(owner) && "arraycopy".equals(name)) {
+                desc = ARRAYCOPY_DESCRIPTOR;
+            }
+            super.visitMethodInsn(opcode, owner, name, desc, itf);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents.benchmarks;
+
+import android.content.Intent;
+
+import com.marvinlabs.intents.GeoIntents;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@link GeoIntents} factories, along with their 1.5.1 implementations (String.format, float to
+ * string conversions and Uri.parse).
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GeoIntentsBenchmark {
+
+    private static final String ADDRESS = "1 rue du Louvre 75058 Paris, France";
+    private static final String TITLE = "Le Louvre, Paris";
+    private static final float LATITUDE = 43.481055f;
+    private static final float LONGITUDE = -1.561959f;
+    private static final double PRECISE_LATITUDE = 43.4810551;
+    private static final double PRECISE_LONGITUDE = -1.5619593;
+
+    @Setup
+    public void setUp() {
+        GeoIntents.setCoordinatePrecision(6);
+    }
+
+    @Benchmark
+    public Intent mapsOfAddress() {
+        return GeoIntents.newMapsIntent(ADDRESS, TITLE);
+    }
+
+    @Benchmark
+    public Intent mapsOfAddressLegacy() {
+        return LegacyIntents.newMapsIntent(ADDRESS, TITLE);
+    }
+
+    @Benchmark
+    public Intent mapsAtLocation() {
+        return GeoIntents.newMapsIntent(LATITUDE, LONGITUDE);
+    }
+
+    @Benchmark
+    public Intent mapsAtNamedLocation() {
+        return GeoIntents.newMapsIntent(LATITUDE, LONGITUDE, TITLE);
+    }
+
+    @Benchmark
+    public Intent mapsAtNamedLocationLegacy() {
+        return LegacyIntents.newMapsIntent(LATITUDE, LONGITUDE, TITLE);
+    }
+
+    @Benchmark
+    public Intent mapsAtPreciseLocation() {
+        return GeoIntents.newMapsIntent(PRECISE_LATITUDE, PRECISE_LONGITUDE);
+    }
+
+    @Benchmark
+    public Intent mapsAtNamedPreciseLocation() {
+        return GeoIntents.newMapsIntent(PRECISE_LATITUDE, PRECISE_LONGITUDE, TITLE);
+    }
+
+    @Benchmark
+    public Intent navigationToAddress() {
+        return GeoIntents.newNavigationIntent(ADDRESS);
+    }
+
+    @Benchmark
+    public Intent navigationToLocation() {
+        return GeoIntents.newNavigationIntent(LATITUDE, LONGITUDE);
+    }
+
+    @Benchmark
+    public Intent navigationToLocationLegacy() {
+        return LegacyIntents.newNavigationIntent(LATITUDE, LONGITUDE);
+    }
+
+    @Benchmark
+    public Intent navigationToPreciseLocation() {
+        return GeoIntents.newNavigationIntent(PRECISE_LATITUDE, PRECISE_LONGITUDE);
+    }
+
+    @Benchmark
+    public Intent streetView() {
+        return GeoIntents.newStreetViewIntent(LATITUDE, LONGITUDE);
+    }
+
+    @Benchmark
+    public Intent streetViewZoomed() {
+        return GeoIntents.newStreetViewIntent(LATITUDE, LONGITUDE, 2.0f);
+    }
+
+    @Benchmark
+    public Intent streetViewZoomedWithMap() {
+        return GeoIntents.newStreetViewIntent(LATITUDE, LONGITUDE, 2.0f, 15);
+    }
+
+    @Benchmark
+    public Intent streetViewFull() {
+        return GeoIntents.newStreetViewIntent(LATITUDE, LONGITUDE, 90.5f, 10, 2.0f, 15);
+    }
+
+    @Benchmark
+    public Intent streetViewFullLegacy() {
+        return LegacyIntents.newStreetViewIntent(LATITUDE, LONGITUDE, 90.5f, 10, 2.0f, 15);
+    }
+
+    @Benchmark
+    public Intent streetViewPrecise() {
+        return GeoIntents.newStreetViewIntent(PRECISE_LATITUDE, PRECISE_LONGITUDE);
+    }
+
+    @Benchmark
+    public Intent streetViewPreciseZoomed() {
+        return GeoIntents.newStreetViewIntent(PRECISE_LATITUDE, PRECISE_LONGITUDE, 2.0f);
+    }
+
+    @Benchmark
+    public Intent streetViewPreciseZoomedWithMap() {
+        return GeoIntents.newStreetViewIntent(PRECISE_LATITUDE, PRECISE_LONGITUDE, 2.0f, 15);
+    }
+
+    @Benchmark
+    public Intent streetViewPreciseFull() {
+        return GeoIntents.newStreetViewIntent(PRECISE_LATITUDE, PRECISE_LONGITUDE, 90.5f, 10, 2.0f, 15);
+    }
+}
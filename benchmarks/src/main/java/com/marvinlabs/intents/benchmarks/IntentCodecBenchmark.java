@@ -0,0 +1,143 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents.benchmarks;
+
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Bundle;
+
+import com.marvinlabs.intents.EmailIntents;
+import com.marvinlabs.intents.IntentCodec;
+import com.marvinlabs.intents.PhoneIntents;
+import com.marvinlabs.intents.ShareIntents;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link IntentCodec} against Intent.toUri / Intent.parseUri, on intents built by the factories of the
+ * library. The setup fails if the codec does not give back an equivalent intent. The URI form is not checked: it
+ * drops the String[] extras of the email intent and the target intent of the share chooser, so it does less work.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IntentCodecBenchmark {
+
+    @Param({"sms", "email", "share"})
+    public String kind;
+
+    private Intent intent;
+    private byte[] encoded;
+    private String uri;
+
+    @Setup
+    public void setUp() throws IOException, URISyntaxException {
+        final Context context = FakeAndroid.newContext();
+        if ("sms".equals(kind)) {
+            intent = PhoneIntents.newSmsIntent(context, "See you at the beach in Biarritz!",
+                    new String[]{"+33 6 12 34 56 78", "+33 6 98 76 54 32"});
+        } else if ("email".equals(kind)) {
+            intent = EmailIntents.newEmailIntent(new String[]{"contact@marvinlabs.com", "support@marvinlabs.com"},
+                    "Android Intents", "Please find the report attached.",
+                    Uri.parse("content://com.marvinlabs.intents.demo/reports/2015-05.pdf"));
+        } else {
+            intent = ShareIntents.newShareTextIntent("Android Intents",
+                    "A collection of intents to make your life easier: https://github.com/marvinlabs/android-intents",
+                    "Share with");
+        }
+
+        encoded = IntentCodec.encode(intent);
+        uri = intent.toUri(Intent.URI_INTENT_SCHEME);
+
+        final Intent decoded = IntentCodec.decode(encoded);
+        if (!decoded.filterEquals(intent) || !extrasEqual(decoded.getExtras(), intent.getExtras())) {
+            throw new IllegalStateException(kind + ": the codec does not give back the same intent");
+        }
+    }
+
+    private static boolean extrasEqual(Bundle a, Bundle b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        if (!a.keySet().equals(b.keySet())) {
+            return false;
+        }
+        for (String key : a.keySet()) {
+            final Object va = a.get(key);
+            final Object vb = b.get(key);
+            final boolean equal = va instanceof Intent && vb instanceof Intent
+                    ? ((Intent) va).filterEquals((Intent) vb)
+                    && extrasEqual(((Intent) va).getExtras(), ((Intent) vb).getExtras())
+                    : Arrays.deepEquals(new Object[]{va}, new Object[]{vb});
+            if (!equal) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Benchmark
+    public byte[] codecEncode() {
+        return IntentCodec.encode(intent);
+    }
+
+    @Benchmark
+    public Intent codecDecode() throws IOException {
+        return IntentCodec.decode(encoded);
+    }
+
+    @Benchmark
+    public Intent codecRoundTrip() throws IOException {
+        return IntentCodec.decode(IntentCodec.encode(intent));
+    }
+
+    @Benchmark
+    public String toUri() {
+        return intent.toUri(Intent.URI_INTENT_SCHEME);
+    }
+
+    @Benchmark
+    public Intent parseUri() throws URISyntaxException {
+        return Intent.parseUri(uri, Intent.URI_INTENT_SCHEME);
+    }
+
+    @Benchmark
+    public Intent uriRoundTrip() throws URISyntaxException {
+        return Intent.parseUri(intent.toUri(Intent.URI_INTENT_SCHEME), Intent.URI_INTENT_SCHEME);
+    }
+}
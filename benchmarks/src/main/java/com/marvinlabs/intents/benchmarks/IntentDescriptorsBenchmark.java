@@ -0,0 +1,135 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents.benchmarks;
+
+import android.content.Context;
+import android.content.Intent;
+
+import com.marvinlabs.intents.EmailIntents;
+import com.marvinlabs.intents.GeoIntents;
+import com.marvinlabs.intents.IntentDescriptor;
+import com.marvinlabs.intents.IntentDescriptors;
+import com.marvinlabs.intents.MediaIntents;
+import com.marvinlabs.intents.PhoneIntents;
+import com.marvinlabs.intents.ShareIntents;
+import com.marvinlabs.intents.SystemIntents;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the creation of the demo application list, with intents built upfront or with descriptors, and of
+ * the creation of a single intent from its descriptor.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IntentDescriptorsBenchmark {
+
+    private Context context;
+    private IntentDescriptor dialDescriptor;
+
+    @Setup
+    public void setUp() {
+        context = FakeAndroid.newContext();
+        dialDescriptor = IntentDescriptors.dialNumber("+123456789");
+    }
+
+    @Benchmark
+    public List<Intent> demoListOfIntents() {
+        final List<Intent> intents = new ArrayList<Intent>();
+        intents.add(PhoneIntents.newDialNumberIntent(null));
+        intents.add(PhoneIntents.newCallNumberIntent("+123456789"));
+        intents.add(PhoneIntents.newDialNumberIntent("+123456789"));
+        intents.add(PhoneIntents.newSmsIntent(context, "this is a test SMS", "+123456789"));
+        intents.add(PhoneIntents.newSmsIntent(context, "this is a test SMS"));
+        intents.add(PhoneIntents.newPickContactIntent());
+        intents.add(PhoneIntents.newPickContactWithPhoneIntent());
+        intents.add(GeoIntents.newMapsIntent("1 rue du louvre 75000 Paris", "Le Louvre, Paris"));
+        intents.add(GeoIntents.newMapsIntent(43.481055, -1.561959, "Biarritz, France"));
+        intents.add(GeoIntents.newNavigationIntent("1 rue du louvre 75000 Paris"));
+        intents.add(GeoIntents.newNavigationIntent(43.481055, -1.561959));
+        intents.add(GeoIntents.newStreetViewIntent(43.481055, -1.561959));
+        intents.add(MediaIntents.newPlayImageIntent("http://upload.wikimedia.org/wikipedia/commons/thumb/a/a9/Biarritz-Plage.JPG/1920px-Biarritz-Plage.JPG"));
+        intents.add(MediaIntents.newPlayAudioIntent("http://www.stephaniequinn.com/Music/Allegro%20from%20Duet%20in%20C%20Major.mp3"));
+        intents.add(MediaIntents.newPlayVideoIntent("http://mirror.bigbuckbunny.de/peach/bigbuckbunny_movies/big_buck_bunny_480p_h264.mov"));
+        intents.add(MediaIntents.newPlayYouTubeVideoIntent(context, "b_yiWIXBI7o"));
+        intents.add(MediaIntents.newOpenWebBrowserIntent("http://vincentprat.info"));
+        intents.add(MediaIntents.newTakePictureIntent("/sdcard/temp.jpg"));
+        intents.add(MediaIntents.newSelectPictureIntent());
+        intents.add(EmailIntents.newEmailIntent("test@example.com", "My subject", "My content"));
+        intents.add(ShareIntents.newShareTextIntent("My subject", "My message", "Share with"));
+        intents.add(SystemIntents.newMarketForAppIntent(context, "fr.marvinlabs.coverartwallpaper"));
+        return intents;
+    }
+
+    @Benchmark
+    public List<IntentDescriptor> demoListOfDescriptors() {
+        final List<IntentDescriptor> intents = new ArrayList<IntentDescriptor>();
+        intents.add(IntentDescriptors.dialNumber(null));
+        intents.add(IntentDescriptors.callNumber("+123456789"));
+        intents.add(IntentDescriptors.dialNumber("+123456789"));
+        intents.add(IntentDescriptors.sms("this is a test SMS", "+123456789"));
+        intents.add(IntentDescriptors.sms("this is a test SMS"));
+        intents.add(IntentDescriptors.pickContact());
+        intents.add(IntentDescriptors.pickContactWithPhone());
+        intents.add(IntentDescriptors.maps("1 rue du louvre 75000 Paris", "Le Louvre, Paris"));
+        intents.add(IntentDescriptors.maps(43.481055, -1.561959, "Biarritz, France"));
+        intents.add(IntentDescriptors.navigation("1 rue du louvre 75000 Paris"));
+        intents.add(IntentDescriptors.navigation(43.481055, -1.561959));
+        intents.add(IntentDescriptors.streetView(43.481055, -1.561959));
+        intents.add(IntentDescriptors.playImage("http://upload.wikimedia.org/wikipedia/commons/thumb/a/a9/Biarritz-Plage.JPG/1920px-Biarritz-Plage.JPG"));
+        intents.add(IntentDescriptors.playAudio("http://www.stephaniequinn.com/Music/Allegro%20from%20Duet%20in%20C%20Major.mp3"));
+        intents.add(IntentDescriptors.playVideo("http://mirror.bigbuckbunny.de/peach/bigbuckbunny_movies/big_buck_bunny_480p_h264.mov"));
+        intents.add(IntentDescriptors.playYouTubeVideo("b_yiWIXBI7o"));
+        intents.add(IntentDescriptors.openWebBrowser("http://vincentprat.info"));
+        intents.add(IntentDescriptors.takePicture(new File("/sdcard/temp.jpg")));
+        intents.add(IntentDescriptors.selectPicture());
+        intents.add(IntentDescriptors.email("test@example.com", "My subject", "My content"));
+        intents.add(IntentDescriptors.shareText("My subject", "My message", "Share with"));
+        intents.add(IntentDescriptors.marketForApp("fr.marvinlabs.coverartwallpaper"));
+        return intents;
+    }
+
+    @Benchmark
+    public Intent intentFromDescriptor() {
+        return dialDescriptor.newIntent(context);
+    }
+
+    @Benchmark
+    public boolean availableFromDescriptor() {
+        return dialDescriptor.isAvailable(context);
+    }
+}
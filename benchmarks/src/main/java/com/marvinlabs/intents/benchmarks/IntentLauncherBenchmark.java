@@ -0,0 +1,98 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents.benchmarks;
+
+import android.content.ActivityNotFoundException;
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+
+import com.marvinlabs.intents.ComponentPins;
+import com.marvinlabs.intents.IntentLauncher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link IntentLauncher} against the launch, catch and retry pattern, on a device where the YouTube app
+ * is not installed so that the web page fallback is the one started, with and without {@link ComponentPins}.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IntentLauncherBenchmark {
+
+    private static final String VIDEO_ID = "b_yiWIXBI7o";
+
+    @Param({"false", "true"})
+    public boolean pinned;
+
+    private Context context;
+    private Intent appIntent;
+    private Intent webIntent;
+
+    @Setup
+    public void setUp() {
+        context = FakeAndroid.newContext("http", "https");
+        appIntent = new Intent(Intent.ACTION_VIEW, Uri.parse("vnd.youtube:" + VIDEO_ID));
+        webIntent = new Intent(Intent.ACTION_VIEW, Uri.parse("https://www.youtube.com/watch?v=" + VIDEO_ID));
+        ComponentPins.setEnabled(pinned);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ComponentPins.setEnabled(false);
+    }
+
+    @Benchmark
+    public int launcherWithFallback() {
+        return IntentLauncher.launch(context, appIntent, webIntent).getIndex();
+    }
+
+    @Benchmark
+    public int launcherPrimaryOnly() {
+        return IntentLauncher.launch(context, webIntent).getIndex();
+    }
+
+    @Benchmark
+    public int legacyLaunchAndRetry() {
+        try {
+            context.startActivity(appIntent);
+            return 0;
+        } catch (ActivityNotFoundException e) {
+            context.startActivity(webIntent);
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents.benchmarks;
+
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+
+import com.marvinlabs.intents.EmailIntents;
+import com.marvinlabs.intents.GeoIntents;
+import com.marvinlabs.intents.IntentResolutionCache;
+import com.marvinlabs.intents.IntentUtils;
+import com.marvinlabs.intents.MediaIntents;
+import com.marvinlabs.intents.PhoneIntents;
+import com.marvinlabs.intents.ShareIntents;
+import com.marvinlabs.intents.SystemIntents;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the availability checks of {@link IntentUtils} with a fake package manager. The "cold" benchmarks
+ * clear the resolution cache before each check, so they measure the cost of a first check (the fake package manager
+ * answers much faster than the real one, which makes a binder call). The batch benchmarks check the intents of the
+ * demo application list, one by one or all at once.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IntentUtilsBenchmark {
+
+    private Context context;
+    private Intent available;
+    private Intent unavailable;
+    private Uri uri;
+    private List<Intent> demoIntents;
+
+    @Setup
+    public void setUp() {
+        context = FakeAndroid.newContext();
+        available = GeoIntents.newMapsIntent(43.481055f, -1.561959f);
+        unavailable = new Intent(Intent.ACTION_VIEW, Uri.parse("unknown://nothing"));
+        uri = Uri.parse("http://vincentprat.info");
+
+        demoIntents = new ArrayList<Intent>();
+        demoIntents.add(PhoneIntents.newDialNumberIntent(null));
+        demoIntents.add(PhoneIntents.newCallNumberIntent("+123456789"));
+        demoIntents.add(PhoneIntents.newDialNumberIntent("+123456789"));
+        demoIntents.add(PhoneIntents.newSmsIntent(context, "this is a test SMS", "+123456789"));
+        demoIntents.add(PhoneIntents.newSmsIntent(context, "this is a test SMS"));
+        demoIntents.add(PhoneIntents.newPickContactIntent());
+        demoIntents.add(PhoneIntents.newPickContactWithPhoneIntent());
+        demoIntents.add(GeoIntents.newMapsIntent("1 rue du louvre 75000 Paris", "Le Louvre, Paris"));
+        demoIntents.add(GeoIntents.newMapsIntent(43.481055f, -1.561959f, "Biarritz, France"));
+        demoIntents.add(GeoIntents.newNavigationIntent("1 rue du louvre 75000 Paris"));
+        demoIntents.add(GeoIntents.newNavigationIntent(43.481055f, -1.561959f));
+        demoIntents.add(GeoIntents.newStreetViewIntent(43.481055f, -1.561959f));
+        demoIntents.add(MediaIntents.newPlayImageIntent("http://upload.wikimedia.org/wikipedia/commons/thumb/a/a9/Biarritz-Plage.JPG/1920px-Biarritz-Plage.JPG"));
+        demoIntents.add(MediaIntents.newPlayAudioIntent("http://www.stephaniequinn.com/Music/Allegro%20from%20Duet%20in%20C%20Major.mp3"));
+        demoIntents.add(MediaIntents.newPlayVideoIntent("http://mirror.bigbuckbunny.de/peach/bigbuckbunny_movies/big_buck_bunny_480p_h264.mov"));
+        demoIntents.add(MediaIntents.newPlayYouTubeVideoIntent(context, "b_yiWIXBI7o"));
+        demoIntents.add(MediaIntents.newOpenWebBrowserIntent("http://vincentprat.info"));
+        demoIntents.add(MediaIntents.newTakePictureIntent("/sdcard/temp.jpg"));
+        demoIntents.add(MediaIntents.newSelectPictureIntent());
+        demoIntents.add(EmailIntents.newEmailIntent("test@example.com", "My subject", "My content"));
+        demoIntents.add(ShareIntents.newShareTextIntent("My subject", "My message", "Share with"));
+        demoIntents.add(SystemIntents.newMarketForAppIntent(context, "fr.marvinlabs.coverartwallpaper"));
+    }
+
+    @Benchmark
+    public boolean availableCached() {
+        return IntentUtils.isIntentAvailable(context, available);
+    }
+
+    @Benchmark
+    public boolean availableCold() {
+        IntentResolutionCache.clear();
+        return IntentUtils.isIntentAvailable(context, available);
+    }
+
+    @Benchmark
+    public boolean availableLegacy() {
+        return LegacyIntents.isIntentAvailable(context, available);
+    }
+
+    @Benchmark
+    public boolean unavailableCached() {
+        return IntentUtils.isIntentAvailable(context, unavailable);
+    }
+
+    @Benchmark
+    public boolean actionAndTypeCached() {
+        return IntentUtils.isIntentAvailable(context, Intent.ACTION_VIEW, MediaIntents.VIDEO_TYPE);
+    }
+
+    @Benchmark
+    public boolean actionUriAndTypeCached() {
+        return IntentUtils.isIntentAvailable(context, Intent.ACTION_VIEW, uri, "text/html");
+    }
+
+    @Benchmark
+    public BitSet demoListBatchCold() {
+        IntentResolutionCache.clear();
+        return IntentUtils.areIntentsAvailable(context, demoIntents);
+    }
+
+    @Benchmark
+    public BitSet demoListSingleCold() {
+        IntentResolutionCache.clear();
+        final BitSet result = new BitSet(demoIntents.size());
+        for (int i = 0; i < demoIntents.size(); ++i) {
+            result.set(i, IntentUtils.isIntentAvailable(context, demoIntents.get(i)));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public BitSet demoListBatchCached() {
+        return IntentUtils.areIntentsAvailable(context, demoIntents);
+    }
+
+    @Benchmark
+    public BitSet demoListSingleCached() {
+        final BitSet result = new BitSet(demoIntents.size());
+        for (int i = 0; i < demoIntents.size(); ++i) {
+            result.set(i, IntentUtils.isIntentAvailable(context, demoIntents.get(i)));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public BitSet demoListLegacy() {
+        final BitSet result = new BitSet(demoIntents.size());
+        for (int i = 0; i < demoIntents.size(); ++i) {
+            result.set(i, LegacyIntents.isIntentAvailable(context, demoIntents.get(i)));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents.benchmarks;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.net.Uri;
+import android.text.TextUtils;
+
+/**
+ * The implementations of the factories as of version 1.5.1, kept as baselines for the benchmarks of the current ones.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+final class LegacyIntents {
+
+    private LegacyIntents() {
+    }
+
+    static Intent newMapsIntent(String address, String placeTitle) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("geo:0,0?q=");
+        sb.append(Uri.encode(address));
+        sb.append(Uri.encode(" (" + placeTitle + ")"));
+        return new Intent(Intent.ACTION_VIEW, Uri.parse(sb.toString()));
+    }
+
+    static Intent newMapsIntent(float latitude, float longitude, String placeName) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("geo:");
+        sb.append(latitude);
+        sb.append(",");
+        sb.append(longitude);
+
+        if (!TextUtils.isEmpty(placeName)) {
+            sb.append("?q=");
+            sb.append(latitude);
+            sb.append(",");
+            sb.append(longitude);
+            sb.append("(");
+            sb.append(Uri.encode(placeName));
+            sb.append(")");
+        }
+
+        return new Intent(Intent.ACTION_VIEW, Uri.parse(sb.toString()));
+    }
+
+    static Intent newNavigationIntent(float latitude, float longitude) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("google.navigation:q=");
+        sb.append(latitude);
+        sb.append(",");
+        sb.append(longitude);
+        return new Intent(Intent.ACTION_VIEW, Uri.parse(sb.toString()));
+    }
+
+    static Intent newStreetViewIntent(float latitude, float longitude, Float yaw, Integer pitch, Float zoom,
+                                      Integer mapZoom) {
+        StringBuilder builder = new StringBuilder("google.streetview:cbll=").append(latitude).append(",").append(longitude);
+
+        if (yaw != null || pitch != null || zoom != null) {
+            String cbpParam = String.format("%s,,%s,%s",
+                    yaw == null ? "" : yaw,
+                    pitch == null ? "" : pitch,
+                    zoom == null ? "" : zoom);
+
+            builder.append("&cbp=1,").append(cbpParam);
+        }
+        if (mapZoom != null) {
+            builder.append("&mz=").append(mapZoom);
+        }
+
+        Intent intent = new Intent();
+        intent.setAction(Intent.ACTION_VIEW);
+        intent.setData(Uri.parse(builder.toString()));
+        return intent;
+    }
+
+    static Intent newDialNumberIntent(String phoneNumber) {
+        return new Intent(Intent.ACTION_DIAL, Uri.parse("tel:" + phoneNumber.replace(" ", "")));
+    }
+
+    static Intent newSmsIntent(String body, String[] phoneNumbers) {
+        Uri smsUri = Uri.parse("smsto:" + Uri.encode(TextUtils.join(",", phoneNumbers)));
+        Intent intent = new Intent(Intent.ACTION_VIEW, smsUri);
+        if (body != null) {
+            intent.putExtra("sms_body", body);
+        }
+        return intent;
+    }
+
+    static Intent newPickContactIntent() {
+        return new Intent(Intent.ACTION_PICK, Uri.parse("content://com.android.contacts/contacts"));
+    }
+
+    static Intent newSelectPictureIntent() {
+        Intent intent = new Intent(Intent.ACTION_PICK);
+        intent.setType("image/*");
+        return intent;
+    }
+
+    static boolean isIntentAvailable(Context context, Intent intent) {
+        return !context.getPackageManager().queryIntentActivities(intent, PackageManager.MATCH_DEFAULT_ONLY).isEmpty();
+    }
+}
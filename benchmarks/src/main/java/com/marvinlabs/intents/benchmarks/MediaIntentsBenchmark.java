@@ -0,0 +1,237 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents.benchmarks;
+
+import android.content.Context;
+import android.content.Intent;
+import android.webkit.MimeTypeMap;
+
+import com.marvinlabs.intents.MediaIntents;
+import com.marvinlabs.intents.MediaSniffer;
+import com.marvinlabs.intents.MimeTypes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@link MediaIntents} factories, of the MIME type lookup against the framework MimeTypeMap and of
+ * the content sniffing of extensionless files.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MediaIntentsBenchmark {
+
+    private static final String IMAGE_URL = "http://upload.wikimedia.org/wikipedia/commons/thumb/a/a9/Biarritz-Plage.JPG/1920px-Biarritz-Plage.JPG";
+    private static final String AUDIO_URL = "http://www.stephaniequinn.com/Music/Allegro%20from%20Duet%20in%20C%20Major.mp3";
+    private static final String VIDEO_URL = "http://mirror.bigbuckbunny.de/peach/bigbuckbunny_movies/big_buck_bunny_480p_h264.mov";
+    private static final String AUDIO_PATH = "/sdcard/Music/Allegro.MP3";
+    private static final String IMAGE_PATH = "/sdcard/DCIM/Camera/IMG_0001.jpg";
+    private static final String VIDEO_PATH = "/sdcard/Movies/big_buck_bunny.mkv";
+    private static final String VIDEO_ID = "b_yiWIXBI7o";
+
+    private Context context;
+    private File audioFile;
+    private File imageFile;
+    private File videoFile;
+    private File extensionlessFile;
+    private File tempFile;
+    private MimeTypeMap mimeTypeMap;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = FakeAndroid.newContext();
+        audioFile = new File(AUDIO_PATH);
+        imageFile = new File(IMAGE_PATH);
+        videoFile = new File(VIDEO_PATH);
+        tempFile = new File("/sdcard/temp.jpg");
+        mimeTypeMap = MimeTypeMap.getSingleton();
+
+        // A PNG signature followed by some padding, without extension
+        extensionlessFile = File.createTempFile("media", null);
+        final FileOutputStream out = new FileOutputStream(extensionlessFile);
+        try {
+            out.write(new byte[]{(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A});
+            out.write(new byte[128]);
+        } finally {
+            out.close();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        extensionlessFile.delete();
+        MediaSniffer.clearCache();
+    }
+
+    @Benchmark
+    public Intent playAudioFile() {
+        return MediaIntents.newPlayAudioFileIntent(audioFile, true);
+    }
+
+    @Benchmark
+    public Intent playAudioPath() {
+        return MediaIntents.newPlayAudioFileIntent(AUDIO_PATH, true);
+    }
+
+    @Benchmark
+    public Intent playAudio() {
+        return MediaIntents.newPlayAudioIntent(AUDIO_URL);
+    }
+
+    @Benchmark
+    public Intent playImageFile() {
+        return MediaIntents.newPlayImageFileIntent(imageFile, true);
+    }
+
+    @Benchmark
+    public Intent playImagePath() {
+        return MediaIntents.newPlayImageFileIntent(IMAGE_PATH, true);
+    }
+
+    @Benchmark
+    public Intent playImage() {
+        return MediaIntents.newPlayImageIntent(IMAGE_URL);
+    }
+
+    @Benchmark
+    public Intent playVideoFile() {
+        return MediaIntents.newPlayVideoFileIntent(videoFile, true);
+    }
+
+    @Benchmark
+    public Intent playVideoPath() {
+        return MediaIntents.newPlayVideoFileIntent(VIDEO_PATH, true);
+    }
+
+    @Benchmark
+    public Intent playVideo() {
+        return MediaIntents.newPlayVideoIntent(VIDEO_URL);
+    }
+
+    @Benchmark
+    public Intent playMediaFileWithType() {
+        return MediaIntents.newPlayMediaFileIntent(videoFile, MediaIntents.VIDEO_TYPE);
+    }
+
+    @Benchmark
+    public Intent playMediaPathWithType() {
+        return MediaIntents.newPlayMediaFileIntent(VIDEO_PATH, MediaIntents.VIDEO_TYPE);
+    }
+
+    @Benchmark
+    public Intent playMediaWithType() {
+        return MediaIntents.newPlayMediaIntent(VIDEO_URL, MediaIntents.VIDEO_TYPE);
+    }
+
+    @Benchmark
+    public Intent playSniffedMediaFile() {
+        return MediaIntents.newPlayMediaFileIntent(extensionlessFile);
+    }
+
+    @Benchmark
+    public String sniffCached() {
+        return MediaSniffer.sniff(extensionlessFile);
+    }
+
+    @Benchmark
+    public String sniffUncached() {
+        MediaSniffer.clearCache();
+        return MediaSniffer.sniff(extensionlessFile);
+    }
+
+    @Benchmark
+    public String mimeTypeFromFileName() {
+        return MimeTypes.fromFileName(AUDIO_PATH);
+    }
+
+    @Benchmark
+    public String mimeTypeFromFileNameFramework() {
+        final String extension = MimeTypeMap.getFileExtensionFromUrl(AUDIO_PATH);
+        return mimeTypeMap.getMimeTypeFromExtension(extension.toLowerCase());
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public Intent playYouTubeVideoWithoutContext() {
+        return MediaIntents.newPlayYouTubeVideoIntent(VIDEO_ID);
+    }
+
+    @Benchmark
+    public Intent playYouTubeVideo() {
+        return MediaIntents.newPlayYouTubeVideoIntent(context, VIDEO_ID);
+    }
+
+    @Benchmark
+    public Intent playYouTubeVideoAt() {
+        return MediaIntents.newPlayYouTubeVideoIntent(context, VIDEO_ID, 90);
+    }
+
+    @Benchmark
+    public Intent playYouTubePlaylist() {
+        return MediaIntents.newPlayYouTubePlaylistIntent("PL590L5WQmH8fJ54F369BLDSqIwcs-TCfs");
+    }
+
+    @Benchmark
+    public Intent playYouTubePlaylistFromVideo() {
+        return MediaIntents.newPlayYouTubePlaylistIntent("PL590L5WQmH8fJ54F369BLDSqIwcs-TCfs", VIDEO_ID);
+    }
+
+    @Benchmark
+    public Intent openWebBrowser() {
+        return MediaIntents.newOpenWebBrowserIntent("vincentprat.info");
+    }
+
+    @Benchmark
+    public Intent takePicture() {
+        return MediaIntents.newTakePictureIntent(tempFile);
+    }
+
+    @Benchmark
+    public Intent takePicturePath() {
+        return MediaIntents.newTakePictureIntent("/sdcard/temp.jpg");
+    }
+
+    @Benchmark
+    public Intent selectPicture() {
+        return MediaIntents.newSelectPictureIntent();
+    }
+
+    @Benchmark
+    public Intent selectPictureLegacy() {
+        return LegacyIntents.newSelectPictureIntent();
+    }
+}
@@ -0,0 +1,154 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents.benchmarks;
+
+import android.content.Context;
+import android.content.Intent;
+
+import com.marvinlabs.intents.PhoneIntents;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@link PhoneIntents} factories, along with the 1.5.1 implementations of the dial, SMS and pick
+ * contact intents.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PhoneIntentsBenchmark {
+
+    private static final String NUMBER = "+33 1 23 45 67 89";
+    private static final String BODY = "This is a test SMS";
+
+    private Context context;
+    private String[] fewNumbers;
+    private String[] manyNumbers;
+
+    @Setup
+    public void setUp() {
+        context = FakeAndroid.newContext();
+        fewNumbers = new String[]{"+33 1 23 45 67 89", "06 12 34 56 78", "+1 (800) 555-0199"};
+        manyNumbers = new String[200];
+        for (int i = 0; i < manyNumbers.length; ++i) {
+            manyNumbers[i] = "+33 6 12 34 " + (10 + i / 100) + " " + (10 + i % 90);
+        }
+    }
+
+    @Benchmark
+    public Intent dialNumber() {
+        return PhoneIntents.newDialNumberIntent(NUMBER);
+    }
+
+    @Benchmark
+    public Intent dialNumberLegacy() {
+        return LegacyIntents.newDialNumberIntent(NUMBER);
+    }
+
+    @Benchmark
+    public Intent dialer() {
+        return PhoneIntents.newDialNumberIntent(null);
+    }
+
+    @Benchmark
+    public Intent callNumber() {
+        return PhoneIntents.newCallNumberIntent(NUMBER);
+    }
+
+    @Benchmark
+    public Intent emptySms() {
+        return PhoneIntents.newEmptySmsIntent(context);
+    }
+
+    @Benchmark
+    public Intent emptySmsToNumber() {
+        return PhoneIntents.newEmptySmsIntent(context, NUMBER);
+    }
+
+    @Benchmark
+    public Intent emptySmsToNumbers() {
+        return PhoneIntents.newEmptySmsIntent(context, fewNumbers);
+    }
+
+    @Benchmark
+    public Intent sms() {
+        return PhoneIntents.newSmsIntent(context, BODY);
+    }
+
+    @Benchmark
+    public Intent smsToNumber() {
+        return PhoneIntents.newSmsIntent(context, BODY, NUMBER);
+    }
+
+    @Benchmark
+    public Intent smsToNumbers() {
+        return PhoneIntents.newSmsIntent(context, BODY, fewNumbers);
+    }
+
+    @Benchmark
+    public Intent smsToNumbersLegacy() {
+        return LegacyIntents.newSmsIntent(BODY, fewNumbers);
+    }
+
+    @Benchmark
+    public Intent smsToManyNumbers() {
+        return PhoneIntents.newSmsIntent(context, BODY, manyNumbers);
+    }
+
+    @Benchmark
+    public Intent smsToManyNumbersLegacy() {
+        return LegacyIntents.newSmsIntent(BODY, manyNumbers);
+    }
+
+    @Benchmark
+    public List<Intent> smsToManyNumbersSplit() {
+        return PhoneIntents.newSmsIntents(context, BODY, manyNumbers, PhoneIntents.DEFAULT_MAX_SMS_RECIPIENTS,
+                PhoneIntents.DEFAULT_MAX_SMS_URI_LENGTH);
+    }
+
+    @Benchmark
+    public Intent pickContact() {
+        return PhoneIntents.newPickContactIntent();
+    }
+
+    @Benchmark
+    public Intent pickContactLegacy() {
+        return LegacyIntents.newPickContactIntent();
+    }
+
+    @Benchmark
+    public Intent pickContactWithPhone() {
+        return PhoneIntents.newPickContactWithPhoneIntent();
+    }
+}
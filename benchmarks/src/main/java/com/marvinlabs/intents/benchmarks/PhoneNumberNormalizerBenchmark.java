@@ -0,0 +1,69 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents.benchmarks;
+
+import com.marvinlabs.intents.PhoneNumberNormalizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link PhoneNumberNormalizer} across the usual ways of writing phone numbers, against the space
+ * removal of version 1.5.1.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PhoneNumberNormalizerBenchmark {
+
+    @Param({"+33123456789", "+33 1 23 45 67 89", "+33 (0)1 23.45.67.89", "1-800-555-0199", "+1\u00A0800\u2011555\u20110199",
+            "*#06#"})
+    public String number;
+
+    private final StringBuilder sb = new StringBuilder(32);
+
+    @Benchmark
+    public String normalize() {
+        return PhoneNumberNormalizer.normalize(number);
+    }
+
+    @Benchmark
+    public StringBuilder appendNormalized() {
+        sb.setLength(0);
+        return PhoneNumberNormalizer.appendNormalized(sb, number);
+    }
+
+    @Benchmark
+    public String removeSpacesLegacy() {
+        return number.replace(" ", "");
+    }
+}
@@ -0,0 +1,151 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents.benchmarks;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.ActivityInfo;
+import android.content.pm.PackageManager;
+import android.content.pm.ResolveInfo;
+
+import com.marvinlabs.intents.IntentResolutionCache;
+import com.marvinlabs.intents.IntentUtils;
+import com.marvinlabs.intents.ResolutionStrategy;
+
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Per-call time of each {@link ResolutionStrategy} against a Mockito package manager, depending on the number of
+ * applications able to handle the intent. The fake copies each returned ResolveInfo but makes no call to another
+ * process, so these numbers only measure the code of the library and tell nothing about the strategies on a device.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResolutionStrategyBenchmark {
+
+    @Param({"1", "5", "20"})
+    public int handlerCount;
+
+    private Context context;
+    private Intent intent;
+
+    @Setup
+    public void setUp() {
+        final List<ResolveInfo> handlers = new ArrayList<ResolveInfo>();
+        for (int i = 0; i < handlerCount; ++i) {
+            handlers.add(newResolveInfo("com.example.handler" + i, "com.example.handler" + i + ".ShareActivity"));
+        }
+        final ResolveInfo preferred = handlerCount == 1
+                ? handlers.get(0)
+                : newResolveInfo("android", "com.android.internal.app.ResolverActivity");
+
+        final PackageManager packageManager = mock(PackageManager.class, withSettings().stubOnly());
+        when(packageManager.queryIntentActivities(any(Intent.class), anyInt())).thenAnswer(
+                new Answer<List<ResolveInfo>>() {
+                    @Override
+                    public List<ResolveInfo> answer(InvocationOnMock invocation) {
+                        final List<ResolveInfo> result = new ArrayList<ResolveInfo>(handlers.size());
+                        for (ResolveInfo handler : handlers) {
+                            result.add(copy(handler));
+                        }
+                        return result;
+                    }
+                });
+        when(packageManager.resolveActivity(any(Intent.class), anyInt())).thenAnswer(
+                new Answer<ResolveInfo>() {
+                    @Override
+                    public ResolveInfo answer(InvocationOnMock invocation) {
+                        return copy(preferred);
+                    }
+                });
+
+        context = FakeAndroid.newContext();
+        when(context.getPackageManager()).thenReturn(packageManager);
+
+        intent = new Intent(Intent.ACTION_SEND);
+        intent.setType("text/plain");
+        intent.putExtra(Intent.EXTRA_TEXT, "Biarritz");
+    }
+
+    @Benchmark
+    public int exists() {
+        return IntentUtils.resolve(context, intent, ResolutionStrategy.EXISTS).size();
+    }
+
+    @Benchmark
+    public ResolveInfo defaultHandler() {
+        return IntentUtils.getDefaultHandler(context, intent);
+    }
+
+    @Benchmark
+    public int exhaustive() {
+        return IntentUtils.resolve(context, intent, ResolutionStrategy.EXHAUSTIVE).size();
+    }
+
+    @Benchmark
+    public boolean availabilityCold() {
+        IntentResolutionCache.clear();
+        return IntentUtils.isIntentAvailable(context, intent);
+    }
+
+    @Benchmark
+    public boolean legacyAvailability() {
+        return LegacyIntents.isIntentAvailable(context, intent);
+    }
+
+    private static ResolveInfo newResolveInfo(String packageName, String name) {
+        final ResolveInfo info = new ResolveInfo();
+        info.activityInfo = new ActivityInfo();
+        info.activityInfo.packageName = packageName;
+        info.activityInfo.name = name;
+        return info;
+    }
+
+    private static ResolveInfo copy(ResolveInfo info) {
+        final ResolveInfo copy = new ResolveInfo(info);
+        copy.activityInfo = new ActivityInfo(info.activityInfo);
+        return copy;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents.benchmarks;
+
+import android.content.Context;
+import android.content.Intent;
+
+import com.marvinlabs.intents.IntentSizeGuard;
+import com.marvinlabs.intents.ShareIntents;
+import com.marvinlabs.intents.StreamWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@link ShareIntents} factories and of the extras size estimate of {@link IntentSizeGuard}.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShareIntentsBenchmark {
+
+    private static final String SUBJECT = "My subject";
+    private static final String MESSAGE = "My message";
+    private static final String TITLE = "Share with";
+
+    private Context context;
+    private StreamWriter writer;
+    private Intent largeIntent;
+
+    @Setup
+    public void setUp() {
+        context = FakeAndroid.newContext();
+        writer = new StreamWriter() {
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                out.write(MESSAGE.getBytes("UTF-8"));
+            }
+        };
+
+        final char[] text = new char[300 * 1024];
+        Arrays.fill(text, 'a');
+        largeIntent = new Intent(Intent.ACTION_SEND);
+        largeIntent.putExtra(Intent.EXTRA_TEXT, new String(text));
+        largeIntent.putExtra(Intent.EXTRA_SUBJECT, SUBJECT);
+        largeIntent.setType("text/plain");
+    }
+
+    @Benchmark
+    public Intent shareText() {
+        return ShareIntents.newShareTextIntent(SUBJECT, MESSAGE, TITLE);
+    }
+
+    @Benchmark
+    public Intent shareTextGuarded() {
+        return ShareIntents.newShareTextIntent(context, SUBJECT, MESSAGE, TITLE);
+    }
+
+    @Benchmark
+    public Intent shareStream() {
+        final Intent intent = ShareIntents.newShareStreamIntent(context, "text/plain", "message.txt", writer, TITLE);
+        ShareIntents.releaseSharedStream(intent);
+        return intent;
+    }
+
+    @Benchmark
+    public int estimateLargeExtrasSize() {
+        return IntentSizeGuard.estimateExtrasSize(largeIntent);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents.benchmarks;
+
+import android.content.Context;
+import android.content.Intent;
+
+import com.marvinlabs.intents.SystemIntents;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the {@link SystemIntents} factories. The store lookups are measured once the fallback chains have
+ * found their winner, which is the case of every call but the first one after a package change. The asynchronous
+ * variants run on the calling thread to measure their own overhead only.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SystemIntentsBenchmark {
+
+    private static final String PACKAGE_NAME = "fr.marvinlabs.coverartwallpaper";
+
+    private Context context;
+    private Executor directExecutor;
+
+    @Setup
+    public void setUp() {
+        context = FakeAndroid.newContext("market", "amzn", "http", "https");
+        directExecutor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        };
+    }
+
+    @Benchmark
+    public Intent marketForThisApp() {
+        return SystemIntents.newMarketForAppIntent(context);
+    }
+
+    @Benchmark
+    public Intent marketForApp() {
+        return SystemIntents.newMarketForAppIntent(context, PACKAGE_NAME);
+    }
+
+    @Benchmark
+    public Intent googlePlay() {
+        return SystemIntents.newGooglePlayIntent(context, PACKAGE_NAME);
+    }
+
+    @Benchmark
+    public Intent amazonStore() {
+        return SystemIntents.newAmazonStoreIntent(context, PACKAGE_NAME);
+    }
+
+    @Benchmark
+    public Intent marketForThisAppAsync() throws ExecutionException, InterruptedException {
+        return SystemIntents.newMarketForAppIntentAsync(context, directExecutor, null).get();
+    }
+
+    @Benchmark
+    public Intent marketForAppAsync() throws ExecutionException, InterruptedException {
+        return SystemIntents.newMarketForAppIntentAsync(context, PACKAGE_NAME, directExecutor, null).get();
+    }
+
+    @Benchmark
+    public Intent googlePlayAsync() throws ExecutionException, InterruptedException {
+        return SystemIntents.newGooglePlayIntentAsync(context, PACKAGE_NAME, directExecutor, null).get();
+    }
+
+    @Benchmark
+    public Intent amazonStoreAsync() throws ExecutionException, InterruptedException {
+        return SystemIntents.newAmazonStoreIntentAsync(context, PACKAGE_NAME, directExecutor, null).get();
+    }
+
+    @Benchmark
+    public Intent pickFile() {
+        return SystemIntents.newPickFileIntent();
+    }
+}
@@ -1,18 +1,13 @@
 package com.marvinlabs.intents.demo;
 
-import android.content.Intent;
-
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import com.marvinlabs.intents.IntentDescriptor;
 
 public class DemoItem {
 
     public String description;
-    public Intent intent;
+    public IntentDescriptor intent;
 
-    public DemoItem(String description, Intent intent) {
+    public DemoItem(String description, IntentDescriptor intent) {
         this.description = description;
         this.intent = intent;
     }
@@ -21,4 +16,4 @@ public class DemoItem {
     public String toString() {
         return description;
     }
-}
\ No newline at end of file
+}
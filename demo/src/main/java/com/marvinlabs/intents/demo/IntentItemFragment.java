@@ -15,13 +15,9 @@ import android.widget.ArrayAdapter;
 import android.widget.ListAdapter;
 import android.widget.TextView;
 
-import com.marvinlabs.intents.EmailIntents;
-import com.marvinlabs.intents.GeoIntents;
-import com.marvinlabs.intents.MediaIntents;
-import com.marvinlabs.intents.PhoneIntents;
-import com.marvinlabs.intents.ShareIntents;
-import com.marvinlabs.intents.SystemIntents;
+import com.marvinlabs.intents.IntentDescriptors;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -57,38 +53,38 @@ public class IntentItemFragment extends Fragment implements AbsListView.OnItemCl
         final List<DemoItem> intents = new ArrayList<DemoItem>();
 
         // PhoneIntents
-        intents.add(new DemoItem(res.getString(R.string.dialer), PhoneIntents.newDialNumberIntent(null)));
-        intents.add(new DemoItem(res.getString(R.string.call_number), PhoneIntents.newCallNumberIntent("+123456789")));
-        intents.add(new DemoItem(res.getString(R.string.dial_number), PhoneIntents.newDialNumberIntent("+123456789")));
-        intents.add(new DemoItem(res.getString(R.string.send_sms_to), PhoneIntents.newSmsIntent(getActivity(), "this is a test SMS", "+123456789")));
-        intents.add(new DemoItem(res.getString(R.string.send_sms), PhoneIntents.newSmsIntent(getActivity(), "this is a test SMS")));
-        intents.add(new DemoItem(res.getString(R.string.pick_contact), PhoneIntents.newPickContactIntent()));
-        intents.add(new DemoItem(res.getString(R.string.pick_contact_with_phone), PhoneIntents.newPickContactWithPhoneIntent()));
+        intents.add(new DemoItem(res.getString(R.string.dialer), IntentDescriptors.dialNumber(null)));
+        intents.add(new DemoItem(res.getString(R.string.call_number), IntentDescriptors.callNumber("+123456789")));
+        intents.add(new DemoItem(res.getString(R.string.dial_number), IntentDescriptors.dialNumber("+123456789")));
+        intents.add(new DemoItem(res.getString(R.string.send_sms_to), IntentDescriptors.sms("this is a test SMS", "+123456789")));
+        intents.add(new DemoItem(res.getString(R.string.send_sms), IntentDescriptors.sms("this is a test SMS")));
+        intents.add(new DemoItem(res.getString(R.string.pick_contact), IntentDescriptors.pickContact()));
+        intents.add(new DemoItem(res.getString(R.string.pick_contact_with_phone), IntentDescriptors.pickContactWithPhone()));
 
         // GeoIntents
-        intents.add(new DemoItem(res.getString(R.string.map_of), GeoIntents.newMapsIntent("1 rue du louvre 75000 Paris", "Le Louvre, Paris")));
-        intents.add(new DemoItem(res.getString(R.string.map_at), GeoIntents.newMapsIntent(43.481055f, -1.561959f, "Biarritz, France")));
-        intents.add(new DemoItem(res.getString(R.string.navigate_to_address), GeoIntents.newNavigationIntent("1 rue du louvre 75000 Paris")));
-        intents.add(new DemoItem(res.getString(R.string.navigate_to_location), GeoIntents.newNavigationIntent(43.481055f, -1.561959f)));
-        intents.add(new DemoItem(res.getString(R.string.streetview_at_location), GeoIntents.newStreetViewIntent(43.481055f, -1.561959f)));
+        intents.add(new DemoItem(res.getString(R.string.map_of), IntentDescriptors.maps("1 rue du louvre 75000 Paris", "Le Louvre, Paris")));
+        intents.add(new DemoItem(res.getString(R.string.map_at), IntentDescriptors.maps(43.481055, -1.561959, "Biarritz, France")));
+        intents.add(new DemoItem(res.getString(R.string.navigate_to_address), IntentDescriptors.navigation("1 rue du louvre 75000 Paris")));
+        intents.add(new DemoItem(res.getString(R.string.navigate_to_location), IntentDescriptors.navigation(43.481055, -1.561959)));
+        intents.add(new DemoItem(res.getString(R.string.streetview_at_location), IntentDescriptors.streetView(43.481055, -1.561959)));
 
         // MediaIntents
-        intents.add(new DemoItem(res.getString(R.string.play_image), MediaIntents.newPlayImageIntent("http://upload.wikimedia.org/wikipedia/commons/thumb/a/a9/Biarritz-Plage.JPG/1920px-Biarritz-Plage.JPG")));
-        intents.add(new DemoItem(res.getString(R.string.play_audio), MediaIntents.newPlayAudioIntent("http://www.stephaniequinn.com/Music/Allegro%20from%20Duet%20in%20C%20Major.mp3")));
-        intents.add(new DemoItem(res.getString(R.string.play_video), MediaIntents.newPlayVideoIntent("http://mirror.bigbuckbunny.de/peach/bigbuckbunny_movies/big_buck_bunny_480p_h264.mov")));
-        intents.add(new DemoItem(res.getString(R.string.play_video_youtube), MediaIntents.newPlayYouTubeVideoIntent("b_yiWIXBI7o")));
-        intents.add(new DemoItem(res.getString(R.string.browse_web), MediaIntents.newOpenWebBrowserIntent("http://vincentprat.info")));
-        intents.add(new DemoItem(res.getString(R.string.take_pic), MediaIntents.newTakePictureIntent(Environment.getExternalStorageDirectory().toString() + "/temp.jpg")));
-        intents.add(new DemoItem(res.getString(R.string.select_pic), MediaIntents.newSelectPictureIntent()));
+        intents.add(new DemoItem(res.getString(R.string.play_image), IntentDescriptors.playImage("http://upload.wikimedia.org/wikipedia/commons/thumb/a/a9/Biarritz-Plage.JPG/1920px-Biarritz-Plage.JPG")));
+        intents.add(new DemoItem(res.getString(R.string.play_audio), IntentDescriptors.playAudio("http://www.stephaniequinn.com/Music/Allegro%20from%20Duet%20in%20C%20Major.mp3")));
+        intents.add(new DemoItem(res.getString(R.string.play_video), IntentDescriptors.playVideo("http://mirror.bigbuckbunny.de/peach/bigbuckbunny_movies/big_buck_bunny_480p_h264.mov")));
+        intents.add(new DemoItem(res.getString(R.string.play_video_youtube), IntentDescriptors.playYouTubeVideo("b_yiWIXBI7o")));
+        intents.add(new DemoItem(res.getString(R.string.browse_web), IntentDescriptors.openWebBrowser("http://vincentprat.info")));
+        intents.add(new DemoItem(res.getString(R.string.take_pic), IntentDescriptors.takePicture(new File(Environment.getExternalStorageDirectory(), "temp.jpg"))));
+        intents.add(new DemoItem(res.getString(R.string.select_pic), IntentDescriptors.selectPicture()));
 
         // EmailIntents
-        intents.add(new DemoItem(res.getString(R.string.email_to), EmailIntents.newEmailIntent("test@example.com", "My subject", "My content")));
+        intents.add(new DemoItem(res.getString(R.string.email_to), IntentDescriptors.email("test@example.com", "My subject", "My content")));
 
         // ShareIntents
-        intents.add(new DemoItem(res.getString(R.string.share), ShareIntents.newShareTextIntent("My subject", "My message", getString(R.string.share_dialog_title))));
+        intents.add(new DemoItem(res.getString(R.string.share), IntentDescriptors.shareText("My subject", "My message", getString(R.string.share_dialog_title))));
 
         // SystemIntents
-        intents.add(new DemoItem(res.getString(R.string.app_store), SystemIntents.newMarketForAppIntent(getActivity(), "fr.marvinlabs.coverartwallpaper")));
+        intents.add(new DemoItem(res.getString(R.string.app_store), IntentDescriptors.marketForApp("fr.marvinlabs.coverartwallpaper")));
 
         mAdapter = new ArrayAdapter<DemoItem>(getActivity(), android.R.layout.simple_list_item_1, android.R.id.text1, intents);
     }
@@ -131,7 +127,8 @@ public class IntentItemFragment extends Fragment implements AbsListView.OnItemCl
         if (null != mListener) {
             // Notify the active callbacks interface (the activity, if the
             // fragment is attached to one) that an item has been selected.
-            mListener.onFragmentInteraction(((DemoItem) (mAdapter.getItem(position))).intent);
+            // The intent is only built now that it is about to be launched
+            mListener.onFragmentInteraction(((DemoItem) (mAdapter.getItem(position))).intent.newIntent(getActivity()));
         }
     }
 
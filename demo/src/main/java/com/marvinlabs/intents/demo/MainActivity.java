@@ -11,6 +11,9 @@ import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
 import android.os.Build;
+import android.widget.Toast;
+
+import com.marvinlabs.intents.IntentLauncher;
 
 
 
@@ -29,11 +32,8 @@ public class MainActivity extends ActionBarActivity implements IntentItemFragmen
 
     @Override
     public void onFragmentInteraction(Intent intent) {
-        try{
-            startActivity(intent);
-        }catch(ClassNotFoundException e)
-        {
-            Toast.makeText(getApplicationContext(), "Error, try again later", Toast.LENGTH_LONG).show();
+        if (!IntentLauncher.launch(this, intent).isLaunched()) {
+            Toast.makeText(getApplicationContext(), "No application can handle this intent", Toast.LENGTH_LONG).show();
         }
     }
 }
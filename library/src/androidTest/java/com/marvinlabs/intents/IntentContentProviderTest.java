@@ -0,0 +1,205 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.net.Uri;
+import android.os.Build;
+import android.os.ParcelFileDescriptor;
+import android.test.AndroidTestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Reads the streams of {@link IntentContentProvider} through the content resolver, like a receiving application does.
+ * The pipes need a device, hence an instrumentation test.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+public class IntentContentProviderTest extends AndroidTestCase {
+
+    private static final String MIME_TYPE = "application/octet-stream";
+    private static final String DISPLAY_NAME = "data.bin";
+
+    // Larger than the buffer of a pipe, so that the writer blocks on the reader
+    private static final int CONTENT_SIZE = 256 * 1024;
+
+    public void testStreamIsReadToTheEnd() throws IOException {
+        final byte[] content = newContent(CONTENT_SIZE);
+        final Uri uri = IntentContentProvider.registerStream(getContext(), MIME_TYPE, DISPLAY_NAME,
+                new StreamWriter() {
+                    @Override
+                    public void writeTo(OutputStream out) throws IOException {
+                        // Several writes, as a real writer would do
+                        for (int offset = 0; offset < content.length; offset += 1000) {
+                            out.write(content, offset, Math.min(1000, content.length - offset));
+                        }
+                    }
+                });
+
+        assertEquals(MIME_TYPE, getContext().getContentResolver().getType(uri));
+
+        final ParcelFileDescriptor pfd = getContext().getContentResolver().openFileDescriptor(uri, "r");
+        try {
+            final byte[] read = readToEnd(pfd);
+            assertEquals(content.length, read.length);
+            assertTrue(Arrays.equals(content, read));
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+                pfd.checkError();
+            }
+        } finally {
+            pfd.close();
+        }
+    }
+
+    public void testWriterIOExceptionIsReported() throws IOException {
+        checkWriterErrorIsReported(new IOException("Source not readable"));
+    }
+
+    public void testWriterRuntimeExceptionIsReported() throws IOException {
+        checkWriterErrorIsReported(new IllegalStateException("Writer bug"));
+    }
+
+    public void testStreamCanBeOpenedSeveralTimes() throws IOException {
+        final byte[] content = newContent(CONTENT_SIZE);
+        final Uri uri = IntentContentProvider.registerStream(getContext(), MIME_TYPE, DISPLAY_NAME,
+                newWriter(content));
+
+        // One after the other, then two readers at the same time
+        assertTrue(Arrays.equals(content, readStream(uri)));
+        assertTrue(Arrays.equals(content, readStream(uri)));
+
+        final ParcelFileDescriptor first = getContext().getContentResolver().openFileDescriptor(uri, "r");
+        final ParcelFileDescriptor second = getContext().getContentResolver().openFileDescriptor(uri, "r");
+        try {
+            assertTrue(Arrays.equals(content, readToEnd(first)));
+            assertTrue(Arrays.equals(content, readToEnd(second)));
+        } finally {
+            first.close();
+            second.close();
+        }
+
+        IntentContentProvider.unregisterStream(uri);
+        assertNotOpenable(uri);
+    }
+
+    public void testStreamExpiresOnTimeout() throws InterruptedException {
+        final Uri uri = IntentContentProvider.registerStream(getContext(), MIME_TYPE, DISPLAY_NAME,
+                newWriter(newContent(16)), 50);
+        Thread.sleep(100);
+
+        assertNull(getContext().getContentResolver().getType(uri));
+        assertNotOpenable(uri);
+    }
+
+    public void testReleasedStreamCannotBeOpened() {
+        final Uri uri = IntentContentProvider.registerStream(getContext(), MIME_TYPE, DISPLAY_NAME,
+                newWriter(newContent(16)));
+        IntentContentProvider.unregisterStream(uri);
+
+        assertNotOpenable(uri);
+    }
+
+    private void checkWriterErrorIsReported(final Exception error) throws IOException {
+        final byte[] content = newContent(CONTENT_SIZE);
+        final Uri uri = IntentContentProvider.registerStream(getContext(), MIME_TYPE, DISPLAY_NAME,
+                new StreamWriter() {
+                    @Override
+                    public void writeTo(OutputStream out) throws IOException {
+                        out.write(content, 0, content.length / 2);
+                        if (error instanceof IOException) {
+                            throw (IOException) error;
+                        }
+                        throw (RuntimeException) error;
+                    }
+                });
+
+        final ParcelFileDescriptor pfd = getContext().getContentResolver().openFileDescriptor(uri, "r");
+        try {
+            // The reader gets what has been written before the error, then the end of the stream
+            final byte[] read = readToEnd(pfd);
+            assertEquals(content.length / 2, read.length);
+
+            // Before KitKat, pipes have no way to carry the error
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+                try {
+                    pfd.checkError();
+                    fail("The error of the writer should be reported to the reader");
+                } catch (IOException expected) {
+                }
+            }
+        } finally {
+            pfd.close();
+        }
+    }
+
+    private void assertNotOpenable(Uri uri) {
+        try {
+            final ParcelFileDescriptor pfd = getContext().getContentResolver().openFileDescriptor(uri, "r");
+            if (pfd != null) {
+                pfd.close();
+            }
+            fail("The stream should not be served anymore: " + uri);
+        } catch (FileNotFoundException expected) {
+        } catch (IOException e) {
+            fail(e.toString());
+        }
+    }
+
+    private byte[] readStream(Uri uri) throws IOException {
+        final ParcelFileDescriptor pfd = getContext().getContentResolver().openFileDescriptor(uri, "r");
+        try {
+            return readToEnd(pfd);
+        } finally {
+            pfd.close();
+        }
+    }
+
+    private static byte[] readToEnd(ParcelFileDescriptor pfd) throws IOException {
+        // Not closed: the descriptor is closed with the ParcelFileDescriptor, after its error has been checked
+        final InputStream in = new FileInputStream(pfd.getFileDescriptor());
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+            out.write(buffer, 0, count);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] newContent(int size) {
+        final byte[] content = new byte[size];
+        for (int i = 0; i < size; ++i) {
+            content[i] = (byte) (i * 31 + i / 251);
+        }
+        return content;
+    }
+
+    private static StreamWriter newWriter(final byte[] content) {
+        return new StreamWriter() {
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                out.write(content);
+            }
+        };
+    }
+}
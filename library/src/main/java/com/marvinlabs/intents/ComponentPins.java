@@ -0,0 +1,161 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.ResolveInfo;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opt-in cache of the activity handling each kind of intent. When a kind of intent has a single handler (or one the
+ * user has set as default), its component gets remembered and stamped on the next intents of the same kind, which are
+ * then started explicitly: the system does not have to match them against the intent filters of all the installed
+ * applications again. Nothing gets pinned when the user would be shown a chooser.
+ * <p/>
+ * Kinds of intents are told apart by their action, data scheme/authority, MIME type, package and categories, like in
+ * the {@link IntentResolutionCache}. Do not enable pinning if the application starts intents which only differ by
+ * their data path and are meant to reach different applications.
+ * <p/>
+ * The pins of a package are dropped when that package gets updated, disabled or removed, and all of them are dropped
+ * when a package gets installed (it may handle the same intents). A change of the default applications made in the
+ * settings is not broadcast, call {@link #clear()} if the application needs to follow it immediately.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+public final class ComponentPins {
+
+    // Marks the kinds of intents which have no unambiguous handler, so that they are not resolved again
+    private static final ComponentName NOT_PINNED = new ComponentName("", "");
+
+    private static final ConcurrentHashMap<IntentShape, ComponentName> sPins =
+            new ConcurrentHashMap<IntentShape, ComponentName>();
+    private static volatile boolean sEnabled = false;
+
+    static {
+        PackageChangeMonitor.addListener(new PackageChangeMonitor.Listener() {
+            @Override
+            public void onPackageChanged(String action, String packageName) {
+                if (Intent.ACTION_PACKAGE_ADDED.equals(action) || packageName == null) {
+                    sPins.clear();
+                } else {
+                    unpinPackage(packageName);
+                }
+            }
+        });
+    }
+
+    private ComponentPins() {
+    }
+
+    /**
+     * Turn pinning on or off. It is off by default. Turning it off drops all the pins.
+     *
+     * @param enabled true to pin the handlers of the intents started with {@link IntentLauncher} or passed to
+     *                {@link #pin(Context, Intent)}
+     */
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+        if (!enabled) {
+            sPins.clear();
+        }
+    }
+
+    /**
+     * @return true if pinning is on
+     */
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * Make an intent explicit if its handler is known. The package manager is queried the first time a kind of intent
+     * is seen and when the installed packages have changed since.
+     *
+     * @param context The current context
+     * @param intent  The intent to start
+     * @return a copy of the intent targeting the pinned component, or the intent itself if pinning is off, if the
+     * intent is already explicit or if it has no unambiguous handler
+     */
+    public static Intent pin(Context context, Intent intent) {
+        if (!sEnabled || intent.getComponent() != null) {
+            return intent;
+        }
+
+        PackageChangeMonitor.ensureRegistered(context);
+        final IntentShape shape = IntentShape.of(intent);
+
+        ComponentName component = sPins.get(shape);
+        if (component == null) {
+            component = resolve(context, intent, shape);
+        }
+        if (component == NOT_PINNED) {
+            return intent;
+        }
+
+        // Leave the caller's intent untouched
+        return new Intent(intent).setComponent(component);
+    }
+
+    /**
+     * Forget the handler of a kind of intent, for instance after it failed to start
+     *
+     * @param intent The (implicit) intent whose kind should not be pinned anymore
+     */
+    public static void unpin(Intent intent) {
+        sPins.remove(IntentShape.of(intent));
+    }
+
+    /**
+     * Drop all the pins. The handlers will be resolved again on the next launches.
+     */
+    public static void clear() {
+        sPins.clear();
+    }
+
+    private static ComponentName resolve(Context context, Intent intent, IntentShape shape) {
+        final int generation = PackageChangeMonitor.getGeneration();
+        final List<ResolveInfo> handlers = ResolutionStrategy.DEFAULT_HANDLER.query(context, intent);
+        final ComponentName component = handlers.isEmpty()
+                ? NOT_PINNED
+                : new ComponentName(handlers.get(0).activityInfo.packageName, handlers.get(0).activityInfo.name);
+
+        // Do not keep a result which has been computed while the installed packages were changing
+        if (generation == PackageChangeMonitor.getGeneration()) {
+            sPins.put(shape, component);
+            if (generation != PackageChangeMonitor.getGeneration()) {
+                sPins.remove(shape);
+            }
+        }
+        return component;
+    }
+
+    private static void unpinPackage(String packageName) {
+        final Iterator<ComponentName> it = sPins.values().iterator();
+        while (it.hasNext()) {
+            final ComponentName component = it.next();
+            // Removing a package may also leave a single handler for the kinds of intents which had none
+            if (component == NOT_PINNED || packageName.equals(component.getPackageName())) {
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+/**
+ * Writes decimal numbers with a fixed number of decimals, without exponent notation and without allocating. Trailing
+ * zeros of the fractional part are dropped, so 43.4810550 is written "43.481055" and 2.0 is written "2". The same value
+ * always gives the same text, which makes the generated URIs easy to cache and compare.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+public final class CoordinateFormatter {
+
+    /**
+     * The maximum number of decimals a formatter can write
+     */
+    public static final int MAX_PRECISION = 9;
+
+    /**
+     * 6 decimals give a precision of about 10 centimeters for latitudes and longitudes
+     */
+    public static final int DEFAULT_PRECISION = 6;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L
+    };
+
+    // Scaled values must fit in a long
+    private static final double MAX_VALUE = 9.0e9;
+
+    private static final ThreadLocal<char[]> sDigits = new ThreadLocal<char[]>() {
+        @Override
+        protected char[] initialValue() {
+            return new char[20];
+        }
+    };
+
+    private final int precision;
+
+    /**
+     * @param precision The number of decimals to write (between 0 and {@link #MAX_PRECISION})
+     */
+    public CoordinateFormatter(int precision) {
+        if (precision < 0 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be between 0 and " + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Append a value to the buffer
+     *
+     * @param sb    The buffer
+     * @param value The value to write. It must be a finite number with an absolute value lower than 9e9.
+     * @return the buffer
+     */
+    public StringBuilder append(StringBuilder sb, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= MAX_VALUE) {
+            throw new IllegalArgumentException("Cannot format value: " + value);
+        }
+
+        final long pow = POWERS_OF_TEN[precision];
+        final long scaled = Math.round(Math.abs(value) * pow);
+        if (scaled == 0) {
+            return sb.append('0');
+        }
+
+        if (value < 0) {
+            sb.append('-');
+        }
+
+        final char[] digits = sDigits.get();
+        long integerPart = scaled / pow;
+        long fractionPart = scaled % pow;
+
+        // Integer part
+        int pos = digits.length;
+        do {
+            digits[--pos] = (char) ('0' + (integerPart % 10));
+            integerPart /= 10;
+        } while (integerPart != 0);
+        sb.append(digits, pos, digits.length - pos);
+
+        // Fractional part, without its trailing zeros
+        if (fractionPart != 0) {
+            int decimals = precision;
+            while (fractionPart % 10 == 0) {
+                fractionPart /= 10;
+                --decimals;
+            }
+
+            pos = digits.length;
+            for (int i = 0; i < decimals; ++i) {
+                digits[--pos] = (char) ('0' + (fractionPart % 10));
+                fractionPart /= 10;
+            }
+            sb.append('.');
+            sb.append(digits, pos, digits.length - pos);
+        }
+
+        return sb;
+    }
+
+    /**
+     * Format a value
+     *
+     * @param value The value to write
+     * @return the formatted value
+     */
+    public String format(double value) {
+        return append(new StringBuilder(16), value).toString();
+    }
+}
@@ -0,0 +1,184 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Build;
+import android.os.SystemClock;
+import android.provider.Telephony;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide cache of the default SMS application (Android 4.4 and above), which is otherwise looked up in the
+ * system settings each time an SMS intent is created.
+ * <p/>
+ * The cached package is dropped when the default SMS application changes and when that package gets updated, disabled
+ * or removed. The change broadcast is only delivered to the applications which gain or lose the default SMS role,
+ * so the cached package is also looked up again once it is older than the maximum age (see
+ * {@link #setMaxAge(long)}), to follow a change made by the user in the settings.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+public final class DefaultSmsPackage {
+
+    /**
+     * The default maximum age of the cached package, in milliseconds
+     */
+    public static final long DEFAULT_MAX_AGE_MILLIS = 60 * 1000;
+
+    // Telephony.Sms.Intents.ACTION_DEFAULT_SMS_PACKAGE_CHANGED, not in the SDK the library is compiled against
+    private static final String ACTION_DEFAULT_SMS_PACKAGE_CHANGED =
+            "android.provider.action.DEFAULT_SMS_PACKAGE_CHANGED";
+
+    private static final AtomicInteger sEpoch = new AtomicInteger();
+    private static final AtomicLong sLookupCount = new AtomicLong();
+    private static final AtomicLong sSavedLookupCount = new AtomicLong();
+    private static volatile CachedPackage sCached;
+    private static volatile long sMaxAgeMillis = DEFAULT_MAX_AGE_MILLIS;
+    private static volatile boolean sRegistered = false;
+
+    static {
+        PackageChangeMonitor.addListener(new PackageChangeMonitor.Listener() {
+            @Override
+            public void onPackageChanged(String action, String packageName) {
+                final CachedPackage cached = sCached;
+                if (cached != null && cached.packageName != null && cached.packageName.equals(packageName)) {
+                    invalidate();
+                }
+            }
+        });
+    }
+
+    private DefaultSmsPackage() {
+    }
+
+    /**
+     * Get the default SMS application. There is no such thing before Android 4.4, any application may handle the SMS.
+     *
+     * @param context The current context
+     * @return the package name of the default SMS application, or null if there is none or if the device runs an
+     * older version than Android 4.4
+     */
+    public static String get(Context context) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT) {
+            return null;
+        }
+
+        ensureRegistered(context);
+
+        final long now = SystemClock.elapsedRealtime();
+        final CachedPackage cached = sCached;
+        if (cached != null && now - cached.time < sMaxAgeMillis) {
+            sSavedLookupCount.incrementAndGet();
+            return cached.packageName;
+        }
+
+        final int epoch = sEpoch.get();
+        final String packageName = Telephony.Sms.getDefaultSmsPackage(context);
+        sLookupCount.incrementAndGet();
+
+        // Do not keep a result which may have been looked up before a change notification
+        if (epoch == sEpoch.get()) {
+            sCached = new CachedPackage(packageName, now);
+            if (epoch != sEpoch.get()) {
+                sCached = null;
+            }
+        }
+        return packageName;
+    }
+
+    /**
+     * Set how long the cached package is used before being looked up again
+     *
+     * @param maxAgeMillis The maximum age in milliseconds, Long.MAX_VALUE to rely on the change notifications only
+     */
+    public static void setMaxAge(long maxAgeMillis) {
+        sMaxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * Drop the cached package, the next call to {@link #get(Context)} looks it up again
+     */
+    public static void invalidate() {
+        sEpoch.incrementAndGet();
+        sCached = null;
+    }
+
+    /**
+     * @return the number of times the default SMS application has been looked up in the system settings
+     */
+    public static long getLookupCount() {
+        return sLookupCount.get();
+    }
+
+    /**
+     * @return the number of lookups which have been saved by the cache
+     */
+    public static long getSavedLookupCount() {
+        return sSavedLookupCount.get();
+    }
+
+    /**
+     * Reset the lookup counters
+     */
+    public static void resetCounters() {
+        sLookupCount.set(0);
+        sSavedLookupCount.set(0);
+    }
+
+    private static void ensureRegistered(Context context) {
+        if (sRegistered) {
+            return;
+        }
+
+        synchronized (DefaultSmsPackage.class) {
+            if (sRegistered) {
+                return;
+            }
+
+            final Context appContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+            PackageChangeMonitor.ensureRegistered(appContext);
+            appContext.registerReceiver(new DefaultSmsChangeReceiver(),
+                    new IntentFilter(ACTION_DEFAULT_SMS_PACKAGE_CHANGED));
+
+            sRegistered = true;
+        }
+    }
+
+    private static final class CachedPackage {
+        final String packageName;
+        final long time;
+
+        CachedPackage(String packageName, long time) {
+            this.packageName = packageName;
+            this.time = time;
+        }
+    }
+
+    private static class DefaultSmsChangeReceiver extends BroadcastReceiver {
+
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            invalidate();
+        }
+    }
+}
@@ -16,8 +16,17 @@ limitations under the License.
 
 package com.marvinlabs.intents;
 
+import android.content.ContentResolver;
+import android.content.Context;
 import android.content.Intent;
+import android.database.Cursor;
 import android.net.Uri;
+import android.provider.OpenableColumns;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.util.ArrayList;
+import java.util.Iterator;
 
 /**
  * Provides factory methods to create intents to send emails
@@ -63,15 +72,267 @@ public class EmailIntents {
      * @return the intent
      */
     public static Intent newEmailIntent(String[] addresses, String subject, String body, Uri attachment) {
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "EmailIntents.newEmailIntent",
+                email(addresses, subject, body, attachment));
+    }
+
+    /**
+     * Create an intent to send an email with an attachment. If the body is too large to go through the Binder
+     * transaction, it is written to a file and attached instead (see {@link IntentSizeGuard}).
+     *
+     * @param context    The current context
+     * @param addresses  The recipients addresses (or null if not specified)
+     * @param subject    The subject of the email (or null if not specified)
+     * @param body       The body of the email (or null if not specified)
+     * @param attachment The URI of a file to attach to the email. Note that the URI must point to a location the email
+     *                   application is allowed to read and has permissions to access.
+     * @return the intent
+     */
+    public static Intent newEmailIntent(Context context, String[] addresses, String subject, String body,
+                                        Uri attachment) {
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "EmailIntents.newEmailIntent",
+                IntentSizeGuard.guard(context, email(addresses, subject, body, attachment)));
+    }
+
+    /**
+     * Create an intent to send an email with several attachments. The attachments are enumerated lazily: an attachment
+     * larger than what is left of the size budget is skipped, and the iteration stops once maxAttachments are taken or
+     * the size budget is used up. The files given as file:// URIs are served by
+     * {@link IntentContentProvider}, like the ones of
+     * {@link #newEmailWithAttachmentsIntent(Context, String[], String, String, File, FilenameFilter, int, long)}.
+     * The size of the content URIs is queried from their provider; the ones which do not tell it are counted as empty.
+     *
+     * @param context        The current context
+     * @param addresses      The recipients addresses (or null if not specified)
+     * @param subject        The subject of the email (or null if not specified)
+     * @param body           The body of the email (or null if not specified)
+     * @param attachments    The URIs of the files to attach to the email. Note that the content URIs must point to a
+     *                       location the email application is allowed to read and has permissions to access.
+     * @param maxAttachments The maximum number of attachments to take
+     * @param maxTotalSize   The maximum total size of the attachments, in bytes
+     * @return the intent
+     */
+    public static Intent newEmailWithAttachmentsIntent(Context context, String[] addresses, String subject,
+                                                       String body, Iterable<Uri> attachments, int maxAttachments,
+                                                       long maxTotalSize) {
+        final long start = IntentMetrics.startFactory();
+        final AttachmentBudget budget = new AttachmentBudget(maxAttachments, maxTotalSize);
+        final Iterator<Uri> it = attachments.iterator();
+        while (!budget.isSpent() && it.hasNext()) {
+            final Uri attachment = it.next();
+            if (attachment == null) {
+                continue;
+            }
+
+            if (ContentResolver.SCHEME_FILE.equals(attachment.getScheme())) {
+                budget.addFile(context, new File(attachment.getPath()));
+            } else {
+                budget.add(attachment, querySize(context, attachment));
+            }
+        }
+        return IntentMetrics.endFactory(start, "EmailIntents.newEmailWithAttachmentsIntent",
+                emailWithAttachments(addresses, subject, body, budget));
+    }
+
+    /**
+     * Create an intent to send an email with the files of a directory attached (for instance a directory of log files).
+     * A file is only checked when its name is accepted by the filter. A file larger than what is left of the size
+     * budget is skipped, and nothing more is done for the remaining names once maxAttachments files are taken or the
+     * size budget is used up. The order in which the files are taken is the one of the file system.
+     * <p/>
+     * The files are served by {@link IntentContentProvider}, the intent grants the email application the permission
+     * to read them (from Jelly Bean when there are several files), so they can be private to the application.
+     *
+     * @param context        The current context
+     * @param addresses      The recipients addresses (or null if not specified)
+     * @param subject        The subject of the email (or null if not specified)
+     * @param body           The body of the email (or null if not specified)
+     * @param directory      The directory containing the files to attach
+     * @param filter         The filter on the file names (or null to take all the files)
+     * @param maxAttachments The maximum number of files to attach
+     * @param maxTotalSize   The maximum total size of the attached files, in bytes
+     * @return the intent
+     */
+    public static Intent newEmailWithAttachmentsIntent(Context context, String[] addresses, String subject,
+                                                       String body, File directory, FilenameFilter filter,
+                                                       int maxAttachments, long maxTotalSize) {
+        final long start = IntentMetrics.startFactory();
+        final AttachmentBudget budget = new AttachmentBudget(maxAttachments, maxTotalSize);
+        directory.list(new DirectoryScan(context, filter, budget));
+        return IntentMetrics.endFactory(start, "EmailIntents.newEmailWithAttachmentsIntent",
+                emailWithAttachments(addresses, subject, body, budget));
+    }
+
+    /**
+     * Stop serving the files attached by
+     * {@link #newEmailWithAttachmentsIntent(Context, String[], String, String, File, FilenameFilter, int, long)} or
+     * {@link #newEmailWithAttachmentsIntent(Context, String[], String, String, Iterable, int, long)}, for instance once
+     * the email has been sent or if the intent does not get launched. Until then the files stay readable by the
+     * applications which got the permission, as long as the process lives. The other attachments are left untouched.
+     *
+     * @param emailIntent The intent returned by newEmailWithAttachmentsIntent
+     */
+    public static void releaseAttachments(Intent emailIntent) {
+        if (Intent.ACTION_SEND_MULTIPLE.equals(emailIntent.getAction())) {
+            final ArrayList<Uri> attachments = emailIntent.getParcelableArrayListExtra(Intent.EXTRA_STREAM);
+            if (attachments != null) {
+                for (Uri attachment : attachments) {
+                    IntentContentProvider.unregisterFile(attachment);
+                }
+            }
+        } else {
+            final Uri attachment = emailIntent.getParcelableExtra(Intent.EXTRA_STREAM);
+            if (attachment != null) {
+                IntentContentProvider.unregisterFile(attachment);
+            }
+        }
+    }
+
+    /**
+     * @return the size of the content behind the URI, or 0 if the provider does not tell it
+     */
+    private static long querySize(Context context, Uri uri) {
+        Cursor cursor = null;
+        try {
+            cursor = context.getContentResolver().query(uri, new String[]{OpenableColumns.SIZE}, null, null, null);
+            if (cursor != null && cursor.moveToFirst() && !cursor.isNull(0)) {
+                return cursor.getLong(0);
+            }
+        } catch (RuntimeException e) {
+            // Not readable by the application itself (SecurityException, ...), the email app may still be allowed to
+        } finally {
+            if (cursor != null) {
+                cursor.close();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Build the intent of the single attachment factories, without reporting it to {@link IntentMetrics}
+     */
+    private static Intent email(String[] addresses, String subject, String body, Uri attachment) {
         Intent intent = new Intent(Intent.ACTION_SEND);
         if (addresses != null) intent.putExtra(Intent.EXTRA_EMAIL, addresses);
         if (body != null) intent.putExtra(Intent.EXTRA_TEXT, body);
         if (subject != null) intent.putExtra(Intent.EXTRA_SUBJECT, subject);
         if (attachment != null) intent.putExtra(Intent.EXTRA_STREAM, attachment);
         intent.setType(MIME_TYPE_EMAIL);
+        return intent;
+    }
 
+    /**
+     * Build the intent of the multiple attachment factories, without reporting it to {@link IntentMetrics}
+     */
+    private static Intent emailWithAttachments(String[] addresses, String subject, String body,
+                                               AttachmentBudget budget) {
+        final ArrayList<Uri> attachments = budget.attachments;
+        Intent intent;
+        if (attachments.size() <= 1) {
+            intent = email(addresses, subject, body, attachments.isEmpty() ? null : attachments.get(0));
+        } else {
+            intent = new Intent(Intent.ACTION_SEND_MULTIPLE);
+            if (addresses != null) intent.putExtra(Intent.EXTRA_EMAIL, addresses);
+            if (body != null) intent.putExtra(Intent.EXTRA_TEXT, body);
+            if (subject != null) intent.putExtra(Intent.EXTRA_SUBJECT, subject);
+            intent.putParcelableArrayListExtra(Intent.EXTRA_STREAM, attachments);
+            intent.setType(MIME_TYPE_EMAIL);
+        }
+
+        // Only for the files of the library: granting a URI of another provider fails if the app cannot read it
+        if (budget.hasOwnFiles()) {
+            intent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        }
         return intent;
     }
 
-    private static final String MIME_TYPE_EMAIL = "message/rfc822";
+    /**
+     * The attachments taken so far, within a maximum count and total size. It is spent once the count is reached or
+     * the whole size is taken, an attachment which does not fit in the remaining size is only skipped.
+     */
+    private static final class AttachmentBudget {
+        final ArrayList<Uri> attachments = new ArrayList<Uri>();
+        final int maxAttachments;
+        final long maxTotalSize;
+        long totalSize;
+        boolean spent;
+        boolean ownFiles;
+
+        AttachmentBudget(int maxAttachments, long maxTotalSize) {
+            this.maxAttachments = maxAttachments;
+            this.maxTotalSize = maxTotalSize;
+            spent = maxAttachments <= 0;
+        }
+
+        boolean isSpent() {
+            return spent;
+        }
+
+        boolean hasOwnFiles() {
+            return ownFiles;
+        }
+
+        /**
+         * Take a file, served by {@link IntentContentProvider}. Anything else than a regular file is ignored.
+         */
+        void addFile(Context context, File file) {
+            if (!file.isFile()) {
+                return;
+            }
+            final long size = file.length();
+            if (!fits(size)) {
+                return;
+            }
+            add(IntentContentProvider.registerFile(context, file), size);
+            ownFiles = true;
+        }
+
+        /**
+         * Take an attachment, unless it does not fit in the remaining size
+         */
+        void add(Uri attachment, long size) {
+            if (!fits(size)) {
+                return;
+            }
+            totalSize += size;
+            attachments.add(attachment);
+            spent = attachments.size() >= maxAttachments || totalSize >= maxTotalSize;
+        }
+
+        private boolean fits(long size) {
+            return size <= maxTotalSize - totalSize;
+        }
+    }
+
+    /**
+     * Takes the files of a directory while it is listed. File.list still reads all the names of the directory (there
+     * is no streaming listing before API 26), but once the budget is spent the names are skipped without any check of
+     * the file, and none of them is kept.
+     */
+    private static final class DirectoryScan implements FilenameFilter {
+        private final Context context;
+        private final FilenameFilter filter;
+        private final AttachmentBudget budget;
+
+        DirectoryScan(Context context, FilenameFilter filter, AttachmentBudget budget) {
+            this.context = context;
+            this.filter = filter;
+            this.budget = budget;
+        }
+
+        @Override
+        public boolean accept(File directory, String name) {
+            if (budget.isSpent() || (filter != null && !filter.accept(directory, name))) {
+                return false;
+            }
+
+            budget.addFile(context, new File(directory, name));
+            // The files are collected by the budget, the listing itself stays empty
+            return false;
+        }
+    }
+
+    static final String MIME_TYPE_EMAIL = "message/rfc822";
 }
@@ -17,35 +17,58 @@ limitations under the License.
 package com.marvinlabs.intents;
 
 import android.content.Intent;
-import android.net.Uri;
 import android.text.TextUtils;
 
 /**
  * Provides factory methods to create intents to work with geographical data (search locations for instance)
+ * <p/>
+ * The coordinates are written with a fixed number of decimals, see {@link #setCoordinatePrecision(int)}. A NaN or
+ * infinite coordinate does not make a location, the factories reject it with an {@link IllegalArgumentException}.
  *
  * @author Vincent Prat @ MarvinLabs
  */
 public class GeoIntents {
 
+    private static final String GEO_SCHEME = "geo";
+    private static final String NAVIGATION_SCHEME = "google.navigation";
+    private static final String STREET_VIEW_SCHEME = "google.streetview";
+
+    private static volatile CoordinateFormatter sCoordinateFormatter =
+            new CoordinateFormatter(CoordinateFormatter.DEFAULT_PRECISION);
+
+    /**
+     * Set the number of decimals written for the coordinates in the geo URIs. The default is
+     * {@link CoordinateFormatter#DEFAULT_PRECISION}.
+     *
+     * @param precision The number of decimals (between 0 and {@link CoordinateFormatter#MAX_PRECISION})
+     */
+    public static void setCoordinatePrecision(int precision) {
+        sCoordinateFormatter = new CoordinateFormatter(precision);
+    }
+
     /**
      * Intent that should allow opening a map showing the given address (if it exists)
      *
      * @param address    The address to search
-     * @param placeTitle The title to show on the marker
+     * @param placeTitle The title to show on the marker (or null for no title)
      * @return the intent
      */
     public static Intent newMapsIntent(String address, String placeTitle) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("geo:0,0?q=");
+        final long start = IntentMetrics.startFactory();
+        StringBuilder sb = UriEncoder.obtainBuffer();
+        sb.append("0,0?q=");
 
-        String addressEncoded = Uri.encode(address);
-        sb.append(addressEncoded);
+        UriEncoder.appendEncoded(sb, address);
 
         // pass text for the info window
-        String titleEncoded = Uri.encode(" (" + placeTitle + ")");
-        sb.append(titleEncoded);
+        if (placeTitle != null) {
+            sb.append("%20(");
+            UriEncoder.appendEncoded(sb, placeTitle);
+            sb.append(")");
+        }
 
-        return new Intent(Intent.ACTION_VIEW, Uri.parse(sb.toString()));
+        return IntentMetrics.endFactory(start, "GeoIntents.newMapsIntent",
+                new Intent(Intent.ACTION_VIEW, UriEncoder.newOpaqueUri(GEO_SCHEME, sb)));
     }
 
     /**
@@ -54,6 +77,7 @@ public class GeoIntents {
      * @param latitude  The latitude of the center of the map
      * @param longitude The longitude of the center of the map
      * @return the intent
+     * @throws IllegalArgumentException if a coordinate is NaN or infinite
      */
     public static Intent newMapsIntent(float latitude, float longitude) {
         return newMapsIntent(latitude, longitude, null);
@@ -66,26 +90,54 @@ public class GeoIntents {
      * @param longitude The longitude of the center of the map
      * @param placeName The name to show on the marker
      * @return the intent
+     * @throws IllegalArgumentException if a coordinate is NaN or infinite
      */
     public static Intent newMapsIntent(float latitude, float longitude, String placeName) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("geo:");
+        return newMapsIntent((double) latitude, (double) longitude, placeName);
+    }
+
+    /**
+     * Intent that should allow opening a map showing the given location (if it exists)
+     *
+     * @param latitude  The latitude of the center of the map
+     * @param longitude The longitude of the center of the map
+     * @return the intent
+     * @throws IllegalArgumentException if a coordinate is NaN or infinite
+     */
+    public static Intent newMapsIntent(double latitude, double longitude) {
+        return newMapsIntent(latitude, longitude, null);
+    }
+
+    /**
+     * Intent that should allow opening a map showing the given location (if it exists)
+     *
+     * @param latitude  The latitude of the center of the map
+     * @param longitude The longitude of the center of the map
+     * @param placeName The name to show on the marker
+     * @return the intent
+     * @throws IllegalArgumentException if a coordinate is NaN or infinite
+     */
+    public static Intent newMapsIntent(double latitude, double longitude, String placeName) {
+        final long start = IntentMetrics.startFactory();
+        final CoordinateFormatter formatter = sCoordinateFormatter;
+        StringBuilder sb = UriEncoder.obtainBuffer();
 
-        sb.append(latitude);
+        formatter.append(sb, latitude);
         sb.append(",");
-        sb.append(longitude);
+        formatter.append(sb, longitude);
 
         if (!TextUtils.isEmpty(placeName)) {
             sb.append("?q=");
-            sb.append(latitude);
+            formatter.append(sb, latitude);
             sb.append(",");
-            sb.append(longitude);
+            formatter.append(sb, longitude);
             sb.append("(");
-            sb.append(Uri.encode(placeName));
+            UriEncoder.appendEncoded(sb, placeName);
             sb.append(")");
         }
 
-        return new Intent(Intent.ACTION_VIEW, Uri.parse(sb.toString()));
+        return IntentMetrics.endFactory(start, "GeoIntents.newMapsIntent",
+                new Intent(Intent.ACTION_VIEW, UriEncoder.newOpaqueUri(GEO_SCHEME, sb)));
     }
 
 
@@ -96,13 +148,14 @@ public class GeoIntents {
      * @return the intent
      */
     public static Intent newNavigationIntent(String address) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("google.navigation:q=");
+        final long start = IntentMetrics.startFactory();
+        StringBuilder sb = UriEncoder.obtainBuffer();
+        sb.append("q=");
 
-        String addressEncoded = Uri.encode(address);
-        sb.append(addressEncoded);
+        UriEncoder.appendEncoded(sb, address);
 
-        return new Intent(Intent.ACTION_VIEW, Uri.parse(sb.toString()));
+        return IntentMetrics.endFactory(start, "GeoIntents.newNavigationIntent",
+                new Intent(Intent.ACTION_VIEW, UriEncoder.newOpaqueUri(NAVIGATION_SCHEME, sb)));
     }
 
     /**
@@ -111,16 +164,32 @@ public class GeoIntents {
      * @param latitude  The latitude of the center of the map
      * @param longitude The longitude of the center of the map
      * @return the intent
+     * @throws IllegalArgumentException if a coordinate is NaN or infinite
      */
     public static Intent newNavigationIntent(float latitude, float longitude) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("google.navigation:q=");
+        return newNavigationIntent((double) latitude, (double) longitude);
+    }
+
+    /**
+     * Intent that should allow opening a map showing the given location (if it exists)
+     *
+     * @param latitude  The latitude of the center of the map
+     * @param longitude The longitude of the center of the map
+     * @return the intent
+     * @throws IllegalArgumentException if a coordinate is NaN or infinite
+     */
+    public static Intent newNavigationIntent(double latitude, double longitude) {
+        final long start = IntentMetrics.startFactory();
+        final CoordinateFormatter formatter = sCoordinateFormatter;
+        StringBuilder sb = UriEncoder.obtainBuffer();
+        sb.append("q=");
 
-        sb.append(latitude);
+        formatter.append(sb, latitude);
         sb.append(",");
-        sb.append(longitude);
+        formatter.append(sb, longitude);
 
-        return new Intent(Intent.ACTION_VIEW, Uri.parse(sb.toString()));
+        return IntentMetrics.endFactory(start, "GeoIntents.newNavigationIntent",
+                new Intent(Intent.ACTION_VIEW, UriEncoder.newOpaqueUri(NAVIGATION_SCHEME, sb)));
     }
 
     /**
@@ -129,6 +198,7 @@ public class GeoIntents {
      *
      * @param latitude  Latitude
      * @param longitude Longitude
+     * @throws IllegalArgumentException if a coordinate is NaN or infinite
      */
     public static Intent newStreetViewIntent(float latitude, float longitude) {
         return newStreetViewIntent(latitude, longitude, null, null, null, null);
@@ -146,6 +216,7 @@ public class GeoIntents {
      *                  landscape vertical FOV. This means that the horizontal FOV of an Android phone in portrait mode is much
      *                  narrower than in landscape mode. This is done to minimize the fisheye lens effect that would be present
      *                  if a 90 degree horizontal FOV was used in portrait mode.
+     * @throws IllegalArgumentException if a coordinate or the zoom is NaN or infinite
      */
     public static Intent newStreetViewIntent(float latitude, float longitude, float zoom) {
         return newStreetViewIntent(latitude, longitude, null, null, zoom, null);
@@ -166,6 +237,7 @@ public class GeoIntents {
      * @param mapZoom   The map zoom of the map location associated with this panorama.
      *                  This value is passed on to the Maps activity when the Street View "Go to Maps" menu item is chosen.
      *                  It corresponds to the zoomLevel parameter in {@link #showLocation(float, float, Integer)}
+     * @throws IllegalArgumentException if a coordinate or the zoom is NaN or infinite
      */
     public static Intent newStreetViewIntent(float latitude, float longitude, float zoom, int mapZoom) {
         return newStreetViewIntent(latitude, longitude, null, null, zoom, mapZoom);
@@ -191,6 +263,7 @@ public class GeoIntents {
      * @param mapZoom   The map zoom of the map location associated with this panorama.
      *                  This value is passed on to the Maps activity when the Street View "Go to Maps" menu item is chosen.
      *                  It corresponds to the zoomLevel parameter in {@link #showLocation(float, float, Integer)}
+     * @throws IllegalArgumentException if a coordinate, the yaw or the zoom is NaN or infinite
      */
     public static Intent newStreetViewIntent(float latitude,
                                              float longitude,
@@ -198,24 +271,87 @@ public class GeoIntents {
                                              Integer pitch,
                                              Float zoom,
                                              Integer mapZoom) {
-        StringBuilder builder = new StringBuilder("google.streetview:cbll=").append(latitude).append(",").append(longitude);
+        return newStreetViewIntent((double) latitude, (double) longitude, yaw, pitch, zoom, mapZoom);
+    }
 
-        if (yaw != null || pitch != null || zoom != null) {
-            String cbpParam = String.format("%s,,%s,%s",
-                    yaw == null ? "" : yaw,
-                    pitch == null ? "" : pitch,
-                    zoom == null ? "" : zoom);
+    /**
+     * Same as {@link #newStreetViewIntent(float, float)} with double-precision coordinates
+     *
+     * @param latitude  Latitude
+     * @param longitude Longitude
+     * @throws IllegalArgumentException if a coordinate is NaN or infinite
+     */
+    public static Intent newStreetViewIntent(double latitude, double longitude) {
+        return newStreetViewIntent(latitude, longitude, null, null, null, null);
+    }
 
-            builder.append("&cbp=1,").append(cbpParam);
+    /**
+     * Same as {@link #newStreetViewIntent(float, float, float)} with double-precision coordinates
+     *
+     * @param latitude  Latitude
+     * @param longitude Longitude
+     * @param zoom      Panorama zoom
+     * @throws IllegalArgumentException if a coordinate or the zoom is NaN or infinite
+     */
+    public static Intent newStreetViewIntent(double latitude, double longitude, float zoom) {
+        return newStreetViewIntent(latitude, longitude, null, null, zoom, null);
+    }
+
+    /**
+     * Same as {@link #newStreetViewIntent(float, float, float, int)} with double-precision coordinates
+     *
+     * @param latitude  Latitude
+     * @param longitude Longitude
+     * @param zoom      Panorama zoom
+     * @param mapZoom   The map zoom of the map location associated with this panorama
+     * @throws IllegalArgumentException if a coordinate or the zoom is NaN or infinite
+     */
+    public static Intent newStreetViewIntent(double latitude, double longitude, float zoom, int mapZoom) {
+        return newStreetViewIntent(latitude, longitude, null, null, zoom, mapZoom);
+    }
+
+    /**
+     * Same as {@link #newStreetViewIntent(float, float, Float, Integer, Float, Integer)} with double-precision
+     * coordinates
+     *
+     * @param latitude  Latitude
+     * @param longitude Longitude
+     * @param yaw       Panorama center-of-view in degrees clockwise from North
+     * @param pitch     Panorama center-of-view in degrees from -90 (look straight up) to 90 (look straight down.)
+     * @param zoom      Panorama zoom
+     * @param mapZoom   The map zoom of the map location associated with this panorama
+     * @throws IllegalArgumentException if a coordinate, the yaw or the zoom is NaN or infinite
+     */
+    public static Intent newStreetViewIntent(double latitude,
+                                             double longitude,
+                                             Float yaw,
+                                             Integer pitch,
+                                             Float zoom,
+                                             Integer mapZoom) {
+        final long start = IntentMetrics.startFactory();
+        final CoordinateFormatter formatter = sCoordinateFormatter;
+        StringBuilder builder = UriEncoder.obtainBuffer();
+        builder.append("cbll=");
+        formatter.append(builder, latitude).append(",");
+        formatter.append(builder, longitude);
+
+        if (yaw != null || pitch != null || zoom != null) {
+            // cbp=1,yaw,,pitch,zoom
+            builder.append("&cbp=1,");
+            if (yaw != null) formatter.append(builder, yaw);
+            builder.append(",,");
+            if (pitch != null) builder.append(pitch.intValue());
+            builder.append(",");
+            if (zoom != null) formatter.append(builder, zoom);
         }
         if (mapZoom != null) {
-            builder.append("&mz=").append(mapZoom);
+            builder.append("&mz=").append(mapZoom.intValue());
         }
 
         Intent intent = new Intent();
         intent.setAction(Intent.ACTION_VIEW);
-        intent.setData(Uri.parse(builder.toString()));
+        intent.setData(UriEncoder.newOpaqueUri(STREET_VIEW_SCHEME, builder));
 
-        return intent;
+        return IntentMetrics.endFactory(start, "GeoIntents.newStreetViewIntent", intent);
     }
 }
@@ -0,0 +1,44 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.content.Intent;
+
+/**
+ * Receives the intents which are created asynchronously by the factories. Exactly one of the methods is called for
+ * each task which is not cancelled.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+public interface IntentCallback {
+
+    /**
+     * Called when the intent has been created. This is called on a thread of the executor which has been given to
+     * the factory, not on the main thread. It is not called if the task has been cancelled.
+     *
+     * @param intent The intent (may be null if the factory could not create any)
+     */
+    void onIntentCreated(Intent intent);
+
+    /**
+     * Called when the factory threw instead of creating the intent. This is called on a thread of the executor which
+     * has been given to the factory, not on the main thread. It is not called if the task has been cancelled.
+     *
+     * @param error The exception thrown by the factory
+     */
+    void onIntentFailed(Throwable error);
+}
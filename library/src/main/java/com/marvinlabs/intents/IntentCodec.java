@@ -0,0 +1,482 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.content.ComponentName;
+import android.content.Intent;
+import android.content.IntentSender;
+import android.net.Uri;
+import android.os.Bundle;
+import android.os.Parcelable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compact binary form of the intents built by the library, to store them for later (deferred or offline actions).
+ * Unlike {@link Intent#toUri(int)}, extras keep their type, including String[], Uri and lists.
+ * <p/>
+ * Format (version {@value #VERSION}): a version byte, a bit mask of the fields present, the flags, then the action,
+ * data URI, type, package, component and categories present, and finally the extras as (key, type tag, value)
+ * entries. Strings are written as a variable-length byte count followed by their UTF-8 bytes, so there is no length
+ * limit as with {@link DataOutput#writeUTF(String)}.
+ * <p/>
+ * Supported extras: String, CharSequence (styling is lost), String[], ArrayList of String, Uri, ArrayList of Uri,
+ * int, long, boolean, ComponentName and Intent (for instance the target of a chooser). Encoding an intent holding
+ * any other kind of extra fails with an IllegalArgumentException rather than silently dropping it. This includes
+ * IntentSender extras, such as the one of the chooser built by {@link RecentShareTargets} when tracking is on: a
+ * sender is a token held by the system, which cannot be stored. Encode the target intent instead and build the
+ * chooser again when it is used.
+ * <p/>
+ * The clip data and the selector of the intent are dropped: the decoded intent has neither.
+ * <p/>
+ * The limits checked when decoding (string length, number of items and nesting depth of the intents) are also
+ * checked when encoding, so that any intent which can be encoded can be decoded. An intent over these limits fails
+ * to encode with an IllegalArgumentException.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+public final class IntentCodec {
+
+    /**
+     * The version of the format written by this class. Intents written by older versions can still be read.
+     */
+    public static final int VERSION = 1;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // Refuse to allocate more than that for a string read from a corrupted input (UTF-8 bytes)
+    static final int MAX_STRING_LENGTH = 16 * 1024 * 1024;
+
+    // Same for the number of items of an array or list, of categories and of extras
+    static final int MAX_COUNT = 64 * 1024;
+
+    // Intents nested in the extras of other intents (for instance a chooser), a corrupted input could go on forever
+    static final int MAX_DEPTH = 8;
+
+    // Fields present in the encoded intent
+    private static final int FIELD_ACTION = 1;
+    private static final int FIELD_DATA = 1 << 1;
+    private static final int FIELD_TYPE = 1 << 2;
+    private static final int FIELD_PACKAGE = 1 << 3;
+    private static final int FIELD_COMPONENT = 1 << 4;
+    private static final int FIELD_CATEGORIES = 1 << 5;
+    private static final int FIELD_EXTRAS = 1 << 6;
+
+    // Types of the extras
+    private static final int TYPE_NULL = 0;
+    private static final int TYPE_STRING = 1;
+    private static final int TYPE_CHAR_SEQUENCE = 2;
+    private static final int TYPE_STRING_ARRAY = 3;
+    private static final int TYPE_STRING_LIST = 4;
+    private static final int TYPE_URI = 5;
+    private static final int TYPE_URI_LIST = 6;
+    private static final int TYPE_INT = 7;
+    private static final int TYPE_LONG = 8;
+    private static final int TYPE_BOOLEAN = 9;
+    private static final int TYPE_COMPONENT = 10;
+    private static final int TYPE_INTENT = 11;
+
+    private IntentCodec() {
+    }
+
+    /**
+     * Encode an intent to a byte array
+     *
+     * @param intent The intent
+     * @return the encoded intent
+     * @throws IllegalArgumentException if the intent holds an extra of an unsupported type or is over the limits of
+     *                                  the format
+     */
+    public static byte[] encode(Intent intent) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try {
+            write(intent, new DataOutputStream(bytes));
+        } catch (IOException e) {
+            // Cannot happen when writing to memory
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode an intent encoded by {@link #encode(Intent)}
+     *
+     * @param bytes The encoded intent
+     * @return the intent
+     * @throws IOException if the bytes do not hold a valid intent
+     */
+    public static Intent decode(byte[] bytes) throws IOException {
+        return read(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    /**
+     * Write an intent. Several intents can be written one after the other to the same output.
+     *
+     * @param intent The intent
+     * @param out    The output to write to
+     * @throws IOException              if the output cannot be written to
+     * @throws IllegalArgumentException if the intent holds an extra of an unsupported type or is over the limits of
+     *                                  the format
+     */
+    public static void write(Intent intent, DataOutput out) throws IOException {
+        out.writeByte(VERSION);
+        writeIntent(intent, out, 0);
+    }
+
+    /**
+     * Read an intent written by {@link #write(Intent, DataOutput)}
+     *
+     * @param in The input to read from
+     * @return the intent
+     * @throws IOException if the input cannot be read or does not hold a valid intent
+     */
+    public static Intent read(DataInput in) throws IOException {
+        final int version = in.readUnsignedByte();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported intent format version: " + version);
+        }
+        return readIntent(in, 0);
+    }
+
+    private static void writeIntent(Intent intent, DataOutput out, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Intents nested too deep, at most " + MAX_DEPTH + " levels");
+        }
+
+        final String action = intent.getAction();
+        final Uri data = intent.getData();
+        final String type = intent.getType();
+        final String packageName = intent.getPackage();
+        final ComponentName component = intent.getComponent();
+        final Set<String> categories = intent.getCategories();
+        final Bundle extras = intent.getExtras();
+
+        int fields = 0;
+        if (action != null) fields |= FIELD_ACTION;
+        if (data != null) fields |= FIELD_DATA;
+        if (type != null) fields |= FIELD_TYPE;
+        if (packageName != null) fields |= FIELD_PACKAGE;
+        if (component != null) fields |= FIELD_COMPONENT;
+        if (categories != null && !categories.isEmpty()) fields |= FIELD_CATEGORIES;
+        if (extras != null && !extras.isEmpty()) fields |= FIELD_EXTRAS;
+
+        writeVarInt(fields, out);
+        out.writeInt(intent.getFlags());
+
+        if (action != null) writeString(action, out);
+        if (data != null) writeString(data.toString(), out);
+        if (type != null) writeString(type, out);
+        if (packageName != null) writeString(packageName, out);
+        if (component != null) writeString(component.flattenToString(), out);
+
+        if ((fields & FIELD_CATEGORIES) != 0) {
+            writeCount(categories.size(), out);
+            for (String category : categories) {
+                writeString(category, out);
+            }
+        }
+
+        if ((fields & FIELD_EXTRAS) != 0) {
+            final Set<String> keys = extras.keySet();
+            writeCount(keys.size(), out);
+            for (String key : keys) {
+                writeString(key, out);
+                writeExtra(key, extras.get(key), out, depth);
+            }
+        }
+    }
+
+    private static Intent readIntent(DataInput in, int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new IOException("Intents nested too deep");
+        }
+
+        final int fields = readVarInt(in);
+        final Intent intent = new Intent();
+        intent.setFlags(in.readInt());
+
+        if ((fields & FIELD_ACTION) != 0) intent.setAction(readString(in));
+
+        final Uri data = (fields & FIELD_DATA) != 0 ? Uri.parse(readString(in)) : null;
+        final String type = (fields & FIELD_TYPE) != 0 ? readString(in) : null;
+        if (data != null && type != null) {
+            // Calling setData then setType would clear the data
+            intent.setDataAndType(data, type);
+        } else if (data != null) {
+            intent.setData(data);
+        } else if (type != null) {
+            intent.setType(type);
+        }
+
+        if ((fields & FIELD_PACKAGE) != 0) intent.setPackage(readString(in));
+        if ((fields & FIELD_COMPONENT) != 0) {
+            final String flattened = readString(in);
+            final ComponentName component = ComponentName.unflattenFromString(flattened);
+            if (component == null) {
+                throw new IOException("Invalid component: " + flattened);
+            }
+            intent.setComponent(component);
+        }
+
+        if ((fields & FIELD_CATEGORIES) != 0) {
+            final int count = readCount(in);
+            for (int i = 0; i < count; ++i) {
+                intent.addCategory(readString(in));
+            }
+        }
+
+        if ((fields & FIELD_EXTRAS) != 0) {
+            final int count = readCount(in);
+            for (int i = 0; i < count; ++i) {
+                readExtra(readString(in), intent, in, depth);
+            }
+        }
+
+        return intent;
+    }
+
+    private static void writeExtra(String key, Object value, DataOutput out, int depth) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof String) {
+            out.writeByte(TYPE_STRING);
+            writeString((String) value, out);
+        } else if (value instanceof CharSequence) {
+            out.writeByte(TYPE_CHAR_SEQUENCE);
+            writeString(value.toString(), out);
+        } else if (value instanceof String[]) {
+            final String[] array = (String[]) value;
+            out.writeByte(TYPE_STRING_ARRAY);
+            writeCount(array.length, out);
+            for (String item : array) {
+                writeNullableString(item, out);
+            }
+        } else if (value instanceof Uri) {
+            out.writeByte(TYPE_URI);
+            writeString(value.toString(), out);
+        } else if (value instanceof Integer) {
+            out.writeByte(TYPE_INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof ComponentName) {
+            out.writeByte(TYPE_COMPONENT);
+            writeString(((ComponentName) value).flattenToString(), out);
+        } else if (value instanceof Intent) {
+            out.writeByte(TYPE_INTENT);
+            writeIntent((Intent) value, out, depth + 1);
+        } else if (value instanceof ArrayList) {
+            writeList(key, (ArrayList<?>) value, out);
+        } else if (value instanceof IntentSender) {
+            throw new IllegalArgumentException("Cannot encode extra " + key
+                    + ": an IntentSender is a token held by the system, encode the intent it was created for instead");
+        } else {
+            throw new IllegalArgumentException("Unsupported type for extra " + key + ": " + value.getClass().getName());
+        }
+    }
+
+    private static void writeList(String key, List<?> list, DataOutput out) throws IOException {
+        // The type of the list is the type of its items, an empty list is read back as a list of strings
+        final boolean uris = !list.isEmpty() && list.get(0) instanceof Uri;
+        for (Object item : list) {
+            if (item != null && (uris ? !(item instanceof Uri) : !(item instanceof String))) {
+                throw new IllegalArgumentException("Unsupported item type in list extra " + key + ": "
+                        + item.getClass().getName());
+            }
+        }
+
+        out.writeByte(uris ? TYPE_URI_LIST : TYPE_STRING_LIST);
+        writeCount(list.size(), out);
+        for (Object item : list) {
+            writeNullableString(item == null ? null : item.toString(), out);
+        }
+    }
+
+    private static void readExtra(String key, Intent intent, DataInput in, int depth) throws IOException {
+        final int type = in.readUnsignedByte();
+        switch (type) {
+            case TYPE_NULL:
+                intent.putExtra(key, (String) null);
+                break;
+            case TYPE_STRING:
+                intent.putExtra(key, readString(in));
+                break;
+            case TYPE_CHAR_SEQUENCE:
+                intent.putExtra(key, (CharSequence) readString(in));
+                break;
+            case TYPE_STRING_ARRAY: {
+                final String[] array = new String[readCount(in)];
+                for (int i = 0; i < array.length; ++i) {
+                    array[i] = readNullableString(in);
+                }
+                intent.putExtra(key, array);
+                break;
+            }
+            case TYPE_STRING_LIST: {
+                final int count = readCount(in);
+                final ArrayList<String> list = new ArrayList<String>(count);
+                for (int i = 0; i < count; ++i) {
+                    list.add(readNullableString(in));
+                }
+                intent.putStringArrayListExtra(key, list);
+                break;
+            }
+            case TYPE_URI:
+                intent.putExtra(key, (Parcelable) Uri.parse(readString(in)));
+                break;
+            case TYPE_URI_LIST: {
+                final int count = readCount(in);
+                final ArrayList<Uri> list = new ArrayList<Uri>(count);
+                for (int i = 0; i < count; ++i) {
+                    final String uri = readNullableString(in);
+                    list.add(uri == null ? null : Uri.parse(uri));
+                }
+                intent.putParcelableArrayListExtra(key, list);
+                break;
+            }
+            case TYPE_INT:
+                intent.putExtra(key, in.readInt());
+                break;
+            case TYPE_LONG:
+                intent.putExtra(key, in.readLong());
+                break;
+            case TYPE_BOOLEAN:
+                intent.putExtra(key, in.readBoolean());
+                break;
+            case TYPE_COMPONENT: {
+                final String flattened = readString(in);
+                final ComponentName component = ComponentName.unflattenFromString(flattened);
+                if (component == null) {
+                    throw new IOException("Invalid component for extra " + key + ": " + flattened);
+                }
+                intent.putExtra(key, component);
+                break;
+            }
+            case TYPE_INTENT:
+                intent.putExtra(key, readIntent(in, depth + 1));
+                break;
+            default:
+                throw new IOException("Unknown type for extra " + key + ": " + type);
+        }
+    }
+
+    private static void writeString(String value, DataOutput out) throws IOException {
+        final byte[] bytes = toBytes(value);
+        writeVarInt(bytes.length, out);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        final int length = readVarInt(in);
+        if (length > MAX_STRING_LENGTH) {
+            throw new IOException("String too long: " + length);
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Same as {@link #writeString(String, DataOutput)}, the length being shifted by one so that 0 stands for null
+     */
+    private static void writeNullableString(String value, DataOutput out) throws IOException {
+        if (value == null) {
+            writeVarInt(0, out);
+            return;
+        }
+        final byte[] bytes = toBytes(value);
+        writeVarInt(bytes.length + 1, out);
+        out.write(bytes);
+    }
+
+    private static String readNullableString(DataInput in) throws IOException {
+        final int length = readVarInt(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (length > MAX_STRING_LENGTH) {
+            throw new IOException("String too long: " + length);
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static byte[] toBytes(String value) {
+        final byte[] bytes = value.getBytes(UTF_8);
+        if (bytes.length > MAX_STRING_LENGTH) {
+            throw new IllegalArgumentException("String too long: " + bytes.length + " bytes, at most "
+                    + MAX_STRING_LENGTH);
+        }
+        return bytes;
+    }
+
+    private static void writeCount(int count, DataOutput out) throws IOException {
+        if (count > MAX_COUNT) {
+            throw new IllegalArgumentException("Too many items: " + count + ", at most " + MAX_COUNT);
+        }
+        writeVarInt(count, out);
+    }
+
+    private static int readCount(DataInput in) throws IOException {
+        final int count = readVarInt(in);
+        if (count > MAX_COUNT) {
+            throw new IOException("Too many items: " + count);
+        }
+        return count;
+    }
+
+    /**
+     * Write a non-negative int on 1 to 5 bytes, 7 bits at a time, lowest bits first
+     */
+    private static void writeVarInt(int value, DataOutput out) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    throw new IOException("Invalid length: " + value);
+                }
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length int");
+    }
+}
@@ -0,0 +1,452 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.content.ContentProvider;
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.net.Uri;
+import android.os.Build;
+import android.os.ParcelFileDescriptor;
+import android.provider.OpenableColumns;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-only provider which lets other applications read the content shared by the intents of the library. It is
+ * declared in the manifest of the library (not exported, other apps get access through URI permission grants).
+ * <p/>
+ * URIs are of the form content://[application id].marvinlabs.intents/[kind]/[name]. The supported kinds are:
+ * <ul>
+ * <li>spill: a text file written to the cache directory by {@link IntentSizeGuard}</li>
+ * <li>stream: content generated on the fly by a {@link StreamWriter} and sent through a pipe, see
+ * {@link ShareIntents#newShareStreamIntent(Context, String, String, StreamWriter, String)}. A stream can be opened
+ * any number of times, each time through a new pipe, until it is unregistered or for {@link #STREAM_TIMEOUT_MILLIS}
+ * after it has been registered.</li>
+ * <li>file: a file of the application, for instance an email attachment, see
+ * {@link EmailIntents#newEmailWithAttachmentsIntent(Context, String[], String, String, java.io.File,
+ * java.io.FilenameFilter, int, long)}. Only the files registered by the library are served, under an opaque
+ * name, until they are released with {@link EmailIntents#releaseAttachments(android.content.Intent)}.</li>
+ * </ul>
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+public class IntentContentProvider extends ContentProvider {
+
+    static final String AUTHORITY_SUFFIX = ".marvinlabs.intents";
+    static final String PATH_SPILL = "spill";
+    static final String PATH_STREAM = "stream";
+    static final String PATH_FILE = "file";
+
+    /**
+     * Time after which a stream is not served anymore (the readers which have opened it already are not interrupted)
+     */
+    static final long STREAM_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final String TAG = "IntentContentProvider";
+
+    private static final String SPILL_DIRECTORY = "marvinlabs-intents-spill";
+    private static final String SPILL_MIME_TYPE = "text/plain";
+    private static final String DEFAULT_MIME_TYPE = "application/octet-stream";
+
+    private static final String[] DEFAULT_PROJECTION = {OpenableColumns.DISPLAY_NAME, OpenableColumns.SIZE};
+
+    private static final ConcurrentHashMap<String, SharedStream> sStreams =
+            new ConcurrentHashMap<String, SharedStream>();
+
+    // Registered files by id, and their ids by absolute path so that a file always gets the same URI
+    private static final ConcurrentHashMap<String, File> sFiles = new ConcurrentHashMap<String, File>();
+    private static final ConcurrentHashMap<String, String> sFileIds = new ConcurrentHashMap<String, String>();
+
+    // Each open stream keeps a thread busy until the reader is done, hence a pool which grows as needed
+    private static final ExecutorService sStreamExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            final Thread thread = new Thread(r, "IntentContentProvider stream");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * @param context The current context
+     * @return the authority of the provider for the current application
+     */
+    static String getAuthority(Context context) {
+        return context.getPackageName() + AUTHORITY_SUFFIX;
+    }
+
+    /**
+     * @param context The current context
+     * @return the directory where the spilled texts are written
+     */
+    static File getSpillDirectory(Context context) {
+        return new File(context.getCacheDir(), SPILL_DIRECTORY);
+    }
+
+    /**
+     * @param context The current context
+     * @param file    A file of the spill directory
+     * @return the content URI to read that file
+     */
+    static Uri getSpillUri(Context context, File file) {
+        return new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority(getAuthority(context))
+                .appendPath(PATH_SPILL)
+                .appendPath(file.getName())
+                .build();
+    }
+
+    /**
+     * Make a file available to the applications which get a read permission on the returned URI. The file stays
+     * available until {@link #unregisterFile(Uri)} is called, or as long as the process lives. A file is registered
+     * once whatever the number of calls, so that the registry never holds more entries than distinct files.
+     *
+     * @param context The current context
+     * @param file    The file
+     * @return the content URI of the file
+     */
+    static Uri registerFile(Context context, File file) {
+        final String path = file.getAbsolutePath();
+        String id = sFileIds.get(path);
+        if (id == null) {
+            final String newId = UUID.randomUUID().toString();
+            sFiles.put(newId, file);
+            id = sFileIds.putIfAbsent(path, newId);
+            if (id == null) {
+                id = newId;
+            } else {
+                sFiles.remove(newId);
+            }
+        }
+
+        return new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority(getAuthority(context))
+                .appendPath(PATH_FILE)
+                .appendPath(id)
+                .build();
+    }
+
+    /**
+     * Stop serving a file registered by {@link #registerFile(Context, File)}. The readers which have opened it already
+     * are not interrupted. Any other URI is ignored.
+     *
+     * @param uri The content URI of the file
+     */
+    static void unregisterFile(Uri uri) {
+        final List<String> segments = uri.getPathSegments();
+        if (segments.size() == 2 && PATH_FILE.equals(segments.get(0))) {
+            // The path first, so that a new registration of the file does not get the id being removed
+            final String id = segments.get(1);
+            final File file = sFiles.get(id);
+            if (file != null) {
+                sFileIds.remove(file.getAbsolutePath(), id);
+                sFiles.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Make some content available as a stream
+     *
+     * @param context     The current context
+     * @param mimeType    The MIME type of the content
+     * @param displayName The name under which the content is presented to the receiving application
+     * @param writer      The writer producing the content when the stream is opened
+     * @return the content URI of the stream
+     */
+    static Uri registerStream(Context context, String mimeType, String displayName, StreamWriter writer) {
+        return registerStream(context, mimeType, displayName, writer, STREAM_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Make some content available as a stream
+     *
+     * @param context       The current context
+     * @param mimeType      The MIME type of the content
+     * @param displayName   The name under which the content is presented to the receiving application
+     * @param writer        The writer producing the content each time the stream is opened
+     * @param timeoutMillis The time after which the stream is not served anymore
+     * @return the content URI of the stream
+     */
+    static Uri registerStream(Context context, String mimeType, String displayName, StreamWriter writer,
+                              long timeoutMillis) {
+        final long now = System.currentTimeMillis();
+        removeExpiredStreams(now);
+
+        final String id = UUID.randomUUID().toString();
+        sStreams.put(id, new SharedStream(mimeType, displayName, writer, now + timeoutMillis));
+
+        return new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority(getAuthority(context))
+                .appendPath(PATH_STREAM)
+                .appendPath(id)
+                .build();
+    }
+
+    /**
+     * Stop serving a stream. Streams which are already open are not interrupted.
+     *
+     * @param uri The content URI of the stream
+     */
+    static void unregisterStream(Uri uri) {
+        final List<String> segments = uri.getPathSegments();
+        if (segments.size() == 2 && PATH_STREAM.equals(segments.get(0))) {
+            sStreams.remove(segments.get(1));
+        }
+    }
+
+    @Override
+    public boolean onCreate() {
+        return true;
+    }
+
+    @Override
+    public String getType(Uri uri) {
+        final List<String> segments = uri.getPathSegments();
+        if (segments.size() == 2 && PATH_SPILL.equals(segments.get(0))) {
+            return SPILL_MIME_TYPE;
+        }
+        if (segments.size() == 2 && PATH_FILE.equals(segments.get(0))) {
+            final File file = sFiles.get(segments.get(1));
+            if (file == null) {
+                return null;
+            }
+            final String type = MimeTypes.fromFileName(file.getName());
+            return type == null ? DEFAULT_MIME_TYPE : type;
+        }
+        if (segments.size() == 2 && PATH_STREAM.equals(segments.get(0))) {
+            final SharedStream stream = sStreams.get(segments.get(1));
+            return stream == null || stream.isExpired(System.currentTimeMillis()) ? null : stream.mimeType;
+        }
+        return null;
+    }
+
+    @Override
+    public ParcelFileDescriptor openFile(Uri uri, String mode) throws FileNotFoundException {
+        if (!"r".equals(mode)) {
+            throw new FileNotFoundException("Read-only provider, mode not supported: " + mode);
+        }
+
+        final SharedStream stream = getStream(uri);
+        if (stream != null) {
+            return openPipe(stream);
+        }
+        return ParcelFileDescriptor.open(getFile(uri), ParcelFileDescriptor.MODE_READ_ONLY);
+    }
+
+    @Override
+    public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs, String sortOrder) {
+        final String displayName;
+        final Long size;
+        try {
+            final SharedStream stream = getStream(uri);
+            if (stream != null) {
+                // The size of a stream is not known until it has been written
+                displayName = stream.displayName;
+                size = null;
+            } else {
+                final File file = getFile(uri);
+                displayName = file.getName();
+                size = file.length();
+            }
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+
+        if (projection == null) {
+            projection = DEFAULT_PROJECTION;
+        }
+
+        final Object[] row = new Object[projection.length];
+        for (int i = 0; i < projection.length; ++i) {
+            if (OpenableColumns.DISPLAY_NAME.equals(projection[i])) {
+                row[i] = displayName;
+            } else if (OpenableColumns.SIZE.equals(projection[i])) {
+                row[i] = size;
+            }
+        }
+
+        final MatrixCursor cursor = new MatrixCursor(projection, 1);
+        cursor.addRow(row);
+        return cursor;
+    }
+
+    @Override
+    public Uri insert(Uri uri, ContentValues values) {
+        throw new UnsupportedOperationException("Read-only provider");
+    }
+
+    @Override
+    public int delete(Uri uri, String selection, String[] selectionArgs) {
+        throw new UnsupportedOperationException("Read-only provider");
+    }
+
+    @Override
+    public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+        throw new UnsupportedOperationException("Read-only provider");
+    }
+
+    /**
+     * @param uri The URI to serve
+     * @return the stream, or null if the URI is not the one of a stream
+     * @throws FileNotFoundException if the stream has been released or has expired
+     */
+    private static SharedStream getStream(Uri uri) throws FileNotFoundException {
+        final List<String> segments = uri.getPathSegments();
+        if (segments.size() != 2 || !PATH_STREAM.equals(segments.get(0))) {
+            return null;
+        }
+
+        final String id = segments.get(1);
+        final SharedStream stream = sStreams.get(id);
+        if (stream == null || stream.isExpired(System.currentTimeMillis())) {
+            if (stream != null) {
+                sStreams.remove(id);
+            }
+            throw new FileNotFoundException("Stream not available anymore: " + uri);
+        }
+        return stream;
+    }
+
+    private static void removeExpiredStreams(long now) {
+        final Iterator<Map.Entry<String, SharedStream>> it = sStreams.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getValue().isExpired(now)) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Start writing the stream to a new pipe on a background thread and give the read side of the pipe. From KitKat,
+     * the pipe is a reliable one: when the writer fails, the reader gets the error from
+     * {@link ParcelFileDescriptor#checkError()} instead of a stream which looks complete.
+     */
+    private static ParcelFileDescriptor openPipe(final SharedStream stream) throws FileNotFoundException {
+        final ParcelFileDescriptor[] pipe;
+        try {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+                pipe = ParcelFileDescriptor.createReliablePipe();
+            } else {
+                pipe = ParcelFileDescriptor.createPipe();
+            }
+        } catch (IOException e) {
+            throw new FileNotFoundException("Cannot create pipe: " + e.getMessage());
+        }
+
+        final ParcelFileDescriptor writeSide = pipe[1];
+        sStreamExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                // Not closed itself: closing the write side with a status closes the descriptor
+                final OutputStream out = new FileOutputStream(writeSide.getFileDescriptor());
+                String error = null;
+                try {
+                    stream.writer.writeTo(out);
+                    out.flush();
+                } catch (IOException e) {
+                    // Most likely the reader closed its side of the pipe before the end
+                    Log.w(TAG, "Could not write the whole stream", e);
+                    error = String.valueOf(e.getMessage());
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "Stream writer failed", e);
+                    error = e.toString();
+                } finally {
+                    closeWriteSide(writeSide, error);
+                }
+            }
+        });
+
+        return pipe[0];
+    }
+
+    private static void closeWriteSide(ParcelFileDescriptor writeSide, String error) {
+        try {
+            if (error != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+                writeSide.closeWithError(error);
+            } else {
+                writeSide.close();
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    private File getFile(Uri uri) throws FileNotFoundException {
+        final List<String> segments = uri.getPathSegments();
+        if (segments.size() == 2 && PATH_FILE.equals(segments.get(0))) {
+            final File file = sFiles.get(segments.get(1));
+            if (file == null || !file.isFile()) {
+                throw new FileNotFoundException("No such file: " + uri);
+            }
+            return file;
+        }
+        if (segments.size() != 2 || !PATH_SPILL.equals(segments.get(0))) {
+            throw new FileNotFoundException("Unknown URI: " + uri);
+        }
+
+        // Decoded segments may not contain a separator, but refuse anything which could escape the directory anyway
+        final String name = segments.get(1);
+        if (name.contains(File.separator) || name.startsWith(".")) {
+            throw new FileNotFoundException("Invalid file name: " + uri);
+        }
+
+        final File file = new File(getSpillDirectory(getContext()), name);
+        if (!file.isFile()) {
+            throw new FileNotFoundException("No such file: " + uri);
+        }
+        return file;
+    }
+
+    private static final class SharedStream {
+        final String mimeType;
+        final String displayName;
+        final StreamWriter writer;
+        final long expiresAt;
+
+        SharedStream(String mimeType, String displayName, StreamWriter writer, long expiresAt) {
+            this.mimeType = mimeType;
+            this.displayName = displayName;
+            this.writer = writer;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.content.Context;
+import android.content.Intent;
+
+/**
+ * An immutable description of an intent: it only holds the parameters of the factory which creates the intent, and
+ * the intent itself is built when it is needed, typically when it gets launched. This saves the cost of building
+ * intents which never get launched, for instance for the rows of a list of actions.
+ * <p/>
+ * Descriptors for the factories of the library are created by {@link IntentDescriptors}. They can be shared between
+ * threads and reused any number of times.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+public abstract class IntentDescriptor {
+
+    protected IntentDescriptor() {
+    }
+
+    /**
+     * Build the described intent. A new intent is returned on each call.
+     *
+     * @param context The current context
+     * @return the intent, or null if it cannot be created on this device
+     */
+    public abstract Intent newIntent(Context context);
+
+    /**
+     * Build an intent of the same shape as the described one (action, data scheme, type, package and component), for
+     * {@link #isAvailable(Context)}. Unlike {@link #newIntent(Context)}, it must not have any side effect: no file
+     * written, no content registered, no pending intent created and no file read. It does not need the extras.
+     * <p/>
+     * This returns {@link #newIntent(Context)} by default. The descriptors whose factory has side effects override it.
+     *
+     * @param context The current context
+     * @return the probe intent, or null if the intent cannot be created on this device
+     */
+    protected Intent newProbeIntent(Context context) {
+        return newIntent(context);
+    }
+
+    /**
+     * Check whether an application can handle the described intent. The check is done on
+     * {@link #newProbeIntent(Context)}, the intent itself is not built. The result is cached, see
+     * {@link IntentUtils#isIntentAvailable(Context, Intent)}.
+     *
+     * @param context The current context
+     * @return true if the intent can be launched
+     */
+    public boolean isAvailable(Context context) {
+        final Intent intent = newProbeIntent(context);
+        return intent != null && IntentUtils.isIntentAvailable(context, intent);
+    }
+}
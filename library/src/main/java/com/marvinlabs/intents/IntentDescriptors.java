@@ -0,0 +1,723 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+
+import java.io.File;
+import java.io.FilenameFilter;
+
+/**
+ * Provides factory methods to create {@link IntentDescriptor}s for the intents of the library. The descriptors only
+ * record the parameters: the intents are built, and the installed applications queried when needed, once
+ * {@link IntentDescriptor#newIntent(Context)} gets called. The availability checks never run the side effects of the
+ * factories (files written or read, content registered, pending intents), see
+ * {@link IntentDescriptor#newProbeIntent(Context)}.
+ * <p/>
+ * Not every overload has its descriptor: the float coordinates go to the double ones, and
+ * {@link PhoneIntents#newSmsIntents(Context, String, String[], int, int)} creates several intents, use one
+ * {@link #sms(String, String[])} descriptor per chunk of recipients instead.
+ * <p/>
+ * Example:
+ * <p/>
+ * <code><pre>
+ *     IntentDescriptor dial = IntentDescriptors.dialNumber("+123456789");
+ *
+ *     // Later, when the user taps the row
+ *     startActivity(dial.newIntent(context));
+ * </pre></code>
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+public class IntentDescriptors {
+
+    //==============================================================================================
+    // Phone
+
+    /**
+     * @see PhoneIntents#newDialNumberIntent(String)
+     */
+    public static IntentDescriptor dialNumber(final String phoneNumber) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return PhoneIntents.newDialNumberIntent(phoneNumber);
+            }
+        };
+    }
+
+    /**
+     * @see PhoneIntents#newCallNumberIntent(String)
+     */
+    public static IntentDescriptor callNumber(final String phoneNumber) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return PhoneIntents.newCallNumberIntent(phoneNumber);
+            }
+        };
+    }
+
+    /**
+     * @see PhoneIntents#newEmptySmsIntent(Context)
+     */
+    public static IntentDescriptor emptySms() {
+        return emptySms((String[]) null);
+    }
+
+    /**
+     * @see PhoneIntents#newEmptySmsIntent(Context, String)
+     */
+    public static IntentDescriptor emptySms(String phoneNumber) {
+        return emptySms(new String[]{phoneNumber});
+    }
+
+    /**
+     * @see PhoneIntents#newEmptySmsIntent(Context, String[])
+     */
+    public static IntentDescriptor emptySms(String[] phoneNumbers) {
+        final String[] numbers = phoneNumbers == null ? null : phoneNumbers.clone();
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return PhoneIntents.newEmptySmsIntent(context, numbers);
+            }
+        };
+    }
+
+    /**
+     * @see PhoneIntents#newSmsIntent(Context, String)
+     */
+    public static IntentDescriptor sms(String body) {
+        return sms(body, (String[]) null);
+    }
+
+    /**
+     * @see PhoneIntents#newSmsIntent(Context, String, String)
+     */
+    public static IntentDescriptor sms(String body, String phoneNumber) {
+        return sms(body, new String[]{phoneNumber});
+    }
+
+    /**
+     * @see PhoneIntents#newSmsIntent(Context, String, String[])
+     */
+    public static IntentDescriptor sms(final String body, String[] phoneNumbers) {
+        final String[] numbers = phoneNumbers == null ? null : phoneNumbers.clone();
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return PhoneIntents.newSmsIntent(context, body, numbers);
+            }
+        };
+    }
+
+    /**
+     * @see PhoneIntents#newPickContactIntent(String)
+     */
+    public static IntentDescriptor pickContact(final String scope) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return PhoneIntents.newPickContactIntent(scope);
+            }
+        };
+    }
+
+    /**
+     * @see PhoneIntents#newPickContactIntent()
+     */
+    public static IntentDescriptor pickContact() {
+        return pickContact(null);
+    }
+
+    /**
+     * @see PhoneIntents#newPickContactWithPhoneIntent()
+     */
+    public static IntentDescriptor pickContactWithPhone() {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return PhoneIntents.newPickContactWithPhoneIntent();
+            }
+        };
+    }
+
+    //==============================================================================================
+    // Geo
+
+    /**
+     * @see GeoIntents#newMapsIntent(String, String)
+     */
+    public static IntentDescriptor maps(final String address, final String placeTitle) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return GeoIntents.newMapsIntent(address, placeTitle);
+            }
+        };
+    }
+
+    /**
+     * @see GeoIntents#newMapsIntent(double, double, String)
+     */
+    public static IntentDescriptor maps(final double latitude, final double longitude, final String placeName) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return GeoIntents.newMapsIntent(latitude, longitude, placeName);
+            }
+        };
+    }
+
+    /**
+     * @see GeoIntents#newMapsIntent(double, double)
+     */
+    public static IntentDescriptor maps(double latitude, double longitude) {
+        return maps(latitude, longitude, null);
+    }
+
+    /**
+     * @see GeoIntents#newNavigationIntent(String)
+     */
+    public static IntentDescriptor navigation(final String address) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return GeoIntents.newNavigationIntent(address);
+            }
+        };
+    }
+
+    /**
+     * @see GeoIntents#newNavigationIntent(double, double)
+     */
+    public static IntentDescriptor navigation(final double latitude, final double longitude) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return GeoIntents.newNavigationIntent(latitude, longitude);
+            }
+        };
+    }
+
+    /**
+     * @see GeoIntents#newStreetViewIntent(double, double, Float, Integer, Float, Integer)
+     */
+    public static IntentDescriptor streetView(final double latitude, final double longitude, final Float yaw,
+                                              final Integer pitch, final Float zoom, final Integer mapZoom) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return GeoIntents.newStreetViewIntent(latitude, longitude, yaw, pitch, zoom, mapZoom);
+            }
+        };
+    }
+
+    /**
+     * @see GeoIntents#newStreetViewIntent(double, double)
+     */
+    public static IntentDescriptor streetView(double latitude, double longitude) {
+        return streetView(latitude, longitude, null, null, null, null);
+    }
+
+    /**
+     * @see GeoIntents#newStreetViewIntent(double, double, float)
+     */
+    public static IntentDescriptor streetView(double latitude, double longitude, float zoom) {
+        return streetView(latitude, longitude, null, null, zoom, null);
+    }
+
+    /**
+     * @see GeoIntents#newStreetViewIntent(double, double, float, int)
+     */
+    public static IntentDescriptor streetView(double latitude, double longitude, float zoom, int mapZoom) {
+        return streetView(latitude, longitude, null, null, zoom, mapZoom);
+    }
+
+    //==============================================================================================
+    // Media
+
+    /**
+     * @see MediaIntents#newPlayMediaIntent(String, String)
+     */
+    public static IntentDescriptor playMedia(final String url, final String type) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return MediaIntents.newPlayMediaIntent(url, type);
+            }
+        };
+    }
+
+    /**
+     * @see MediaIntents#newPlayAudioIntent(String)
+     */
+    public static IntentDescriptor playAudio(String url) {
+        return playMedia(url, MediaIntents.AUDIO_TYPE);
+    }
+
+    /**
+     * @see MediaIntents#newPlayImageIntent(String)
+     */
+    public static IntentDescriptor playImage(String url) {
+        return playMedia(url, MediaIntents.IMAGE_TYPE);
+    }
+
+    /**
+     * @see MediaIntents#newPlayVideoIntent(String)
+     */
+    public static IntentDescriptor playVideo(String url) {
+        return playMedia(url, MediaIntents.VIDEO_TYPE);
+    }
+
+    /**
+     * @see MediaIntents#newPlayAudioFileIntent(File)
+     */
+    public static IntentDescriptor playAudioFile(File file) {
+        return playAudioFile(file, false);
+    }
+
+    /**
+     * @see MediaIntents#newPlayAudioFileIntent(String)
+     */
+    public static IntentDescriptor playAudioFile(String path) {
+        return playAudioFile(new File(path), false);
+    }
+
+    /**
+     * @see MediaIntents#newPlayAudioFileIntent(File, boolean)
+     */
+    public static IntentDescriptor playAudioFile(final File file, final boolean exactType) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return MediaIntents.newPlayAudioFileIntent(file, exactType);
+            }
+        };
+    }
+
+    /**
+     * @see MediaIntents#newPlayAudioFileIntent(String, boolean)
+     */
+    public static IntentDescriptor playAudioFile(String path, boolean exactType) {
+        return playAudioFile(new File(path), exactType);
+    }
+
+    /**
+     * @see MediaIntents#newPlayImageFileIntent(File)
+     */
+    public static IntentDescriptor playImageFile(File file) {
+        return playImageFile(file, false);
+    }
+
+    /**
+     * @see MediaIntents#newPlayImageFileIntent(String)
+     */
+    public static IntentDescriptor playImageFile(String path) {
+        return playImageFile(new File(path), false);
+    }
+
+    /**
+     * @see MediaIntents#newPlayImageFileIntent(File, boolean)
+     */
+    public static IntentDescriptor playImageFile(final File file, final boolean exactType) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return MediaIntents.newPlayImageFileIntent(file, exactType);
+            }
+        };
+    }
+
+    /**
+     * @see MediaIntents#newPlayImageFileIntent(String, boolean)
+     */
+    public static IntentDescriptor playImageFile(String path, boolean exactType) {
+        return playImageFile(new File(path), exactType);
+    }
+
+    /**
+     * @see MediaIntents#newPlayVideoFileIntent(File)
+     */
+    public static IntentDescriptor playVideoFile(File file) {
+        return playVideoFile(file, false);
+    }
+
+    /**
+     * @see MediaIntents#newPlayVideoFileIntent(String)
+     */
+    public static IntentDescriptor playVideoFile(String path) {
+        return playVideoFile(new File(path), false);
+    }
+
+    /**
+     * @see MediaIntents#newPlayVideoFileIntent(File, boolean)
+     */
+    public static IntentDescriptor playVideoFile(final File file, final boolean exactType) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return MediaIntents.newPlayVideoFileIntent(file, exactType);
+            }
+        };
+    }
+
+    /**
+     * @see MediaIntents#newPlayVideoFileIntent(String, boolean)
+     */
+    public static IntentDescriptor playVideoFile(String path, boolean exactType) {
+        return playVideoFile(new File(path), exactType);
+    }
+
+    /**
+     * @see MediaIntents#newPlayMediaFileIntent(File, String)
+     */
+    public static IntentDescriptor playMediaFile(final File file, final String type) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return MediaIntents.newPlayMediaFileIntent(file, type);
+            }
+        };
+    }
+
+    /**
+     * The type of the file is only looked up when the intent is built. The availability check does not read the file,
+     * it uses the type of its extension.
+     *
+     * @see MediaIntents#newPlayMediaFileIntent(File)
+     */
+    public static IntentDescriptor playMediaFile(final File file) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return MediaIntents.newPlayMediaFileIntent(file);
+            }
+
+            @Override
+            protected Intent newProbeIntent(Context context) {
+                final String type = MimeTypes.fromFileName(file.getName());
+                return probe(Intent.ACTION_VIEW, Uri.fromFile(file), type == null ? MediaIntents.ANY_TYPE : type);
+            }
+        };
+    }
+
+    /**
+     * @see MediaIntents#newPlayYouTubeVideoIntent(Context, String)
+     */
+    public static IntentDescriptor playYouTubeVideo(final String videoId) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return MediaIntents.newPlayYouTubeVideoIntent(context, videoId);
+            }
+        };
+    }
+
+    /**
+     * @see MediaIntents#newPlayYouTubeVideoIntent(Context, String, int)
+     */
+    public static IntentDescriptor playYouTubeVideo(final String videoId, final int startSeconds) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return MediaIntents.newPlayYouTubeVideoIntent(context, videoId, startSeconds);
+            }
+        };
+    }
+
+    /**
+     * @see MediaIntents#newPlayYouTubePlaylistIntent(String)
+     */
+    public static IntentDescriptor playYouTubePlaylist(final String playlistId) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return MediaIntents.newPlayYouTubePlaylistIntent(playlistId);
+            }
+        };
+    }
+
+    /**
+     * @see MediaIntents#newPlayYouTubePlaylistIntent(String, String)
+     */
+    public static IntentDescriptor playYouTubePlaylist(final String playlistId, final String videoId) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return MediaIntents.newPlayYouTubePlaylistIntent(playlistId, videoId);
+            }
+        };
+    }
+
+    /**
+     * @see MediaIntents#newOpenWebBrowserIntent(String)
+     */
+    public static IntentDescriptor openWebBrowser(final String url) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return MediaIntents.newOpenWebBrowserIntent(url);
+            }
+        };
+    }
+
+    /**
+     * @see MediaIntents#newTakePictureIntent(File)
+     */
+    public static IntentDescriptor takePicture(final File tempFile) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return MediaIntents.newTakePictureIntent(tempFile);
+            }
+        };
+    }
+
+    /**
+     * @see MediaIntents#newTakePictureIntent(String)
+     */
+    public static IntentDescriptor takePicture(String tempFile) {
+        return takePicture(new File(tempFile));
+    }
+
+    /**
+     * @see MediaIntents#newSelectPictureIntent()
+     */
+    public static IntentDescriptor selectPicture() {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return MediaIntents.newSelectPictureIntent();
+            }
+        };
+    }
+
+    //==============================================================================================
+    // Email & share
+
+    /**
+     * @see EmailIntents#newEmailIntent(String, String, String)
+     */
+    public static IntentDescriptor email(String address, String subject, String body) {
+        return email(address == null ? null : new String[]{address}, subject, body, null);
+    }
+
+    /**
+     * @see EmailIntents#newEmailIntent(Context, String[], String, String, Uri)
+     */
+    public static IntentDescriptor email(String[] addresses, final String subject, final String body,
+                                         final Uri attachment) {
+        final String[] recipients = addresses == null ? null : addresses.clone();
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return EmailIntents.newEmailIntent(context, recipients, subject, body, attachment);
+            }
+
+            @Override
+            protected Intent newProbeIntent(Context context) {
+                return probe(Intent.ACTION_SEND, null, EmailIntents.MIME_TYPE_EMAIL);
+            }
+        };
+    }
+
+    /**
+     * The attachments are enumerated again each time the intent is built. The availability check does not enumerate
+     * them, it is done on an email with a single attachment.
+     *
+     * @see EmailIntents#newEmailWithAttachmentsIntent(Context, String[], String, String, Iterable, int, long)
+     */
+    public static IntentDescriptor emailWithAttachments(String[] addresses, final String subject, final String body,
+                                                        final Iterable<Uri> attachments, final int maxAttachments,
+                                                        final long maxTotalSize) {
+        final String[] recipients = addresses == null ? null : addresses.clone();
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return EmailIntents.newEmailWithAttachmentsIntent(context, recipients, subject, body, attachments,
+                        maxAttachments, maxTotalSize);
+            }
+
+            @Override
+            protected Intent newProbeIntent(Context context) {
+                return probe(Intent.ACTION_SEND, null, EmailIntents.MIME_TYPE_EMAIL);
+            }
+        };
+    }
+
+    /**
+     * The directory is listed again each time the intent is built. The availability check does not list it, it is done
+     * on an email with a single attachment.
+     *
+     * @see EmailIntents#newEmailWithAttachmentsIntent(Context, String[], String, String, File, FilenameFilter, int,
+     * long)
+     */
+    public static IntentDescriptor emailWithAttachments(String[] addresses, final String subject, final String body,
+                                                        final File directory, final FilenameFilter filter,
+                                                        final int maxAttachments, final long maxTotalSize) {
+        final String[] recipients = addresses == null ? null : addresses.clone();
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return EmailIntents.newEmailWithAttachmentsIntent(context, recipients, subject, body, directory,
+                        filter, maxAttachments, maxTotalSize);
+            }
+
+            @Override
+            protected Intent newProbeIntent(Context context) {
+                return probe(Intent.ACTION_SEND, null, EmailIntents.MIME_TYPE_EMAIL);
+            }
+        };
+    }
+
+    /**
+     * @see ShareIntents#newShareTextIntent(Context, String, String, String)
+     */
+    public static IntentDescriptor shareText(final String subject, final String message,
+                                             final String chooserDialogTitle) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return ShareIntents.newShareTextIntent(context, subject, message, chooserDialogTitle);
+            }
+
+            @Override
+            protected Intent newProbeIntent(Context context) {
+                return Intent.createChooser(probe(Intent.ACTION_SEND, null, ShareIntents.MIME_TYPE_TEXT),
+                        chooserDialogTitle);
+            }
+        };
+    }
+
+    /**
+     * @see ShareIntents#newDirectShareTextIntent(Context, ComponentName, String, String)
+     */
+    public static IntentDescriptor directShareText(final ComponentName target, final String subject,
+                                                   final String message) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return ShareIntents.newDirectShareTextIntent(context, target, subject, message);
+            }
+
+            @Override
+            protected Intent newProbeIntent(Context context) {
+                return probe(Intent.ACTION_SEND, null, ShareIntents.MIME_TYPE_TEXT).setComponent(target);
+            }
+        };
+    }
+
+    /**
+     * Each intent built from this descriptor serves its own stream, release it with
+     * {@link ShareIntents#releaseSharedStream(Intent)} if it does not get launched.
+     *
+     * @see ShareIntents#newShareStreamIntent(Context, String, String, StreamWriter, String)
+     */
+    public static IntentDescriptor shareStream(final String mimeType, final String displayName,
+                                               final StreamWriter writer, final String chooserDialogTitle) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return ShareIntents.newShareStreamIntent(context, mimeType, displayName, writer, chooserDialogTitle);
+            }
+
+            @Override
+            protected Intent newProbeIntent(Context context) {
+                return Intent.createChooser(probe(Intent.ACTION_SEND, null, mimeType), chooserDialogTitle);
+            }
+        };
+    }
+
+    //==============================================================================================
+    // System
+
+    /**
+     * The market for the application of the context which builds the intent.
+     *
+     * @see SystemIntents#newMarketForAppIntent(Context)
+     */
+    public static IntentDescriptor marketForApp() {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return SystemIntents.newMarketForAppIntent(context);
+            }
+        };
+    }
+
+    /**
+     * @see SystemIntents#newMarketForAppIntent(Context, String)
+     */
+    public static IntentDescriptor marketForApp(final String packageName) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return SystemIntents.newMarketForAppIntent(context, packageName);
+            }
+        };
+    }
+
+    /**
+     * @see SystemIntents#newGooglePlayIntent(Context, String)
+     */
+    public static IntentDescriptor googlePlay(final String packageName) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return SystemIntents.newGooglePlayIntent(context, packageName);
+            }
+        };
+    }
+
+    /**
+     * @see SystemIntents#newAmazonStoreIntent(Context, String)
+     */
+    public static IntentDescriptor amazonStore(final String packageName) {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return SystemIntents.newAmazonStoreIntent(context, packageName);
+            }
+        };
+    }
+
+    /**
+     * @see SystemIntents#newPickFileIntent()
+     */
+    public static IntentDescriptor pickFile() {
+        return new IntentDescriptor() {
+            @Override
+            public Intent newIntent(Context context) {
+                return SystemIntents.newPickFileIntent();
+            }
+        };
+    }
+
+    /**
+     * @return an intent with only the parts which decide which applications can handle it
+     */
+    private static Intent probe(String action, Uri data, String type) {
+        final Intent intent = new Intent(action);
+        intent.setDataAndType(data, type);
+        return intent;
+    }
+}
@@ -0,0 +1,184 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An ordered list of URI templates to try one after the other ("try the app URI, else the web URL"). The first
+ * candidate which can be handled by an installed application wins. The winner is remembered until the installed
+ * packages change, so later calls go straight to it without probing the candidates again, whatever the argument.
+ * <p/>
+ * Example:
+ * <p/>
+ * <code><pre>
+ *     IntentFallbackChain chain = new IntentFallbackChain.Builder()
+ *             .tryUri("market://details?id=")
+ *             .orElseUri("https://play.google.com/store/apps/details?id=")
+ *             .build();
+ *
+ *     Intent intent = chain.newIntent(context, "com.example.app");
+ * </pre></code>
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+public final class IntentFallbackChain {
+
+    private final String[] prefixes;
+    private final Intent[] probes;
+    private final boolean hasUnconditionalCandidate;
+    private volatile Winner winner;
+
+    private IntentFallbackChain(List<String> prefixes, boolean hasUnconditionalCandidate) {
+        this.prefixes = prefixes.toArray(new String[prefixes.size()]);
+        this.hasUnconditionalCandidate = hasUnconditionalCandidate;
+
+        final int probeCount = hasUnconditionalCandidate ? this.prefixes.length - 1 : this.prefixes.length;
+        this.probes = new Intent[probeCount];
+        for (int i = 0; i < probeCount; ++i) {
+            probes[i] = new Intent(Intent.ACTION_VIEW, Uri.parse(this.prefixes[i]));
+        }
+    }
+
+    /**
+     * @return the number of candidates in the chain
+     */
+    public int size() {
+        return prefixes.length;
+    }
+
+    /**
+     * Find the first candidate which can be handled on this device
+     *
+     * @param context The current context
+     * @return the index of the winning candidate, or -1 if none of them can be handled
+     */
+    public int resolve(Context context) {
+        PackageChangeMonitor.ensureRegistered(context);
+
+        final Winner current = winner;
+        if (current != null && current.generation == PackageChangeMonitor.getGeneration()) {
+            return current.index;
+        }
+
+        final int generation = PackageChangeMonitor.getGeneration();
+        int index = -1;
+        for (int i = 0; i < probes.length; ++i) {
+            if (IntentUtils.isIntentAvailable(context, probes[i])) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0 && hasUnconditionalCandidate) {
+            index = prefixes.length - 1;
+        }
+
+        winner = new Winner(index, generation);
+        return index;
+    }
+
+    /**
+     * Build the URI of a candidate
+     *
+     * @param index    The index of the candidate
+     * @param argument The text to append to the candidate URI template
+     * @return the URI
+     */
+    public Uri newUri(int index, String argument) {
+        return Uri.parse(prefixes[index] + argument);
+    }
+
+    /**
+     * Create a view intent for the first candidate which can be handled on this device
+     *
+     * @param context  The current context
+     * @param argument The text to append to the candidate URI template (a package name, a video ID, ...)
+     * @return the intent or null if none of the candidates can be handled
+     */
+    public Intent newIntent(Context context, String argument) {
+        final int index = resolve(context);
+        if (index < 0) {
+            return null;
+        }
+        return new Intent(Intent.ACTION_VIEW, newUri(index, argument));
+    }
+
+    /**
+     * Forget the winning candidate. The candidates will be probed again on the next call.
+     */
+    public void reset() {
+        winner = null;
+    }
+
+    private static final class Winner {
+        final int index;
+        final int generation;
+
+        Winner(int index, int generation) {
+            this.index = index;
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * Builds a fallback chain
+     */
+    public static final class Builder {
+
+        private final List<String> prefixes = new ArrayList<String>();
+        private boolean hasUnconditionalCandidate = false;
+
+        /**
+         * Add a candidate which is used only if an installed application can handle it
+         *
+         * @param uriPrefix The URI template, the argument gets appended to it (for instance "market://details?id=")
+         * @return the builder
+         */
+        public Builder tryUri(String uriPrefix) {
+            if (hasUnconditionalCandidate) {
+                throw new IllegalStateException("No candidate can be added after the unconditional one");
+            }
+            prefixes.add(uriPrefix);
+            return this;
+        }
+
+        /**
+         * Add the last candidate, which is used without being probed when none of the previous ones can be handled
+         * (typically a web URL).
+         *
+         * @param uriPrefix The URI template, the argument gets appended to it
+         * @return the builder
+         */
+        public Builder orElseUri(String uriPrefix) {
+            tryUri(uriPrefix);
+            hasUnconditionalCandidate = true;
+            return this;
+        }
+
+        public IntentFallbackChain build() {
+            if (prefixes.isEmpty()) {
+                throw new IllegalStateException("A fallback chain needs at least one candidate");
+            }
+            return new IntentFallbackChain(prefixes, hasUnconditionalCandidate);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.content.Intent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A future which creates an intent and hands it, or the failure of the factory, to an optional {@link IntentCallback}
+ * once done
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+final class IntentFutureTask extends FutureTask<Intent> {
+
+    private final IntentCallback callback;
+
+    private IntentFutureTask(Callable<Intent> factory, IntentCallback callback) {
+        super(factory);
+        this.callback = callback;
+    }
+
+    /**
+     * Run the factory on the given executor
+     *
+     * @param executor The executor to run the factory on
+     * @param factory  The code creating the intent
+     * @param callback The callback to notify (may be null)
+     * @return a future which can be used to wait for the intent or to cancel the task
+     */
+    static Future<Intent> submit(Executor executor, Callable<Intent> factory, IntentCallback callback) {
+        final IntentFutureTask task = new IntentFutureTask(factory, callback);
+        executor.execute(task);
+        return task;
+    }
+
+    @Override
+    protected void done() {
+        if (callback == null || isCancelled()) {
+            return;
+        }
+
+        final Intent intent;
+        try {
+            intent = get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            // Also reported to whoever waits on the future
+            callback.onIntentFailed(e.getCause() != null ? e.getCause() : e);
+            return;
+        }
+        callback.onIntentCreated(intent);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.app.Activity;
+import android.content.ActivityNotFoundException;
+import android.content.Context;
+import android.content.Intent;
+
+/**
+ * Starts the first of a list of intents which can be handled on this device, instead of launching blindly and retrying
+ * on failure. Candidates are checked with the {@link IntentResolutionCache}, so once the installed packages are known
+ * a launch does not query the package manager. When {@link ComponentPins} is enabled, the started intent targets the
+ * pinned handler of its kind. When {@link RecentShareTargets} is enabled, starting an explicit share intent (for
+ * instance one made by {@link ShareIntents#newDirectShareTextIntent(Context, android.content.ComponentName, String,
+ * String)}) counts as a use of its target.
+ * <p/>
+ * Example:
+ * <p/>
+ * <code><pre>
+ *     IntentLauncher.LaunchResult result = IntentLauncher.launch(activity,
+ *             GeoIntents.newNavigationIntent(address),
+ *             MediaIntents.newOpenWebBrowserIntent("https://maps.google.com/maps?daddr=" + Uri.encode(address)));
+ *
+ *     if (!result.isLaunched()) {
+ *         // No application can handle any of the candidates
+ *     }
+ * </pre></code>
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+public final class IntentLauncher {
+
+    /**
+     * The index reported when none of the candidates could be started
+     */
+    public static final int NOT_LAUNCHED = -1;
+
+    private IntentLauncher() {
+    }
+
+    /**
+     * Start the first candidate which can be handled. When the context is not an activity, the intent is started in a
+     * new task.
+     *
+     * @param context   The current context
+     * @param primary   The preferred intent
+     * @param fallbacks The intents to try in order when the previous ones cannot be handled
+     * @return the outcome of the launch: which candidate has been started and how long it took
+     */
+    public static LaunchResult launch(Context context, Intent primary, Intent... fallbacks) {
+        final long start = System.nanoTime();
+        long launchNanos = 0;
+
+        final int count = 1 + fallbacks.length;
+        for (int i = 0; i < count; ++i) {
+            final Intent candidate = i == 0 ? primary : fallbacks[i - 1];
+            if (candidate == null || !IntentResolutionCache.isIntentAvailable(context, candidate)) {
+                continue;
+            }
+
+            final long launchStart = System.nanoTime();
+            try {
+                context.startActivity(prepare(context, ComponentPins.pin(context, candidate)));
+                final long end = System.nanoTime();
+                launchNanos += end - launchStart;
+                recordShare(context, candidate);
+                return new LaunchResult(i, candidate, end - start - launchNanos, launchNanos);
+            } catch (ActivityNotFoundException e) {
+                // The handler went away since the availability was cached, forget it and move on to the next one
+                launchNanos += System.nanoTime() - launchStart;
+                IntentResolutionCache.clear();
+                ComponentPins.unpin(candidate);
+            }
+        }
+
+        return new LaunchResult(NOT_LAUNCHED, null, System.nanoTime() - start - launchNanos, launchNanos);
+    }
+
+    /**
+     * Count the use of the target of a share intent which has been started. Only the intents targeting an activity
+     * themselves are counted, the ones sent through a chooser are recorded by {@link ShareTargetReceiver}.
+     */
+    private static void recordShare(Context context, Intent started) {
+        if (!RecentShareTargets.isEnabled() || started.getComponent() == null) {
+            return;
+        }
+        final String action = started.getAction();
+        if (Intent.ACTION_SEND.equals(action) || Intent.ACTION_SEND_MULTIPLE.equals(action)) {
+            RecentShareTargets.recordUse(context, started.getComponent());
+        }
+    }
+
+    private static Intent prepare(Context context, Intent intent) {
+        if (context instanceof Activity || (intent.getFlags() & Intent.FLAG_ACTIVITY_NEW_TASK) != 0) {
+            return intent;
+        }
+        // Leave the caller's intent untouched
+        return new Intent(intent).addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+    }
+
+    /**
+     * The outcome of a launch
+     */
+    public static final class LaunchResult {
+
+        private final int index;
+        private final Intent intent;
+        private final long resolveNanos;
+        private final long launchNanos;
+
+        LaunchResult(int index, Intent intent, long resolveNanos, long launchNanos) {
+            this.index = index;
+            this.intent = intent;
+            this.resolveNanos = resolveNanos;
+            this.launchNanos = launchNanos;
+        }
+
+        /**
+         * @return true if one of the candidates has been started
+         */
+        public boolean isLaunched() {
+            return index != NOT_LAUNCHED;
+        }
+
+        /**
+         * @return the index of the started candidate (0 for the primary intent, 1 for the first fallback, ...) or
+         * {@link #NOT_LAUNCHED}
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return true if a fallback has been started instead of the primary intent
+         */
+        public boolean isFallback() {
+            return index > 0;
+        }
+
+        /**
+         * @return the started intent, or null if none of the candidates could be started
+         */
+        public Intent getIntent() {
+            return intent;
+        }
+
+        /**
+         * @return the time spent finding the candidate to start, in nanoseconds
+         */
+        public long getResolveNanos() {
+            return resolveNanos;
+        }
+
+        /**
+         * @return the time spent in the calls to startActivity, in nanoseconds
+         */
+        public long getLaunchNanos() {
+            return launchNanos;
+        }
+
+        /**
+         * @return the time from the call to the launcher until the activity has been started, in nanoseconds
+         */
+        public long getTotalNanos() {
+            return resolveNanos + launchNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "LaunchResult{index=" + index
+                    + ", resolve=" + resolveNanos / 1000 + "us"
+                    + ", launch=" + launchNanos / 1000 + "us}";
+        }
+    }
+}
@@ -0,0 +1,377 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.util.Log;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Optional instrumentation of the library: the time spent building each intent, and the time spent by each query to
+ * the package manager along with the number of activities it found. Nothing is measured until a {@link Listener} is
+ * set: the disabled instrumentation costs a volatile read per call and allocates nothing.
+ * <p/>
+ * A {@link HistogramListener} can be used to collect the measures and dump them to logcat:
+ * <p/>
+ * <code><pre>
+ *     IntentMetrics.HistogramListener histograms = new IntentMetrics.HistogramListener();
+ *     IntentMetrics.setListener(histograms);
+ *
+ *     // Later
+ *     histograms.dump("IntentMetrics");
+ * </pre></code>
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+public final class IntentMetrics {
+
+    /**
+     * The name under which the package manager queries are reported by the {@link HistogramListener}. The queries of
+     * each {@link ResolutionStrategy} are also reported under this name followed by the name of the strategy (for
+     * instance "PackageManager.queryIntentActivities.EXISTS").
+     */
+    public static final String RESOLVER_QUERY = "PackageManager.queryIntentActivities";
+
+    /**
+     * The name under which the result sizes of the package manager queries are reported by the
+     * {@link HistogramListener}. Per strategy, the suffix goes after the name of the strategy (for instance
+     * "PackageManager.queryIntentActivities.EXISTS.results").
+     */
+    public static final String RESOLVER_RESULTS = "PackageManager.queryIntentActivities.results";
+
+    private static final String RESULTS_SUFFIX = ".results";
+
+    // Start time given when nothing is being recorded
+    private static final long NOT_RECORDING = Long.MIN_VALUE;
+
+    private static volatile Listener sListener;
+
+    private IntentMetrics() {
+    }
+
+    /**
+     * Receives the measures. The methods get called on the thread which built the intent or made the query, they
+     * should be fast and must not block.
+     */
+    public interface Listener {
+
+        /**
+         * An intent has been built. Each factory reports the whole call under its own name, shared by its overloads,
+         * even when it builds the intent like another factory (newPlayAudioFileIntent is not reported as
+         * newPlayMediaIntent).
+         *
+         * @param factory       The name of the factory, for instance "GeoIntents.newMapsIntent"
+         * @param durationNanos The time spent building the intent
+         */
+        void onFactoryCall(String factory, long durationNanos);
+
+        /**
+         * The package manager has been queried for the activities able to handle an intent (the availability checks
+         * answered from the cache are not reported). Listeners which need to know the kind of query extend
+         * {@link StrategyListener} instead.
+         *
+         * @param durationNanos The time spent in the query
+         * @param resultCount   The number of activities found
+         */
+        void onResolverQuery(long durationNanos, int resultCount);
+    }
+
+    /**
+     * A listener which also gets the {@link ResolutionStrategy} of each package manager query: the library calls
+     * {@link #onResolverQuery(ResolutionStrategy, long, int)} instead of {@link #onResolverQuery(long, int)}.
+     */
+    public abstract static class StrategyListener implements Listener {
+
+        /**
+         * The package manager has been queried for the activities able to handle an intent (the availability checks
+         * answered from the cache are not reported).
+         *
+         * @param strategy      The kind of query
+         * @param durationNanos The time spent in the query
+         * @param resultCount   The number of activities found
+         */
+        public abstract void onResolverQuery(ResolutionStrategy strategy, long durationNanos, int resultCount);
+
+        /**
+         * Not called by the library for this kind of listener, does nothing unless overridden
+         */
+        @Override
+        public void onResolverQuery(long durationNanos, int resultCount) {
+        }
+    }
+
+    /**
+     * Start or stop the instrumentation
+     *
+     * @param listener The listener to receive the measures, or null to stop measuring
+     */
+    public static void setListener(Listener listener) {
+        sListener = listener;
+    }
+
+    /**
+     * @return the listener receiving the measures, or null if nothing is measured
+     */
+    public static Listener getListener() {
+        return sListener;
+    }
+
+    /**
+     * Call when a factory starts building its intent
+     *
+     * @return the value to pass to {@link #endFactory(long, String, Object)}
+     */
+    static long startFactory() {
+        return sListener == null ? NOT_RECORDING : System.nanoTime();
+    }
+
+    /**
+     * Call when a factory has built its intent
+     *
+     * @param start   The value returned by {@link #startFactory()}
+     * @param factory The name of the factory
+     * @param result  The intent
+     * @return the intent
+     */
+    static <T> T endFactory(long start, String factory, T result) {
+        if (start != NOT_RECORDING) {
+            final Listener listener = sListener;
+            if (listener != null) {
+                listener.onFactoryCall(factory, System.nanoTime() - start);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Call before querying the package manager
+     *
+     * @return the value to pass to {@link #endResolverQuery(long, ResolutionStrategy, int)}
+     */
+    static long startResolverQuery() {
+        return sListener == null ? NOT_RECORDING : System.nanoTime();
+    }
+
+    /**
+     * Call after querying the package manager
+     *
+     * @param start       The value returned by {@link #startResolverQuery()}
+     * @param strategy    The kind of query
+     * @param resultCount The number of activities found
+     */
+    static void endResolverQuery(long start, ResolutionStrategy strategy, int resultCount) {
+        if (start != NOT_RECORDING) {
+            final Listener listener = sListener;
+            if (listener instanceof StrategyListener) {
+                ((StrategyListener) listener).onResolverQuery(strategy, System.nanoTime() - start, resultCount);
+            } else if (listener != null) {
+                listener.onResolverQuery(System.nanoTime() - start, resultCount);
+            }
+        }
+    }
+
+    /**
+     * A listener which keeps a histogram per factory, and for the package manager queries one histogram of their
+     * duration and one of their result sizes, both overall and per resolution strategy. Values are counted in power
+     * of two buckets, so recording a value allocates nothing once the histogram of the factory exists.
+     */
+    public static class HistogramListener extends StrategyListener {
+
+        private static final String[] sQueryNames = new String[ResolutionStrategy.values().length];
+        private static final String[] sResultNames = new String[ResolutionStrategy.values().length];
+
+        static {
+            for (ResolutionStrategy strategy : ResolutionStrategy.values()) {
+                sQueryNames[strategy.ordinal()] = RESOLVER_QUERY + "." + strategy.name();
+                sResultNames[strategy.ordinal()] = sQueryNames[strategy.ordinal()] + RESULTS_SUFFIX;
+            }
+        }
+
+        private final ConcurrentHashMap<String, Recorder> recorders = new ConcurrentHashMap<String, Recorder>();
+
+        @Override
+        public void onFactoryCall(String factory, long durationNanos) {
+            getRecorder(factory).record(durationNanos);
+        }
+
+        @Override
+        public void onResolverQuery(ResolutionStrategy strategy, long durationNanos, int resultCount) {
+            onResolverQuery(durationNanos, resultCount);
+            getRecorder(sQueryNames[strategy.ordinal()]).record(durationNanos);
+            getRecorder(sResultNames[strategy.ordinal()]).record(resultCount);
+        }
+
+        @Override
+        public void onResolverQuery(long durationNanos, int resultCount) {
+            getRecorder(RESOLVER_QUERY).record(durationNanos);
+            getRecorder(RESOLVER_RESULTS).record(resultCount);
+        }
+
+        /**
+         * @return a copy of the histograms, sorted by name. Durations are in nanoseconds.
+         */
+        public Map<String, Histogram> snapshot() {
+            final Map<String, Histogram> snapshot = new TreeMap<String, Histogram>();
+            for (Map.Entry<String, Recorder> entry : recorders.entrySet()) {
+                snapshot.put(entry.getKey(), entry.getValue().snapshot(entry.getKey()));
+            }
+            return Collections.unmodifiableMap(snapshot);
+        }
+
+        /**
+         * Forget all the recorded values
+         */
+        public void reset() {
+            recorders.clear();
+        }
+
+        /**
+         * Write a summary of each histogram to logcat
+         *
+         * @param tag The log tag
+         */
+        public void dump(String tag) {
+            for (Histogram histogram : snapshot().values()) {
+                Log.i(tag, histogram.toString());
+            }
+        }
+
+        private Recorder getRecorder(String name) {
+            Recorder recorder = recorders.get(name);
+            if (recorder == null) {
+                final Recorder created = new Recorder();
+                recorder = recorders.putIfAbsent(name, created);
+                if (recorder == null) {
+                    recorder = created;
+                }
+            }
+            return recorder;
+        }
+    }
+
+    /**
+     * A snapshot of the values recorded under a name. Bucket i counts the values between 2^(i-1) and 2^i - 1 (bucket 0
+     * counts the values lower than 1).
+     */
+    public static final class Histogram {
+
+        public static final int BUCKET_COUNT = 64;
+
+        private final String name;
+        private final long count;
+        private final long total;
+        private final long[] buckets;
+
+        Histogram(String name, long count, long total, long[] buckets) {
+            this.name = name;
+            this.count = count;
+            this.total = total;
+            this.buckets = buckets;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the number of recorded values
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return the sum of the recorded values
+         */
+        public long getTotal() {
+            return total;
+        }
+
+        /**
+         * @return the mean of the recorded values, 0 if there is none
+         */
+        public long getMean() {
+            return count == 0 ? 0 : total / count;
+        }
+
+        /**
+         * @param bucket The index of the bucket
+         * @return the number of values recorded in the bucket
+         */
+        public long getBucketCount(int bucket) {
+            return buckets[bucket];
+        }
+
+        /**
+         * @param percentile The percentile, between 0 and 100
+         * @return the upper bound of the bucket holding the given percentile, 0 if there is no value
+         */
+        public long getPercentile(double percentile) {
+            final long rank = (long) Math.ceil(count * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; ++i) {
+                seen += buckets[i];
+                if (seen >= rank && seen > 0) {
+                    return upperBound(i);
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return name + ": count=" + count + " mean=" + getMean() + " p50<=" + getPercentile(50)
+                    + " p90<=" + getPercentile(90) + " p99<=" + getPercentile(99) + " max<=" + getPercentile(100);
+        }
+
+        private static long upperBound(int bucket) {
+            if (bucket == 0) {
+                return 0;
+            }
+            return bucket == BUCKET_COUNT - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+        }
+
+        static int bucketOf(long value) {
+            return value <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(value);
+        }
+    }
+
+    private static final class Recorder {
+        final AtomicLong total = new AtomicLong();
+        final AtomicLongArray buckets = new AtomicLongArray(Histogram.BUCKET_COUNT);
+
+        void record(long value) {
+            buckets.incrementAndGet(Histogram.bucketOf(value));
+            total.addAndGet(value);
+        }
+
+        Histogram snapshot(String name) {
+            final long[] copy = new long[Histogram.BUCKET_COUNT];
+            long copyCount = 0;
+            for (int i = 0; i < copy.length; ++i) {
+                copy[i] = buckets.get(i);
+                copyCount += copy[i];
+            }
+            return new Histogram(name, copyCount, total.get(), copy);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Build;
+import android.provider.Contacts;
+
+/**
+ * Pre-parsed constant URIs and pre-built template intents for the factories which always create the same intent. The
+ * templates themselves are never handed out: each call gets a copy, on which the factory sets its per-call fields.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+@SuppressWarnings("deprecation")
+final class IntentPrototypes {
+
+    static final Uri TEL_URI = Uri.parse("tel:");
+    static final Uri SMS_TO_URI = Uri.parse("smsto:");
+    static final Uri CONTACTS_URI = Uri.parse("content://com.android.contacts/contacts");
+
+    private static final Intent DIAL = new Intent(Intent.ACTION_DIAL, TEL_URI);
+    private static final Intent CALL = new Intent(Intent.ACTION_CALL, TEL_URI);
+    private static final Intent PICK_CONTACT = new Intent(Intent.ACTION_PICK,
+            Build.VERSION.SDK_INT >= Build.VERSION_CODES.ECLAIR ? CONTACTS_URI : Contacts.People.CONTENT_URI);
+    private static final Intent SELECT_PICTURE = new Intent(Intent.ACTION_PICK).setType("image/*");
+    private static final Intent PICK_FILE = new Intent(Intent.ACTION_GET_CONTENT).setType("file/*");
+
+    private IntentPrototypes() {
+    }
+
+    /**
+     * @return a dial intent without any number
+     */
+    static Intent newDialIntent() {
+        return new Intent(DIAL);
+    }
+
+    /**
+     * @return a call intent without any number
+     */
+    static Intent newCallIntent() {
+        return new Intent(CALL);
+    }
+
+    /**
+     * @return an intent to pick a contact using the contacts API of the device
+     */
+    static Intent newPickContactIntent() {
+        return new Intent(PICK_CONTACT);
+    }
+
+    /**
+     * @return an intent to pick a picture
+     */
+    static Intent newSelectPictureIntent() {
+        return new Intent(SELECT_PICTURE);
+    }
+
+    /**
+     * @return an intent to pick any file
+     */
+    static Intent newPickFileIntent() {
+        return new Intent(PICK_FILE);
+    }
+}
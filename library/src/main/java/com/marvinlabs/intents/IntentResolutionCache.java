@@ -0,0 +1,256 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.content.pm.ResolveInfo;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide cache of intent availability. Results are keyed by the action, data scheme/authority, MIME type,
+ * package, component and categories of the intent and are dropped as soon as a package gets added, removed, changed or
+ * replaced. A cache hit is answered without calling the package manager, and a miss only asks the package manager
+ * for a single match (see {@link ResolutionStrategy#EXISTS}).
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+public final class IntentResolutionCache {
+
+    private static final String TAG = "IntentResolutionCache";
+
+    private static final ConcurrentHashMap<IntentShape, Boolean> sAvailability = new ConcurrentHashMap<IntentShape, Boolean>();
+    private static final AtomicLong sHitCount = new AtomicLong();
+    private static final AtomicLong sMissCount = new AtomicLong();
+
+    static {
+        PackageChangeMonitor.addListener(new PackageChangeMonitor.Listener() {
+            @Override
+            public void onPackageChanged(String action, String packageName) {
+                sAvailability.clear();
+            }
+        });
+    }
+
+    private IntentResolutionCache() {
+    }
+
+    /**
+     * Checks whether there are applications installed which are able to handle the given intent, querying the
+     * package manager only if no result is cached for that kind of intent.
+     *
+     * @param context the current context
+     * @param intent  the intent to check
+     * @return true if there are apps which will respond to this intent
+     */
+    public static boolean isIntentAvailable(Context context, Intent intent) {
+        PackageChangeMonitor.ensureRegistered(context);
+        return isIntentAvailable(context, intent, IntentShape.of(intent));
+    }
+
+    /**
+     * Checks the availability of several intents at once. The intents which are not cached yet are grouped by action,
+     * data scheme, package and component, and each group is resolved with a single query: the package manager lists
+     * the activities which handle the first intent of the group, with their intent filters, and the other intents of
+     * the group are matched against these filters. Only an intent which none of them accepts (for instance because
+     * of its MIME type) needs a query of its own.
+     *
+     * @param context the current context
+     * @param intents the intents to check
+     * @return a bit set where the bit at index i is set if the i-th intent (in iteration order) can be handled
+     */
+    public static BitSet areIntentsAvailable(Context context, Collection<? extends Intent> intents) {
+        PackageChangeMonitor.ensureRegistered(context);
+
+        final IntentShape[] shapes = new IntentShape[intents.size()];
+        final Map<IntentShape, Boolean> results = new HashMap<IntentShape, Boolean>();
+        final Map<IntentShape, Group> groups = new LinkedHashMap<IntentShape, Group>();
+
+        int index = 0;
+        for (Intent intent : intents) {
+            final IntentShape shape = IntentShape.of(intent);
+            shapes[index++] = shape;
+            if (results.containsKey(shape)) {
+                sHitCount.incrementAndGet();
+                continue;
+            }
+
+            final Boolean cached = sAvailability.get(shape);
+            results.put(shape, cached);
+            if (cached != null) {
+                sHitCount.incrementAndGet();
+                continue;
+            }
+
+            final IntentShape key = IntentShape.groupOf(intent);
+            Group group = groups.get(key);
+            if (group == null) {
+                group = new Group();
+                groups.put(key, group);
+            }
+            group.add(intent, shape);
+        }
+
+        for (Group group : groups.values()) {
+            resolve(context, group, results);
+        }
+
+        final BitSet result = new BitSet(shapes.length);
+        for (int i = 0; i < shapes.length; ++i) {
+            if (results.get(shapes[i])) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isIntentAvailable(Context context, Intent intent, IntentShape shape) {
+        final Boolean cached = sAvailability.get(shape);
+        if (cached != null) {
+            sHitCount.incrementAndGet();
+            return cached;
+        }
+        sMissCount.incrementAndGet();
+
+        final int generation = PackageChangeMonitor.getGeneration();
+        // A single match is enough to answer
+        final boolean available = !ResolutionStrategy.EXISTS.query(context, intent).isEmpty();
+        store(shape, available, generation);
+        return available;
+    }
+
+    /**
+     * Resolve the intents of a group, which all have different shapes, with one query for the whole group
+     */
+    private static void resolve(Context context, Group group, Map<IntentShape, Boolean> results) {
+        final Intent first = group.intents.get(0);
+        final IntentShape firstShape = group.shapes.get(0);
+        if (group.intents.size() == 1) {
+            results.put(firstShape, isIntentAvailable(context, first, firstShape));
+            return;
+        }
+
+        sMissCount.incrementAndGet();
+        final int generation = PackageChangeMonitor.getGeneration();
+        final List<ResolveInfo> handlers = queryWithFilters(context, first);
+        store(firstShape, !handlers.isEmpty(), generation);
+        results.put(firstShape, !handlers.isEmpty());
+
+        final ContentResolver resolver = context.getContentResolver();
+        for (int i = 1; i < group.intents.size(); ++i) {
+            final Intent intent = group.intents.get(i);
+            final IntentShape shape = group.shapes.get(i);
+            if (isAccepted(resolver, intent, handlers)) {
+                sHitCount.incrementAndGet();
+                store(shape, true, generation);
+                results.put(shape, true);
+            } else {
+                results.put(shape, isIntentAvailable(context, intent, shape));
+            }
+        }
+    }
+
+    /**
+     * List the activities which handle an intent, with the filters they have been matched by
+     */
+    private static List<ResolveInfo> queryWithFilters(Context context, Intent intent) {
+        final long start = IntentMetrics.startResolverQuery();
+        final List<ResolveInfo> handlers = context.getPackageManager().queryIntentActivities(intent,
+                PackageManager.MATCH_DEFAULT_ONLY | PackageManager.GET_RESOLVED_FILTER);
+        IntentMetrics.endResolverQuery(start, ResolutionStrategy.EXHAUSTIVE, handlers.size());
+        return handlers;
+    }
+
+    /**
+     * @return true if the filter of one of the activities accepts the intent
+     */
+    private static boolean isAccepted(ContentResolver resolver, Intent intent, List<ResolveInfo> handlers) {
+        final String type = intent.getType() != null ? intent.getType() : intent.resolveType(resolver);
+        for (ResolveInfo handler : handlers) {
+            if (handler.filter != null && handler.filter.match(intent.getAction(), type, intent.getScheme(),
+                    intent.getData(), intent.getCategories(), TAG) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Cache a result, unless it has been computed while the installed packages were changing
+     */
+    private static void store(IntentShape shape, boolean available, int generation) {
+        if (generation == PackageChangeMonitor.getGeneration()) {
+            sAvailability.put(shape, available);
+            if (generation != PackageChangeMonitor.getGeneration()) {
+                sAvailability.remove(shape);
+            }
+        }
+    }
+
+    /**
+     * @return the number of availability checks which have been answered from the cache
+     */
+    public static long getHitCount() {
+        return sHitCount.get();
+    }
+
+    /**
+     * @return the number of availability checks which had to query the package manager
+     */
+    public static long getMissCount() {
+        return sMissCount.get();
+    }
+
+    /**
+     * Reset the hit and miss counters
+     */
+    public static void resetCounters() {
+        sHitCount.set(0);
+        sMissCount.set(0);
+    }
+
+    /**
+     * Drop all cached results. The next checks will query the package manager again.
+     */
+    public static void clear() {
+        sAvailability.clear();
+    }
+
+    /**
+     * The intents of a batch which have the same action, data scheme, package and component, one per shape
+     */
+    private static final class Group {
+        final List<Intent> intents = new ArrayList<Intent>(2);
+        final List<IntentShape> shapes = new ArrayList<IntentShape>(2);
+
+        void add(Intent intent, IntentShape shape) {
+            intents.add(intent);
+            shapes.add(shape);
+        }
+    }
+}
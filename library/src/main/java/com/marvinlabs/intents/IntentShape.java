@@ -0,0 +1,133 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.content.ComponentName;
+import android.content.Intent;
+import android.net.Uri;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The parts of an intent which matter when the system resolves it: action, data scheme and authority, MIME type,
+ * target package/component and categories. Two intents with the same shape are resolved to the same activities, hence
+ * the shape is used as the key of the resolution caches.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+final class IntentShape {
+
+    private final String action;
+    private final String scheme;
+    private final String authority;
+    private final String type;
+    private final String packageName;
+    private final ComponentName component;
+    private final Set<String> categories;
+    private final int hashCode;
+
+    private IntentShape(String action, String scheme, String authority, String type, String packageName,
+                        ComponentName component, Set<String> categories) {
+        this.action = action;
+        this.scheme = scheme;
+        this.authority = authority;
+        this.type = type;
+        this.packageName = packageName;
+        this.component = component;
+        this.categories = categories;
+
+        int h = hash(action);
+        h = 31 * h + hash(scheme);
+        h = 31 * h + hash(authority);
+        h = 31 * h + hash(type);
+        h = 31 * h + hash(packageName);
+        h = 31 * h + hash(component);
+        h = 31 * h + hash(categories);
+        this.hashCode = h;
+    }
+
+    /**
+     * Extract the parts of an intent by which {@link IntentResolutionCache#areIntentsAvailable(android.content.Context,
+     * java.util.Collection)} groups the intents: action, data scheme, target package and component. The intents of a
+     * group only differ by what an intent filter of the resolved activities can tell.
+     *
+     * @param intent The intent
+     * @return the group of that intent
+     */
+    static IntentShape groupOf(Intent intent) {
+        return new IntentShape(intent.getAction(), intent.getScheme(), null, null, intent.getPackage(),
+                intent.getComponent(), null);
+    }
+
+    /**
+     * Extract the shape of an intent
+     *
+     * @param intent The intent
+     * @return the shape of that intent
+     */
+    static IntentShape of(Intent intent) {
+        final Uri data = intent.getData();
+        final Set<String> categories = intent.getCategories();
+        return new IntentShape(intent.getAction(),
+                data == null ? null : data.getScheme(),
+                data == null ? null : data.getEncodedAuthority(),
+                intent.getType(),
+                intent.getPackage(),
+                intent.getComponent(),
+                categories == null || categories.isEmpty() ? null : new HashSet<String>(categories));
+    }
+
+    String getScheme() {
+        return scheme;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IntentShape)) return false;
+
+        final IntentShape other = (IntentShape) o;
+        return hashCode == other.hashCode
+                && equal(action, other.action)
+                && equal(scheme, other.scheme)
+                && equal(authority, other.authority)
+                && equal(type, other.type)
+                && equal(packageName, other.packageName)
+                && equal(component, other.component)
+                && equal(categories, other.categories);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "IntentShape{" + action + ", " + scheme + "://" + authority + ", " + type + ", " + packageName + ", "
+                + component + ", " + categories + "}";
+    }
+
+    private static int hash(Object o) {
+        return o == null ? 0 : o.hashCode();
+    }
+
+    private static boolean equal(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -0,0 +1,240 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Bundle;
+import android.os.Parcelable;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Keeps intents away from the Binder transaction limit (about 1MB shared by all the transactions of the process, above
+ * which a TransactionTooLargeException is thrown). The size of the extras is estimated without marshalling them and,
+ * when too large, the text of the intent is written to a file of the application cache and sent as a content URI in
+ * {@link Intent#EXTRA_STREAM} instead, served by the {@link IntentContentProvider} of the library.
+ * <p/>
+ * The receiving application gets read access through {@link Intent#FLAG_GRANT_READ_URI_PERMISSION}, which the system
+ * applies to {@link Intent#EXTRA_STREAM} from Jelly Bean on.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+public final class IntentSizeGuard {
+
+    private static final String TAG = "IntentSizeGuard";
+
+    /**
+     * Extras larger than this are spilled to a file by {@link #guard(Context, Intent)}
+     */
+    public static final int DEFAULT_MAX_EXTRAS_SIZE = 256 * 1024;
+
+    // Spilled files are deleted once older than that
+    private static final long SPILL_FILE_LIFETIME_MS = 24 * 60 * 60 * 1000L;
+
+    // Rough size of the objects we cannot measure without marshalling them
+    private static final int UNKNOWN_VALUE_SIZE = 64;
+
+    private IntentSizeGuard() {
+    }
+
+    /**
+     * Estimate the number of bytes the extras of an intent take once marshalled in a Parcel. The estimate follows the
+     * Parcel format for strings, arrays, URIs, lists and bundles. Other values are given a small fixed size.
+     *
+     * @param intent The intent
+     * @return the estimated size in bytes
+     */
+    public static int estimateExtrasSize(Intent intent) {
+        return estimateBundleSize(intent.getExtras());
+    }
+
+    /**
+     * Same as {@link #guard(Context, Intent, int)} with {@link #DEFAULT_MAX_EXTRAS_SIZE}
+     */
+    public static Intent guard(Context context, Intent intent) {
+        return guard(context, intent, DEFAULT_MAX_EXTRAS_SIZE);
+    }
+
+    /**
+     * If the extras of the intent are estimated to be larger than maxExtrasSize, move its {@link Intent#EXTRA_TEXT}
+     * to a file and send it as a readable content URI in {@link Intent#EXTRA_STREAM}. If the intent already has a
+     * stream, it is turned into an {@link Intent#ACTION_SEND_MULTIPLE} intent with both streams.
+     *
+     * @param context       The current context
+     * @param intent        The intent to check, modified in place
+     * @param maxExtrasSize The size in bytes above which the text is moved to a file
+     * @return the intent
+     */
+    public static Intent guard(Context context, Intent intent, int maxExtrasSize) {
+        if (estimateExtrasSize(intent) <= maxExtrasSize) {
+            return intent;
+        }
+
+        final CharSequence text = intent.getCharSequenceExtra(Intent.EXTRA_TEXT);
+        if (text == null) {
+            return intent;
+        }
+
+        final Uri textUri;
+        try {
+            textUri = spill(context, text);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not move the text of the intent to a file", e);
+            return intent;
+        }
+
+        final Bundle extras = intent.getExtras();
+        final Object stream = extras.get(Intent.EXTRA_STREAM);
+        intent.removeExtra(Intent.EXTRA_TEXT);
+
+        if (stream == null) {
+            intent.putExtra(Intent.EXTRA_STREAM, textUri);
+        } else {
+            final ArrayList<Uri> streams = new ArrayList<Uri>();
+            if (stream instanceof Uri) {
+                streams.add((Uri) stream);
+            } else if (stream instanceof Collection) {
+                for (Object item : (Collection<?>) stream) {
+                    if (item instanceof Uri) {
+                        streams.add((Uri) item);
+                    }
+                }
+            }
+            streams.add(textUri);
+            intent.setAction(Intent.ACTION_SEND_MULTIPLE);
+            intent.putParcelableArrayListExtra(Intent.EXTRA_STREAM, streams);
+        }
+        intent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+
+        return intent;
+    }
+
+    private static Uri spill(Context context, CharSequence text) throws IOException {
+        final File directory = IntentContentProvider.getSpillDirectory(context);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory " + directory);
+        }
+        deleteOldFiles(directory);
+
+        final File file = new File(directory, UUID.randomUUID().toString() + ".txt");
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.append(text);
+        } finally {
+            writer.close();
+        }
+
+        return IntentContentProvider.getSpillUri(context, file);
+    }
+
+    private static void deleteOldFiles(File directory) {
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        final long limit = System.currentTimeMillis() - SPILL_FILE_LIFETIME_MS;
+        for (File file : files) {
+            if (file.lastModified() < limit) {
+                file.delete();
+            }
+        }
+    }
+
+    private static int estimateBundleSize(Bundle bundle) {
+        if (bundle == null || bundle.isEmpty()) {
+            return 0;
+        }
+
+        // Length, magic number and entry count
+        int size = 12;
+        for (String key : bundle.keySet()) {
+            size += estimateStringSize(key);
+            size += estimateValueSize(bundle.get(key));
+        }
+        return size;
+    }
+
+    private static int estimateValueSize(Object value) {
+        // Every value is preceded by its type
+        int size = 4;
+
+        if (value == null) {
+            return size;
+        } else if (value instanceof String) {
+            size += estimateStringSize((String) value);
+        } else if (value instanceof CharSequence) {
+            // Kind of text, then the text itself (spans are not taken into account)
+            size += 4 + estimateStringSize(value.toString());
+        } else if (value instanceof Integer || value instanceof Boolean || value instanceof Character
+                || value instanceof Byte || value instanceof Short || value instanceof Float) {
+            size += 4;
+        } else if (value instanceof Long || value instanceof Double) {
+            size += 8;
+        } else if (value instanceof String[]) {
+            size += 4;
+            for (String s : (String[]) value) {
+                size += estimateStringSize(s);
+            }
+        } else if (value instanceof Uri) {
+            // Type of URI, then the URI string
+            size += 4 + estimateStringSize(value.toString());
+        } else if (value instanceof Bundle) {
+            size += estimateBundleSize((Bundle) value);
+        } else if (value instanceof Intent) {
+            size += UNKNOWN_VALUE_SIZE + estimateExtrasSize((Intent) value);
+        } else if (value instanceof Collection) {
+            size += 4;
+            for (Object item : (Collection<?>) value) {
+                size += estimateValueSize(item);
+            }
+        } else if (value instanceof byte[]) {
+            size += 4 + pad(((byte[]) value).length);
+        } else if (value instanceof Parcelable[]) {
+            size += 4;
+            for (Parcelable item : (Parcelable[]) value) {
+                size += estimateValueSize(item);
+            }
+        } else {
+            size += UNKNOWN_VALUE_SIZE;
+        }
+
+        return size;
+    }
+
+    private static int estimateStringSize(String s) {
+        if (s == null) {
+            return 4;
+        }
+        // Length, then UTF-16 characters with a terminating null, padded to 4 bytes
+        return 4 + pad((s.length() + 1) * 2);
+    }
+
+    private static int pad(int size) {
+        return (size + 3) & ~3;
+    }
+}
@@ -18,14 +18,17 @@ package com.marvinlabs.intents;
 
 import android.content.Context;
 import android.content.Intent;
-import android.content.pm.PackageManager;
 import android.content.pm.ResolveInfo;
 import android.net.Uri;
 
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.List;
 
 /**
- * Provides utility functions to work with intents
+ * Provides utility functions to work with intents. Availability checks are answered by the
+ * {@link IntentResolutionCache}, so repeated checks for the same kind of intent do not query the package manager again
+ * until the installed packages change.
  *
  * @author Vincent Prat @ MarvinLabs
  */
@@ -45,9 +48,7 @@ public class IntentUtils {
         if (mimeType != null) {
             intent.setType(mimeType);
         }
-        List<ResolveInfo> list = context.getPackageManager().queryIntentActivities(intent,
-                PackageManager.MATCH_DEFAULT_ONLY);
-        return !list.isEmpty();
+        return IntentResolutionCache.isIntentAvailable(context, intent);
     }
 
     /**
@@ -63,9 +64,7 @@ public class IntentUtils {
         if (mimeType != null) {
             intent.setType(mimeType);
         }
-        List<ResolveInfo> list = context.getPackageManager().queryIntentActivities(intent,
-                PackageManager.MATCH_DEFAULT_ONLY);
-        return !list.isEmpty();
+        return IntentResolutionCache.isIntentAvailable(context, intent);
     }
 
     /**
@@ -76,9 +75,57 @@ public class IntentUtils {
      * @return true if there are apps which will respond to this intent
      */
     public static boolean isIntentAvailable(Context context, Intent intent) {
-        List<ResolveInfo> list = context.getPackageManager().queryIntentActivities(intent,
-                PackageManager.MATCH_DEFAULT_ONLY);
-        return !list.isEmpty();
+        return IntentResolutionCache.isIntentAvailable(context, intent);
+    }
+
+    /**
+     * Checks whether there are applications installed which are able to handle the described intent.
+     *
+     * @param context    the current context
+     * @param descriptor the description of the intent to check
+     * @return true if there are apps which will respond to this intent
+     */
+    public static boolean isIntentAvailable(Context context, IntentDescriptor descriptor) {
+        return descriptor.isAvailable(context);
+    }
+
+    /**
+     * Finds the activities which can handle the given intent. The package manager is queried on each call, the
+     * strategy tells how much it is asked for.
+     *
+     * @param context  the current context
+     * @param intent   the intent to resolve
+     * @param strategy how much to ask the package manager
+     * @return the matching activities, an empty list if there are none
+     */
+    public static List<ResolveInfo> resolve(Context context, Intent intent, ResolutionStrategy strategy) {
+        return strategy.query(context, intent);
+    }
+
+    /**
+     * Finds the activity which will be started for the given intent without the user having to choose
+     *
+     * @param context the current context
+     * @param intent  the intent to resolve
+     * @return the only activity able to handle the intent or the one the user has set as default, null if there is
+     * none or if the user would be shown a chooser
+     */
+    public static ResolveInfo getDefaultHandler(Context context, Intent intent) {
+        final List<ResolveInfo> list = ResolutionStrategy.DEFAULT_HANDLER.query(context, intent);
+        return list.isEmpty() ? null : list.get(0);
+    }
+
+    /**
+     * Checks whether there are applications installed which are able to handle each of the given intents. Intents
+     * sharing the same action and data scheme are resolved with a single query, see
+     * {@link IntentResolutionCache#areIntentsAvailable(Context, Collection)}.
+     *
+     * @param context the current context
+     * @param intents the intents to check
+     * @return a bit set where the bit at index i is set if there are apps which will respond to the i-th intent
+     */
+    public static BitSet areIntentsAvailable(Context context, Collection<? extends Intent> intents) {
+        return IntentResolutionCache.areIntentsAvailable(context, intents);
     }
 
 }
@@ -0,0 +1,209 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Resolves the intents an application uses ahead of time, so that the first availability checks and launches after a
+ * cold start are answered by the {@link IntentResolutionCache} instead of querying the package manager on the main
+ * thread.
+ * <p/>
+ * The kinds of intents to warm up are registered once, then the warm-up is started from
+ * {@code Application.onCreate()}. It waits until the main thread is idle for the first time (the first activity is
+ * then usually drawn) and runs on a background priority thread, resolving one intent each time the main thread gets
+ * idle again. It stops after a given number of intents or after a given time, whichever comes first; the remaining
+ * intents are simply resolved on demand.
+ * <p/>
+ * Example:
+ * <p/>
+ * <code><pre>
+ *     public void onCreate() {
+ *         super.onCreate();
+ *         IntentWarmUp.register(IntentDescriptors.playYouTubeVideo(""), IntentDescriptors.marketForApp());
+ *         IntentWarmUp.start(this);
+ *     }
+ * </pre></code>
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+public final class IntentWarmUp {
+
+    /**
+     * The default maximum number of intents resolved by the warm-up
+     */
+    public static final int DEFAULT_MAX_ITEMS = 32;
+
+    /**
+     * The default maximum duration of the warm-up, in milliseconds
+     */
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 500;
+
+    private static final String TAG = "IntentWarmUp";
+
+    private static final List<Object> sItems = new ArrayList<Object>();
+    private static final AtomicBoolean sStarted = new AtomicBoolean(false);
+
+    private IntentWarmUp() {
+    }
+
+    /**
+     * Add intents to resolve during the warm-up. Only the action, data scheme/authority, type, package, component
+     * and categories matter, the actual data and extras are not taken into account.
+     *
+     * @param intents The intents
+     */
+    public static void register(Intent... intents) {
+        synchronized (sItems) {
+            sItems.addAll(Arrays.asList(intents));
+        }
+    }
+
+    /**
+     * Add described intents to resolve during the warm-up. The intents are built on the warm-up thread, which also
+     * warms up the fallback chains some factories go through (market or YouTube app, else the web).
+     *
+     * @param descriptors The descriptions of the intents
+     */
+    public static void register(IntentDescriptor... descriptors) {
+        synchronized (sItems) {
+            sItems.addAll(Arrays.asList(descriptors));
+        }
+    }
+
+    /**
+     * Start the warm-up with the default limits, see {@link #start(Context, int, long)}
+     *
+     * @param context The current context
+     */
+    public static void start(Context context) {
+        start(context, DEFAULT_MAX_ITEMS, DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    /**
+     * Start the warm-up once the main thread is idle. Only the first call has an effect, the intents registered after
+     * the warm-up has started are resolved on demand.
+     *
+     * @param context          The current context
+     * @param maxItems         The maximum number of intents to resolve
+     * @param timeBudgetMillis The maximum duration of the warm-up, in milliseconds
+     */
+    public static void start(Context context, int maxItems, long timeBudgetMillis) {
+        if (!sStarted.compareAndSet(false, true)) {
+            return;
+        }
+
+        final Context appContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+        PackageChangeMonitor.ensureRegistered(appContext);
+
+        final Object[] items;
+        synchronized (sItems) {
+            items = sItems.toArray();
+            sItems.clear();
+        }
+        if (items.length == 0) {
+            return;
+        }
+
+        new WarmUp(appContext, items, maxItems, timeBudgetMillis).scheduleNext();
+    }
+
+    /**
+     * Resolves one intent each time the main thread gets idle, on a background priority thread. Waiting for the next
+     * idle time before each intent leaves the main thread alone as long as it has messages to process.
+     */
+    private static final class WarmUp implements MessageQueue.IdleHandler, Runnable {
+        private final Context context;
+        private final Object[] items;
+        private final int count;
+        private final long timeBudgetMillis;
+        private final Handler mainHandler = new Handler(Looper.getMainLooper());
+        private HandlerThread thread;
+        private Handler workerHandler;
+        private long deadline;
+        private int done;
+
+        WarmUp(Context context, Object[] items, int maxItems, long timeBudgetMillis) {
+            this.context = context;
+            this.items = items;
+            this.count = Math.min(items.length, maxItems);
+            this.timeBudgetMillis = timeBudgetMillis;
+        }
+
+        /**
+         * Wait for the main thread to be idle. Idle handlers are attached to the queue of the calling thread, so they
+         * are always added from the main one.
+         */
+        void scheduleNext() {
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    Looper.myQueue().addIdleHandler(WarmUp.this);
+                }
+            });
+        }
+
+        @Override
+        public boolean queueIdle() {
+            if (thread == null) {
+                // The time budget starts with the first idle time of the main thread
+                deadline = SystemClock.uptimeMillis() + timeBudgetMillis;
+                thread = new HandlerThread(TAG, Process.THREAD_PRIORITY_BACKGROUND);
+                thread.start();
+                workerHandler = new Handler(thread.getLooper());
+            }
+            workerHandler.post(this);
+            return false;
+        }
+
+        @Override
+        public void run() {
+            if (done < count && SystemClock.uptimeMillis() < deadline) {
+                final Object item = items[done++];
+                try {
+                    if (item instanceof IntentDescriptor) {
+                        ((IntentDescriptor) item).isAvailable(context);
+                    } else {
+                        IntentResolutionCache.isIntentAvailable(context, (Intent) item);
+                    }
+                } catch (RuntimeException e) {
+                    // A warm-up failure must not take the application down, the intent will be resolved on demand
+                    Log.w(TAG, "Could not resolve " + item, e);
+                }
+            }
+
+            if (done < count && SystemClock.uptimeMillis() < deadline) {
+                scheduleNext();
+            } else {
+                thread.quit();
+            }
+        }
+    }
+}
@@ -16,7 +16,7 @@ limitations under the License.
 
 package com.marvinlabs.intents;
 
-import android.content.ActivityNotFoundException;
+import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
 import android.provider.MediaStore;
@@ -33,25 +33,70 @@ public class MediaIntents {
     public static final String AUDIO_TYPE = "audio/*";
     public static final String VIDEO_TYPE = "video/*";
     public static final String IMAGE_TYPE = "image/*";
+    public static final String ANY_TYPE = "*/*";
+
+    private static final String YOUTUBE_APP_URI = "vnd.youtube:";
+    private static final String YOUTUBE_WEB_URL = "https://www.youtube.com/watch?v=";
+    private static final String YOUTUBE_PLAYLIST_URL = "https://www.youtube.com/playlist?list=";
+
+    // The app is looked up once, then again only when packages get installed or removed
+    private static final IntentFallbackChain YOUTUBE_VIDEO_CHAIN = new IntentFallbackChain.Builder()
+            .tryUri(YOUTUBE_APP_URI)
+            .orElseUri(YOUTUBE_WEB_URL)
+            .build();
 
     /**
-     * Open the media player to play the given media
+     * Open the media player to play the given media, with the audio/* type
      *
      * @param file The file path of the media to play.
      * @return the intent
      */
     public static Intent newPlayAudioFileIntent(File file) {
-        return newPlayMediaFileIntent(file, AUDIO_TYPE);
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayAudioFileIntent",
+                playMedia(Uri.fromFile(file), AUDIO_TYPE));
     }
 
     /**
-     * Open the media player to play the given media
+     * Open the media player to play the given media, with the audio/* type
      *
      * @param path The file path of the media to play.
      * @return the intent
      */
     public static Intent newPlayAudioFileIntent(String path) {
-        return newPlayMediaFileIntent(path, AUDIO_TYPE);
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayAudioFileIntent",
+                playMedia(Uri.fromFile(new File(path)), AUDIO_TYPE));
+    }
+
+    /**
+     * Open the media player to play the given media. With exactType, the exact MIME type is deduced from the file
+     * extension when possible, so that only the apps able to play that format are proposed.
+     *
+     * @param file      The file path of the media to play.
+     * @param exactType true to send the type of the extension when it is a known audio type, false to always send
+     *                  audio/*
+     * @return the intent
+     */
+    public static Intent newPlayAudioFileIntent(File file, boolean exactType) {
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayAudioFileIntent",
+                playMedia(Uri.fromFile(file), exactType ? refineType(file.getName(), AUDIO_TYPE) : AUDIO_TYPE));
+    }
+
+    /**
+     * Open the media player to play the given media. With exactType, the exact MIME type is deduced from the file
+     * extension when possible, so that only the apps able to play that format are proposed.
+     *
+     * @param path      The file path of the media to play.
+     * @param exactType true to send the type of the extension when it is a known audio type, false to always send
+     *                  audio/*
+     * @return the intent
+     */
+    public static Intent newPlayAudioFileIntent(String path, boolean exactType) {
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayAudioFileIntent",
+                playMedia(Uri.fromFile(new File(path)), exactType ? refineType(path, AUDIO_TYPE) : AUDIO_TYPE));
     }
 
     /**
@@ -61,27 +106,63 @@ public class MediaIntents {
      * @return the intent
      */
     public static Intent newPlayAudioIntent(String url) {
-        return newPlayMediaIntent(url, AUDIO_TYPE);
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayAudioIntent",
+                playMedia(Uri.parse(url), AUDIO_TYPE));
     }
 
     /**
-     * Open the media player to play the given media
+     * Open the media player to play the given media, with the image/* type
      *
      * @param file The file path of the media to play.
      * @return the intent
      */
     public static Intent newPlayImageFileIntent(File file) {
-        return newPlayMediaFileIntent(file, IMAGE_TYPE);
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayImageFileIntent",
+                playMedia(Uri.fromFile(file), IMAGE_TYPE));
     }
 
     /**
-     * Open the media player to play the given media
+     * Open the media player to play the given media, with the image/* type
      *
      * @param path The file path of the media to play.
      * @return the intent
      */
     public static Intent newPlayImageFileIntent(String path) {
-        return newPlayMediaFileIntent(path, IMAGE_TYPE);
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayImageFileIntent",
+                playMedia(Uri.fromFile(new File(path)), IMAGE_TYPE));
+    }
+
+    /**
+     * Open the media player to play the given media. With exactType, the exact MIME type is deduced from the file
+     * extension when possible, so that only the apps able to play that format are proposed.
+     *
+     * @param file      The file path of the media to play.
+     * @param exactType true to send the type of the extension when it is a known image type, false to always send
+     *                  image/*
+     * @return the intent
+     */
+    public static Intent newPlayImageFileIntent(File file, boolean exactType) {
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayImageFileIntent",
+                playMedia(Uri.fromFile(file), exactType ? refineType(file.getName(), IMAGE_TYPE) : IMAGE_TYPE));
+    }
+
+    /**
+     * Open the media player to play the given media. With exactType, the exact MIME type is deduced from the file
+     * extension when possible, so that only the apps able to play that format are proposed.
+     *
+     * @param path      The file path of the media to play.
+     * @param exactType true to send the type of the extension when it is a known image type, false to always send
+     *                  image/*
+     * @return the intent
+     */
+    public static Intent newPlayImageFileIntent(String path, boolean exactType) {
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayImageFileIntent",
+                playMedia(Uri.fromFile(new File(path)), exactType ? refineType(path, IMAGE_TYPE) : IMAGE_TYPE));
     }
 
     /**
@@ -91,27 +172,63 @@ public class MediaIntents {
      * @return the intent
      */
     public static Intent newPlayImageIntent(String url) {
-        return newPlayMediaIntent(url, IMAGE_TYPE);
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayImageIntent",
+                playMedia(Uri.parse(url), IMAGE_TYPE));
     }
 
     /**
-     * Open the media player to play the given media
+     * Open the media player to play the given media, with the video/* type
      *
      * @param file The file path of the media to play.
      * @return the intent
      */
     public static Intent newPlayVideoFileIntent(File file) {
-        return newPlayMediaFileIntent(file, VIDEO_TYPE);
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayVideoFileIntent",
+                playMedia(Uri.fromFile(file), VIDEO_TYPE));
     }
 
     /**
-     * Open the media player to play the given media
+     * Open the media player to play the given media, with the video/* type
      *
      * @param path The file path of the media to play.
      * @return the intent
      */
     public static Intent newPlayVideoFileIntent(String path) {
-        return newPlayMediaFileIntent(path, VIDEO_TYPE);
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayVideoFileIntent",
+                playMedia(Uri.fromFile(new File(path)), VIDEO_TYPE));
+    }
+
+    /**
+     * Open the media player to play the given media. With exactType, the exact MIME type is deduced from the file
+     * extension when possible, so that only the apps able to play that format are proposed.
+     *
+     * @param file      The file path of the media to play.
+     * @param exactType true to send the type of the extension when it is a known video type, false to always send
+     *                  video/*
+     * @return the intent
+     */
+    public static Intent newPlayVideoFileIntent(File file, boolean exactType) {
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayVideoFileIntent",
+                playMedia(Uri.fromFile(file), exactType ? refineType(file.getName(), VIDEO_TYPE) : VIDEO_TYPE));
+    }
+
+    /**
+     * Open the media player to play the given media. With exactType, the exact MIME type is deduced from the file
+     * extension when possible, so that only the apps able to play that format are proposed.
+     *
+     * @param path      The file path of the media to play.
+     * @param exactType true to send the type of the extension when it is a known video type, false to always send
+     *                  video/*
+     * @return the intent
+     */
+    public static Intent newPlayVideoFileIntent(String path, boolean exactType) {
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayVideoFileIntent",
+                playMedia(Uri.fromFile(new File(path)), exactType ? refineType(path, VIDEO_TYPE) : VIDEO_TYPE));
     }
 
     /**
@@ -121,22 +238,87 @@ public class MediaIntents {
      * @return the intent
      */
     public static Intent newPlayVideoIntent(String url) {
-        return newPlayMediaIntent(url, VIDEO_TYPE);
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayVideoIntent",
+                playMedia(Uri.parse(url), VIDEO_TYPE));
     }
 
     /**
-     * Open a YouTube video. If the app is not installed, it opens it in the browser
+     * Open a YouTube video in the YouTube app
      *
      * @param videoId The video ID
      *
      * @return the intent
+     * @deprecated the web fallback cannot be chosen without a context, this intent fails to launch when the YouTube
+     * app is not installed. Use {@link #newPlayYouTubeVideoIntent(Context, String)} instead.
      */
+    @Deprecated
     public static Intent newPlayYouTubeVideoIntent(String videoId) {
-        try {
-            return new Intent(Intent.ACTION_VIEW, Uri.parse("vnd.youtube:" + videoId));
-        } catch (ActivityNotFoundException ex) {
-            return new Intent(Intent.ACTION_VIEW, Uri.parse("http://www.youtube.com/watch?v=" + videoId));
-        }
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayYouTubeVideoIntent",
+                new Intent(Intent.ACTION_VIEW, Uri.parse(YOUTUBE_APP_URI + videoId)));
+    }
+
+    /**
+     * Open a YouTube video. If the app is not installed, it opens it in the browser
+     *
+     * @param context The current context
+     * @param videoId The video ID
+     *
+     * @return the intent
+     */
+    public static Intent newPlayYouTubeVideoIntent(Context context, String videoId) {
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayYouTubeVideoIntent",
+                YOUTUBE_VIDEO_CHAIN.newIntent(context, videoId));
+    }
+
+    /**
+     * Open a YouTube video at a given time. If the app is not installed, it opens it in the browser
+     *
+     * @param context      The current context
+     * @param videoId      The video ID
+     * @param startSeconds The offset in seconds at which the video starts playing
+     *
+     * @return the intent
+     */
+    public static Intent newPlayYouTubeVideoIntent(Context context, String videoId, int startSeconds) {
+        final long start = IntentMetrics.startFactory();
+        final int index = YOUTUBE_VIDEO_CHAIN.resolve(context);
+        final String argument = index == 0
+                ? videoId + "?t=" + startSeconds
+                : videoId + "&t=" + startSeconds + "s";
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayYouTubeVideoIntent",
+                new Intent(Intent.ACTION_VIEW, YOUTUBE_VIDEO_CHAIN.newUri(index, argument)));
+    }
+
+    /**
+     * Open a YouTube playlist. The YouTube app handles the playlist links when it is installed, otherwise the
+     * playlist opens in the browser.
+     *
+     * @param playlistId The playlist ID
+     *
+     * @return the intent
+     */
+    public static Intent newPlayYouTubePlaylistIntent(String playlistId) {
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayYouTubePlaylistIntent",
+                new Intent(Intent.ACTION_VIEW, Uri.parse(YOUTUBE_PLAYLIST_URL + playlistId)));
+    }
+
+    /**
+     * Open a video of a YouTube playlist, the rest of the playlist plays after it. The YouTube app handles the
+     * playlist links when it is installed, otherwise the playlist opens in the browser.
+     *
+     * @param playlistId The playlist ID
+     * @param videoId    The ID of the first video to play
+     *
+     * @return the intent
+     */
+    public static Intent newPlayYouTubePlaylistIntent(String playlistId, String videoId) {
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayYouTubePlaylistIntent",
+                new Intent(Intent.ACTION_VIEW, Uri.parse(YOUTUBE_WEB_URL + videoId + "&list=" + playlistId)));
     }
 
     /**
@@ -147,7 +329,8 @@ public class MediaIntents {
      * @return the intent
      */
     public static Intent newPlayMediaIntent(String url, String type) {
-        return newPlayMediaIntent(Uri.parse(url), type);
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayMediaIntent", playMedia(Uri.parse(url), type));
     }
 
     /**
@@ -158,7 +341,9 @@ public class MediaIntents {
      * @return the intent
      */
     public static Intent newPlayMediaFileIntent(File file, String type) {
-        return newPlayMediaIntent(Uri.fromFile(file), type);
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayMediaFileIntent",
+                playMedia(Uri.fromFile(file), type));
     }
 
     /**
@@ -169,7 +354,40 @@ public class MediaIntents {
      * @return the intent
      */
     public static Intent newPlayMediaFileIntent(String path, String type) {
-        return newPlayMediaIntent(Uri.fromFile(new File(path)), type);
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayMediaFileIntent",
+                playMedia(Uri.fromFile(new File(path)), type));
+    }
+
+    /**
+     * Open the media player to play the given media, whatever its name. The MIME type is found from the first bytes
+     * of the file, then from its extension if the format is not recognized. This reads the file the first time it is
+     * seen (or after it has been modified), so avoid calling it on the main thread.
+     *
+     * @param file The file path of the media to play.
+     * @return the intent
+     * @see MediaSniffer
+     */
+    public static Intent newPlayMediaFileIntent(File file) {
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayMediaFileIntent",
+                playMedia(Uri.fromFile(file), detectType(file)));
+    }
+
+    /**
+     * Open the media player to play the given media, whatever its name. The MIME type is found from the first bytes
+     * of the file, then from its extension if the format is not recognized. This reads the file the first time it is
+     * seen (or after it has been modified), so avoid calling it on the main thread.
+     *
+     * @param path The file path of the media to play.
+     * @return the intent
+     * @see MediaSniffer
+     */
+    public static Intent newPlayMediaFileIntent(String path) {
+        final long start = IntentMetrics.startFactory();
+        final File file = new File(path);
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayMediaFileIntent",
+                playMedia(Uri.fromFile(file), detectType(file)));
     }
 
     /**
@@ -180,11 +398,49 @@ public class MediaIntents {
      * @return the intent
      */
     public static Intent newPlayMediaIntent(Uri uri, String type) {
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newPlayMediaIntent", playMedia(uri, type));
+    }
+
+    /**
+     * Build the intent of all the play factories. It is not reported to {@link IntentMetrics}, the public factories
+     * report the whole call under their own name.
+     */
+    private static Intent playMedia(Uri uri, String type) {
         Intent intent = new Intent(Intent.ACTION_VIEW);
         intent.setDataAndType(uri, type);
         return intent;
     }
 
+    /**
+     * Find the exact type of a file from its extension if it belongs to the given wildcard type
+     *
+     * @param fileName The file name or path
+     * @param wildcard The wildcard type ("audio/*", ...)
+     * @return the exact type, or the wildcard if the extension is unknown or of another kind of media
+     */
+    private static String refineType(String fileName, String wildcard) {
+        final String type = MimeTypes.fromFileName(fileName);
+        if (type != null && type.regionMatches(0, wildcard, 0, wildcard.length() - 1)) {
+            return type;
+        }
+        return wildcard;
+    }
+
+    /**
+     * Find the type of a media file from its content, then from its extension
+     *
+     * @param file The media file
+     * @return the type, or {@link #ANY_TYPE} if the format is not recognized
+     */
+    private static String detectType(File file) {
+        String type = MediaSniffer.sniff(file);
+        if (type == null) {
+            type = MimeTypes.fromFileName(file.getName());
+        }
+        return type == null ? ANY_TYPE : type;
+    }
+
     /**
      * Creates an intent that will launch a browser (most probably as other apps may handle specific URLs, e.g. YouTube)
      * to view the provided URL.
@@ -193,11 +449,12 @@ public class MediaIntents {
      * @return the intent
      */
     public static Intent newOpenWebBrowserIntent(String url) {
+        final long start = IntentMetrics.startFactory();
         if (!url.startsWith("https://") && !url.startsWith("http://")) {
             url = "http://" + url;
         }
         Intent intent = new Intent(Intent.ACTION_VIEW, Uri.parse(url));
-        return intent;
+        return IntentMetrics.endFactory(start, "MediaIntents.newOpenWebBrowserIntent", intent);
     }
 
     /**
@@ -208,9 +465,10 @@ public class MediaIntents {
      * @return the intent
      */
     public static Intent newTakePictureIntent(File tempFile) {
+        final long start = IntentMetrics.startFactory();
         Intent intent = new Intent(MediaStore.ACTION_IMAGE_CAPTURE);
         intent.putExtra(MediaStore.EXTRA_OUTPUT, Uri.fromFile(tempFile));
-        return intent;
+        return IntentMetrics.endFactory(start, "MediaIntents.newTakePictureIntent", intent);
     }
 
     /**
@@ -221,9 +479,10 @@ public class MediaIntents {
      * @return the intent
      */
     public static Intent newTakePictureIntent(String tempFile) {
+        final long start = IntentMetrics.startFactory();
         Intent intent = new Intent(MediaStore.ACTION_IMAGE_CAPTURE);
         intent.putExtra(MediaStore.EXTRA_OUTPUT, Uri.fromFile(new File(tempFile)));
-        return intent;
+        return IntentMetrics.endFactory(start, "MediaIntents.newTakePictureIntent", intent);
     }
 
     /**
@@ -232,8 +491,8 @@ public class MediaIntents {
      * @return the intent
      */
     public static Intent newSelectPictureIntent() {
-        Intent intent = new Intent(Intent.ACTION_PICK);
-        intent.setType("image/*");
-        return intent;
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "MediaIntents.newSelectPictureIntent",
+                IntentPrototypes.newSelectPictureIntent());
     }
 }
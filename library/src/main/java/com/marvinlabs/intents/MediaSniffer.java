@@ -0,0 +1,257 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Finds the MIME type of a media file from its first bytes, whatever its name: JPEG, PNG, GIF, WebP, BMP, TIFF, HEIF,
+ * AVIF, MP4/ISO-BMFF (including M4A, QuickTime and 3GPP), Matroska/WebM, AVI, MPEG, ASF, FLV, MP3, AAC, OGG, FLAC, WAV,
+ * AIFF, AMR and MIDI.
+ * <p/>
+ * Only the first {@value #HEADER_SIZE} bytes of the file are read, into a small direct buffer. Results are cached per
+ * file path, modification date and size, so sniffing the same file again only costs a stat.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+public final class MediaSniffer {
+
+    /**
+     * The number of bytes read at the beginning of the files
+     */
+    public static final int HEADER_SIZE = 64;
+
+    private static final int CACHE_SIZE = 256;
+
+    // Marks the files whose type could not be found, so that they are not read again
+    private static final String UNKNOWN_TYPE = "";
+
+    private static final ThreadLocal<ByteBuffer> sHeader = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocateDirect(HEADER_SIZE);
+        }
+    };
+
+    private static final Map<String, CacheEntry> sCache = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private MediaSniffer() {
+    }
+
+    /**
+     * Find the MIME type of a media file from its content. This does some I/O the first time a file is sniffed (or
+     * after it has been modified), so avoid calling it on the main thread.
+     *
+     * @param file The file to sniff
+     * @return the MIME type or null if the file cannot be read or if its format is not recognized
+     */
+    public static String sniff(File file) {
+        final String path = file.getAbsolutePath();
+        final long lastModified = file.lastModified();
+        final long length = file.length();
+
+        synchronized (sCache) {
+            final CacheEntry entry = sCache.get(path);
+            if (entry != null && entry.lastModified == lastModified && entry.length == length) {
+                return entry.type == UNKNOWN_TYPE ? null : entry.type;
+            }
+        }
+
+        String type;
+        try {
+            type = sniff(readHeader(file));
+        } catch (IOException e) {
+            // Not cached, the file may become readable later
+            return null;
+        }
+
+        synchronized (sCache) {
+            sCache.put(path, new CacheEntry(lastModified, length, type == null ? UNKNOWN_TYPE : type));
+        }
+        return type;
+    }
+
+    /**
+     * Forget all the sniffed types
+     */
+    public static void clearCache() {
+        synchronized (sCache) {
+            sCache.clear();
+        }
+    }
+
+    private static ByteBuffer readHeader(File file) throws IOException {
+        final ByteBuffer header = sHeader.get();
+        header.clear();
+
+        final FileInputStream in = new FileInputStream(file);
+        try {
+            final FileChannel channel = in.getChannel();
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Keep reading until the buffer is full or the file is over
+            }
+        } finally {
+            in.close();
+        }
+
+        header.flip();
+        return header;
+    }
+
+    /**
+     * Find the MIME type of a media from its first bytes
+     *
+     * @param header The first bytes, between the position and the limit of the buffer
+     * @return the MIME type or null if the format is not recognized
+     */
+    static String sniff(ByteBuffer header) {
+        final int n = header.remaining();
+        final int p = header.position();
+        if (n < 4) {
+            return null;
+        }
+
+        final int b0 = header.get(p) & 0xFF;
+        final int b1 = header.get(p + 1) & 0xFF;
+
+        // Images
+        if (b0 == 0xFF && b1 == 0xD8 && (header.get(p + 2) & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (startsWith(header, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(header, 0, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (startsWith(header, 0, 'I', 'I', '*', 0) || startsWith(header, 0, 'M', 'M', 0, '*')) {
+            return "image/tiff";
+        }
+
+        // RIFF containers
+        if (startsWith(header, 0, 'R', 'I', 'F', 'F')) {
+            if (startsWith(header, 8, 'W', 'E', 'B', 'P')) return "image/webp";
+            if (startsWith(header, 8, 'W', 'A', 'V', 'E')) return "audio/x-wav";
+            if (startsWith(header, 8, 'A', 'V', 'I', ' ')) return "video/avi";
+            return null;
+        }
+        if (startsWith(header, 0, 'F', 'O', 'R', 'M') && (startsWith(header, 8, 'A', 'I', 'F', 'F')
+                || startsWith(header, 8, 'A', 'I', 'F', 'C'))) {
+            return "audio/x-aiff";
+        }
+
+        // ISO base media file format (MP4, M4A, QuickTime, 3GPP, HEIF, AVIF)
+        if (startsWith(header, 4, 'f', 't', 'y', 'p') && n >= 12) {
+            return sniffFileTypeBox(header, p + 8);
+        }
+
+        // Matroska and WebM (EBML header, the doc type comes a few bytes later)
+        if (startsWith(header, 0, 0x1A, 0x45, 0xDF, 0xA3)) {
+            return contains(header, 'w', 'e', 'b', 'm') ? "video/webm" : "video/x-matroska";
+        }
+
+        // OGG, the codec identification follows the first page header
+        if (startsWith(header, 0, 'O', 'g', 'g', 'S')) {
+            return contains(header, 't', 'h', 'e', 'o', 'r', 'a') ? "video/ogg" : "audio/ogg";
+        }
+
+        if (startsWith(header, 0, 'f', 'L', 'a', 'C')) return "audio/flac";
+        if (startsWith(header, 0, 'M', 'T', 'h', 'd')) return "audio/midi";
+        if (startsWith(header, 0, '#', '!', 'A', 'M', 'R', '-', 'W', 'B')) return "audio/amr-wb";
+        if (startsWith(header, 0, '#', '!', 'A', 'M', 'R')) return "audio/amr";
+        if (startsWith(header, 0, 'I', 'D', '3')) return "audio/mpeg";
+        if (startsWith(header, 0, 'F', 'L', 'V', 0x01)) return "video/x-flv";
+        if (startsWith(header, 0, 0x30, 0x26, 0xB2, 0x75, 0x8E, 0x66, 0xCF, 0x11)) return "video/x-ms-asf";
+        if (startsWith(header, 0, 0x00, 0x00, 0x01, 0xBA) || startsWith(header, 0, 0x00, 0x00, 0x01, 0xB3)) {
+            return "video/mpeg";
+        }
+
+        // MPEG audio frame sync: layer bits set for MP3, cleared for AAC in ADTS
+        if (b0 == 0xFF && (b1 & 0xE0) == 0xE0) {
+            return (b1 & 0x06) == 0 ? "audio/aac" : "audio/mpeg";
+        }
+
+        if (startsWith(header, 0, 'B', 'M') && n >= 14) {
+            return "image/x-ms-bmp";
+        }
+
+        return null;
+    }
+
+    private static String sniffFileTypeBox(ByteBuffer header, int brandOffset) {
+        final char c0 = (char) (header.get(brandOffset) & 0xFF);
+        final char c1 = (char) (header.get(brandOffset + 1) & 0xFF);
+        final char c2 = (char) (header.get(brandOffset + 2) & 0xFF);
+        final char c3 = (char) (header.get(brandOffset + 3) & 0xFF);
+
+        if (c0 == 'M' && c1 == '4' && (c2 == 'A' || c2 == 'B' || c2 == 'P')) return "audio/mp4";
+        if (c0 == 'q' && c1 == 't') return "video/quicktime";
+        if (c0 == '3' && c1 == 'g' && c2 == '2') return "video/3gpp2";
+        if (c0 == '3' && c1 == 'g') return "video/3gpp";
+        if (c0 == 'h' && c1 == 'e' && (c2 == 'i' || c2 == 'v')) return "image/heic";
+        if ((c0 == 'm' || c0 == 'h') && c1 == 'i' && c2 == 'f' && c3 == '1') return "image/heif";
+        if (c0 == 'm' && c1 == 's' && c2 == 'f' && c3 == '1') return "image/heif";
+        if (c0 == 'a' && c1 == 'v' && c2 == 'i' && (c3 == 'f' || c3 == 's')) return "image/avif";
+        return "video/mp4";
+    }
+
+    private static boolean startsWith(ByteBuffer header, int offset, int... bytes) {
+        final int start = header.position() + offset;
+        if (header.limit() - start < bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; ++i) {
+            if ((header.get(start + i) & 0xFF) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(ByteBuffer header, int... bytes) {
+        final int last = header.limit() - bytes.length;
+        for (int start = header.position(); start <= last; ++start) {
+            if (startsWith(header, start - header.position(), bytes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class CacheEntry {
+        final long lastModified;
+        final long length;
+        final String type;
+
+        CacheEntry(long lastModified, long length, String type) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.type = type;
+        }
+    }
+}
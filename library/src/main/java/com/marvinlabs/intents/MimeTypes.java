@@ -0,0 +1,179 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+/**
+ * Finds the MIME type of the common audio, video and image files from their extension. The lookup is done in a small
+ * precomputed open-addressing table, is case-insensitive and works on the characters of the given text directly: no
+ * substring and no lower case copy are created.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+public final class MimeTypes {
+
+    // Power of two, kept at least twice as large as the number of extensions
+    private static final int TABLE_SIZE = 256;
+    private static final int TABLE_MASK = TABLE_SIZE - 1;
+
+    private static final String[] sExtensions = new String[TABLE_SIZE];
+    private static final String[] sTypes = new String[TABLE_SIZE];
+
+    static {
+        // Audio
+        put("mp3", "audio/mpeg");
+        put("mpga", "audio/mpeg");
+        put("m4a", "audio/mp4");
+        put("aac", "audio/aac");
+        put("ogg", "audio/ogg");
+        put("oga", "audio/ogg");
+        put("opus", "audio/ogg");
+        put("flac", "audio/flac");
+        put("wav", "audio/x-wav");
+        put("amr", "audio/amr");
+        put("awb", "audio/amr-wb");
+        put("mid", "audio/midi");
+        put("midi", "audio/midi");
+        put("wma", "audio/x-ms-wma");
+        put("mka", "audio/x-matroska");
+        put("3ga", "audio/3gpp");
+        put("aif", "audio/x-aiff");
+        put("aiff", "audio/x-aiff");
+
+        // Video
+        put("mp4", "video/mp4");
+        put("m4v", "video/mp4");
+        put("3gp", "video/3gpp");
+        put("3gpp", "video/3gpp");
+        put("3g2", "video/3gpp2");
+        put("webm", "video/webm");
+        put("mkv", "video/x-matroska");
+        put("avi", "video/avi");
+        put("mov", "video/quicktime");
+        put("ts", "video/mp2ts");
+        put("mpg", "video/mpeg");
+        put("mpeg", "video/mpeg");
+        put("wmv", "video/x-ms-wmv");
+        put("flv", "video/x-flv");
+        put("ogv", "video/ogg");
+
+        // Images
+        put("jpg", "image/jpeg");
+        put("jpeg", "image/jpeg");
+        put("jpe", "image/jpeg");
+        put("png", "image/png");
+        put("gif", "image/gif");
+        put("webp", "image/webp");
+        put("bmp", "image/x-ms-bmp");
+        put("heic", "image/heic");
+        put("heif", "image/heif");
+        put("avif", "image/avif");
+        put("svg", "image/svg+xml");
+        put("ico", "image/x-icon");
+        put("tif", "image/tiff");
+        put("tiff", "image/tiff");
+        put("wbmp", "image/vnd.wap.wbmp");
+        put("dng", "image/x-adobe-dng");
+    }
+
+    private MimeTypes() {
+    }
+
+    /**
+     * Find the MIME type of a file extension
+     *
+     * @param extension The extension, without the dot (any case)
+     * @return the MIME type or null if the extension is not known
+     */
+    public static String fromExtension(CharSequence extension) {
+        if (extension == null) {
+            return null;
+        }
+        return lookup(extension, 0, extension.length());
+    }
+
+    /**
+     * Find the MIME type of a file from the extension of its name
+     *
+     * @param fileName The name or the path of the file
+     * @return the MIME type or null if the file has no extension or if the extension is not known
+     */
+    public static String fromFileName(CharSequence fileName) {
+        if (fileName == null) {
+            return null;
+        }
+
+        final int length = fileName.length();
+        for (int i = length - 1; i >= 0; --i) {
+            final char c = fileName.charAt(i);
+            if (c == '.') {
+                return lookup(fileName, i + 1, length);
+            }
+            if (c == '/') {
+                break;
+            }
+        }
+        return null;
+    }
+
+    private static String lookup(CharSequence text, int start, int end) {
+        if (start >= end) {
+            return null;
+        }
+
+        int index = hash(text, start, end) & TABLE_MASK;
+        while (sExtensions[index] != null) {
+            if (matches(sExtensions[index], text, start, end)) {
+                return sTypes[index];
+            }
+            index = (index + 1) & TABLE_MASK;
+        }
+        return null;
+    }
+
+    private static void put(String extension, String type) {
+        int index = hash(extension, 0, extension.length()) & TABLE_MASK;
+        while (sExtensions[index] != null) {
+            index = (index + 1) & TABLE_MASK;
+        }
+        sExtensions[index] = extension;
+        sTypes[index] = type;
+    }
+
+    private static int hash(CharSequence text, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; ++i) {
+            h = 31 * h + toLowerAscii(text.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(String extension, CharSequence text, int start, int end) {
+        if (extension.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; ++i) {
+            if (extension.charAt(i - start) != toLowerAscii(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char toLowerAscii(char c) {
+        return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.Uri;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Watches the package broadcasts so that the caches of the library can be dropped whenever the set of installed
+ * applications changes (install, update, enable/disable or removal of a package).
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+final class PackageChangeMonitor {
+
+    /**
+     * Gets notified when a package has been added, removed, changed, replaced or fully removed (data included)
+     */
+    interface Listener {
+
+        /**
+         * @param action      The broadcast action (one of the Intent.ACTION_PACKAGE_* constants)
+         * @param packageName The package which has changed (may be null)
+         */
+        void onPackageChanged(String action, String packageName);
+    }
+
+    private static final CopyOnWriteArrayList<Listener> sListeners = new CopyOnWriteArrayList<Listener>();
+    private static final AtomicInteger sGeneration = new AtomicInteger();
+    private static volatile boolean sRegistered = false;
+
+    private PackageChangeMonitor() {
+    }
+
+    /**
+     * Registers the package broadcast receiver on the application context if that has not been done yet. This is
+     * cheap to call once registered.
+     *
+     * @param context The current context
+     */
+    static void ensureRegistered(Context context) {
+        if (sRegistered) {
+            return;
+        }
+
+        synchronized (PackageChangeMonitor.class) {
+            if (sRegistered) {
+                return;
+            }
+
+            final Context appContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+
+            final IntentFilter filter = new IntentFilter();
+            filter.addAction(Intent.ACTION_PACKAGE_ADDED);
+            filter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+            filter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+            filter.addAction(Intent.ACTION_PACKAGE_REPLACED);
+            filter.addAction(Intent.ACTION_PACKAGE_FULLY_REMOVED);
+            filter.addDataScheme("package");
+            appContext.registerReceiver(new PackageChangeReceiver(), filter);
+
+            sRegistered = true;
+        }
+    }
+
+    /**
+     * A counter which is incremented each time the installed packages change. Caches can compare it before and after
+     * a query to avoid storing a result computed against a stale set of packages.
+     */
+    static int getGeneration() {
+        return sGeneration.get();
+    }
+
+    static void addListener(Listener listener) {
+        sListeners.addIfAbsent(listener);
+    }
+
+    static void removeListener(Listener listener) {
+        sListeners.remove(listener);
+    }
+
+    static void notifyPackageChanged(String action, String packageName) {
+        sGeneration.incrementAndGet();
+        for (Listener listener : sListeners) {
+            listener.onPackageChanged(action, packageName);
+        }
+    }
+
+    private static class PackageChangeReceiver extends BroadcastReceiver {
+
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            final Uri data = intent.getData();
+            notifyPackageChanged(intent.getAction(), data == null ? null : data.getSchemeSpecificPart());
+        }
+    }
+}
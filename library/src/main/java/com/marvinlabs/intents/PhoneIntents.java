@@ -22,9 +22,11 @@ import android.net.Uri;
 import android.os.Build;
 import android.provider.Contacts;
 import android.provider.ContactsContract;
-import android.provider.Telephony;
 import android.text.TextUtils;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Provides factory methods to create intents to send SMS, MMS and call phone numbers
  *
@@ -33,13 +35,27 @@ import android.text.TextUtils;
  */
 public class PhoneIntents {
 
+    /**
+     * A recipient count per SMS intent which the common messaging apps accept
+     */
+    public static final int DEFAULT_MAX_SMS_RECIPIENTS = 50;
+
+    /**
+     * A "smsto:" URI length which the common messaging apps accept
+     */
+    public static final int DEFAULT_MAX_SMS_URI_LENGTH = 2000;
+
+    // The dialing characters which are not encoded in the "tel:" URIs
+    static final String TEL_LITERALS = "+*,;";
+
     /**
      * Creates an intent that will allow to send an SMS without specifying the phone number
      *
      * @return the intent
      */
     public static Intent newEmptySmsIntent(Context context) {
-        return newSmsIntent(context, null, (String[]) null);
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "PhoneIntents.newEmptySmsIntent", sms(context, null, (String[]) null));
     }
 
     /**
@@ -49,7 +65,9 @@ public class PhoneIntents {
      * @return the intent
      */
     public static Intent newEmptySmsIntent(Context context, String phoneNumber) {
-        return newSmsIntent(context, null, new String[]{phoneNumber});
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "PhoneIntents.newEmptySmsIntent",
+                sms(context, null, new String[]{phoneNumber}));
     }
 
     /**
@@ -59,7 +77,8 @@ public class PhoneIntents {
      * @return the intent
      */
     public static Intent newEmptySmsIntent(Context context, String[] phoneNumbers) {
-        return newSmsIntent(context, null, phoneNumbers);
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "PhoneIntents.newEmptySmsIntent", sms(context, null, phoneNumbers));
     }
 
     /**
@@ -92,17 +111,91 @@ public class PhoneIntents {
      * @return the intent
      */
     public static Intent newSmsIntent(Context context, String body, String[] phoneNumbers) {
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "PhoneIntents.newSmsIntent", sms(context, body, phoneNumbers));
+    }
+
+    /**
+     * Build the intent of the SMS factories, without reporting it to {@link IntentMetrics}
+     */
+    private static Intent sms(Context context, String body, String[] phoneNumbers) {
         Uri smsUri;
         if (phoneNumbers == null || phoneNumbers.length==0) {
-            smsUri = Uri.parse("smsto:");
+            smsUri = IntentPrototypes.SMS_TO_URI;
         } else {
-            smsUri = Uri.parse("smsto:" + Uri.encode(TextUtils.join(",", phoneNumbers)));
+            smsUri = newSmsToUri(phoneNumbers);
         }
+        return newSmsToIntent(context, body, smsUri);
+    }
+
+    /**
+     * Creates as many intents as needed to send an SMS to a large number of recipients, so that no messaging app has
+     * to truncate the recipient list. Each intent gets at most maxRecipients numbers and a URI of at most maxUriLength
+     * characters (a single number longer than that still gets its own intent).
+     *
+     * @param body          The text to send
+     * @param phoneNumbers  The phone numbers to send the SMS to
+     * @param maxRecipients The maximum number of recipients per intent (for instance
+     *                      {@link #DEFAULT_MAX_SMS_RECIPIENTS})
+     * @param maxUriLength  The maximum length of the "smsto:" URI of each intent (for instance
+     *                      {@link #DEFAULT_MAX_SMS_URI_LENGTH})
+     * @return the intents, one per chunk of recipients (a single intent without recipient if there is no number)
+     */
+    public static List<Intent> newSmsIntents(Context context, String body, String[] phoneNumbers, int maxRecipients,
+                                             int maxUriLength) {
+        final long start = IntentMetrics.startFactory();
+        if (maxRecipients <= 0 || maxUriLength <= 0) {
+            throw new IllegalArgumentException("The recipient and URI budgets must be positive");
+        }
+
+        final List<Intent> intents = new ArrayList<Intent>();
+        if (phoneNumbers == null || phoneNumbers.length == 0) {
+            intents.add(newSmsToIntent(context, body, IntentPrototypes.SMS_TO_URI));
+            return IntentMetrics.endFactory(start, "PhoneIntents.newSmsIntents", intents);
+        }
+
+        // Length available for the scheme-specific part of the URI
+        final int maxPartLength = maxUriLength - "smsto:".length();
+
+        final StringBuilder sb = UriEncoder.obtainBuffer();
+        int recipientCount = 0;
+        for (String phoneNumber : phoneNumbers) {
+            final CharSequence number = PhoneNumberNormalizer.normalizeToBuffer(phoneNumber);
+            if (number.length() <= 0) {
+                continue;
+            }
+
+            final int mark = sb.length();
+            if (recipientCount > 0) {
+                sb.append("%2C");
+            }
+            UriEncoder.appendEncoded(sb, number);
+
+            if (recipientCount > 0 && (recipientCount >= maxRecipients || sb.length() > maxPartLength)) {
+                // That number does not fit in the current chunk: flush the chunk and start the next one with it
+                final String encodedNumber = sb.substring(mark + 3);
+                sb.setLength(mark);
+                intents.add(newSmsToIntent(context, body, UriEncoder.newOpaqueUri("smsto", sb)));
+
+                sb.setLength(0);
+                sb.append(encodedNumber);
+                recipientCount = 0;
+            }
+            ++recipientCount;
+        }
+
+        if (recipientCount > 0 || intents.isEmpty()) {
+            intents.add(newSmsToIntent(context, body, UriEncoder.newOpaqueUri("smsto", sb)));
+        }
+
+        return IntentMetrics.endFactory(start, "PhoneIntents.newSmsIntents", intents);
+    }
 
+    private static Intent newSmsToIntent(Context context, String body, Uri smsUri) {
         Intent intent;
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
             intent = new Intent(Intent.ACTION_SENDTO, smsUri);
-            intent.setPackage(Telephony.Sms.getDefaultSmsPackage(context));
+            intent.setPackage(DefaultSmsPackage.get(context));
         } else {
             intent = new Intent(Intent.ACTION_VIEW, smsUri);
         }
@@ -123,13 +216,15 @@ public class PhoneIntents {
      * @return the intent
      */
     public static Intent newDialNumberIntent(String phoneNumber) {
+        final long start = IntentMetrics.startFactory();
         final Intent intent;
-        if (phoneNumber == null || phoneNumber.trim().length() <= 0) {
-            intent = new Intent(Intent.ACTION_DIAL, Uri.parse("tel:"));
+        final CharSequence number = PhoneNumberNormalizer.normalizeToBuffer(phoneNumber);
+        if (number.length() <= 0) {
+            intent = IntentPrototypes.newDialIntent();
         } else {
-            intent = new Intent(Intent.ACTION_DIAL, Uri.parse("tel:" + phoneNumber.replace(" ", "")));
+            intent = new Intent(Intent.ACTION_DIAL, newTelUri(number));
         }
-        return intent;
+        return IntentMetrics.endFactory(start, "PhoneIntents.newDialNumberIntent", intent);
     }
 
     /**
@@ -141,13 +236,15 @@ public class PhoneIntents {
      * @return the intent
      */
     public static Intent newCallNumberIntent(String phoneNumber) {
+        final long start = IntentMetrics.startFactory();
         final Intent intent;
-        if (phoneNumber == null || phoneNumber.trim().length() <= 0) {
-            intent = new Intent(Intent.ACTION_CALL, Uri.parse("tel:"));
+        final CharSequence number = PhoneNumberNormalizer.normalizeToBuffer(phoneNumber);
+        if (number.length() <= 0) {
+            intent = IntentPrototypes.newCallIntent();
         } else {
-            intent = new Intent(Intent.ACTION_CALL, Uri.parse("tel:" + phoneNumber.replace(" ", "")));
+            intent = new Intent(Intent.ACTION_CALL, newTelUri(number));
         }
-        return intent;
+        return IntentMetrics.endFactory(start, "PhoneIntents.newCallNumberIntent", intent);
     }
 
     /**
@@ -175,35 +272,66 @@ public class PhoneIntents {
      *
      * @param scope You can restrict selection by passing required content type.
      */
-    @SuppressWarnings("deprecation")
     public static Intent newPickContactIntent(String scope) {
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "PhoneIntents.newPickContactIntent", pickContact(scope));
+    }
+
+    /**
+     * Pick contact only from contacts with telephone numbers
+     */
+    @SuppressWarnings("deprecation")
+    public static Intent newPickContactWithPhoneIntent() {
+        final long start = IntentMetrics.startFactory();
         Intent intent;
         if (isContacts2ApiSupported()) {
-            intent = new Intent(Intent.ACTION_PICK, Uri.parse("content://com.android.contacts/contacts"));
+            intent = pickContact(ContactsContract.CommonDataKinds.Phone.CONTENT_TYPE);
         } else {
-            intent = new Intent(Intent.ACTION_PICK, Contacts.People.CONTENT_URI);
+            // pre Eclair, use old contacts API
+            intent = pickContact(Contacts.Phones.CONTENT_TYPE);
         }
+        return IntentMetrics.endFactory(start, "PhoneIntents.newPickContactWithPhoneIntent", intent);
+    }
+
+    /**
+     * Build the intent of the pick contact factories, without reporting it to {@link IntentMetrics}
+     */
+    private static Intent pickContact(String scope) {
+        Intent intent = IntentPrototypes.newPickContactIntent();
 
         if (!TextUtils.isEmpty(scope)) {
             intent.setType(scope);
         }
-
         return intent;
     }
 
     /**
-     * Pick contact only from contacts with telephone numbers
+     * Build a "tel:" URI from an already normalized phone number. The dialing characters are written as they are, as
+     * in "tel:+33123456789", except '#' which would start the fragment of the URI and is sent as "%23".
      */
-    @SuppressWarnings("deprecation")
-    public static Intent newPickContactWithPhoneIntent() {
-        Intent intent;
-        if (isContacts2ApiSupported()) {
-            intent = newPickContactIntent(ContactsContract.CommonDataKinds.Phone.CONTENT_TYPE);
-        } else {
-            // pre Eclair, use old contacts API
-            intent = newPickContactIntent(Contacts.Phones.CONTENT_TYPE);
+    private static Uri newTelUri(CharSequence number) {
+        final StringBuilder sb = UriEncoder.obtainBuffer();
+        UriEncoder.appendEncoded(sb, number, TEL_LITERALS);
+        return UriEncoder.newOpaqueUri("tel", sb);
+    }
+
+    /**
+     * Build a "smsto:" URI with the comma-separated list of the given phone numbers, normalized, in a single pass.
+     * Blank numbers are skipped.
+     */
+    private static Uri newSmsToUri(String[] phoneNumbers) {
+        final StringBuilder sb = UriEncoder.obtainBuffer();
+        for (String phoneNumber : phoneNumbers) {
+            final CharSequence number = PhoneNumberNormalizer.normalizeToBuffer(phoneNumber);
+            if (number.length() <= 0) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append("%2C");
+            }
+            UriEncoder.appendEncoded(sb, number);
         }
-        return intent;
+        return UriEncoder.newOpaqueUri("smsto", sb);
     }
 
     /**
@@ -0,0 +1,159 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+/**
+ * Strips the visual separators from phone numbers in a single pass: white spaces (including non-breaking and other
+ * Unicode spaces), dashes, dots, slashes, parentheses, brackets and invisible formatting characters. Everything else
+ * is kept, in particular the digits and the dialing characters '+', '*', '#', ',' and ';'.
+ * <p/>
+ * Examples:
+ * <p/>
+ * <code><pre>
+ *     "+33 (0)1 23.45.67.89"  gives  "+330123456789"
+ *     "1-800-555-0199"        gives  "18005550199"
+ *     "*#06#"                 gives  "*#06#"
+ * </pre></code>
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+public final class PhoneNumberNormalizer {
+
+    private static final ThreadLocal<StringBuilder> sBuffer = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(32);
+        }
+    };
+
+    private PhoneNumberNormalizer() {
+    }
+
+    /**
+     * Normalize a phone number
+     *
+     * @param number The phone number (may be null)
+     * @return the number without its separators, an empty string if the number is null or blank. When there is
+     * nothing to strip, the given string is returned as is.
+     */
+    public static String normalize(CharSequence number) {
+        if (number == null) {
+            return "";
+        }
+
+        final int length = number.length();
+        int i = 0;
+        while (i < length && !isSeparator(number.charAt(i))) {
+            ++i;
+        }
+        if (i == length) {
+            return number.toString();
+        }
+
+        // Copy what has already been scanned and carry on from the first separator
+        final StringBuilder sb = sBuffer.get();
+        sb.setLength(0);
+        sb.append(number, 0, i);
+        for (++i; i < length; ++i) {
+            final char c = number.charAt(i);
+            if (!isSeparator(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Append the normalized form of a phone number to a buffer
+     *
+     * @param sb     The buffer to write to
+     * @param number The phone number (may be null)
+     * @return the buffer
+     */
+    public static StringBuilder appendNormalized(StringBuilder sb, CharSequence number) {
+        if (number == null) {
+            return sb;
+        }
+
+        final int length = number.length();
+        for (int i = 0; i < length; ++i) {
+            final char c = number.charAt(i);
+            if (!isSeparator(c)) {
+                sb.append(c);
+            }
+        }
+        return sb;
+    }
+
+    /**
+     * Normalize a phone number into the buffer of the current thread. The result is only valid until the next call on
+     * the same thread.
+     *
+     * @param number The phone number (may be null)
+     * @return the normalized number
+     */
+    static CharSequence normalizeToBuffer(CharSequence number) {
+        final StringBuilder sb = sBuffer.get();
+        sb.setLength(0);
+        return appendNormalized(sb, number);
+    }
+
+    /**
+     * Is the given character only used to make a phone number easier to read?
+     */
+    static boolean isSeparator(char c) {
+        if (c >= '0' && c <= '9') {
+            return false;
+        }
+
+        switch (c) {
+            case '+':
+            case '*':
+            case '#':
+            case ',':
+            case ';':
+                return false;
+
+            case '-':
+            case '.':
+            case '/':
+            case '(':
+            case ')':
+            case '[':
+            case ']':
+            case '\u00AD': // soft hyphen
+            case '\u2010': // hyphen
+            case '\u2011': // non-breaking hyphen
+            case '\u2012': // figure dash
+            case '\u2013': // en dash
+            case '\u2014': // em dash
+            case '\u2015': // horizontal bar
+            case '\u2212': // minus sign
+            case '\u30FB': // katakana middle dot
+            case '\uFF0D': // fullwidth hyphen-minus
+            case '\uFF0E': // fullwidth full stop
+            case '\uFF08': // fullwidth left parenthesis
+            case '\uFF09': // fullwidth right parenthesis
+                return true;
+
+            default:
+                return Character.isWhitespace(c)
+                        || Character.isSpaceChar(c)
+                        || Character.getType(c) == Character.FORMAT;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.app.PendingIntent;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentSender;
+import android.content.SharedPreferences;
+import android.os.Build;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers the applications the user picks in the share choosers, so that the most used ones can be offered directly
+ * (for instance in a row of buttons) and the next shares can skip the chooser with
+ * {@link ShareIntents#newDirectShareTextIntent(Context, ComponentName, String, String)}.
+ * <p/>
+ * Targets are ranked by frecency: each use adds one to the score of a target, and scores are halved every week
+ * without use. Choices are only known on Android 5.1 and above, where the chooser reports them to
+ * {@link ShareTargetReceiver}. Tracking is off by default, see {@link #setEnabled(boolean)}.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+public final class RecentShareTargets {
+
+    /**
+     * The default number of targets returned by {@link #getTopTargets(Context)}
+     */
+    public static final int DEFAULT_MAX_TARGETS = 4;
+
+    private static final String PREFERENCES_NAME = "com.marvinlabs.intents.share_targets";
+    private static final long HALF_LIFE_MILLIS = 7L * 24 * 60 * 60 * 1000;
+    private static final int MAX_STORED_TARGETS = 32;
+
+    // PendingIntent.FLAG_MUTABLE: from API 31 the chooser can only fill in the chosen component of a mutable sender
+    private static final int FLAG_MUTABLE = 0x02000000;
+    private static final int ANDROID_S = 31;
+
+    private static final Object sLock = new Object();
+    private static volatile boolean sEnabled = false;
+    private static SharedPreferences sPreferences;
+    private static Map<String, Target> sTargets;
+
+    static {
+        PackageChangeMonitor.addListener(new PackageChangeMonitor.Listener() {
+            @Override
+            public void onPackageChanged(String action, String packageName) {
+                if (Intent.ACTION_PACKAGE_FULLY_REMOVED.equals(action) && packageName != null) {
+                    forgetPackage(packageName);
+                }
+            }
+        });
+    }
+
+    private RecentShareTargets() {
+    }
+
+    /**
+     * Turn the tracking of the share targets on or off. It is off by default.
+     *
+     * @param enabled true to have the choosers created by {@link ShareIntents} report the picked application
+     */
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    /**
+     * @return true if the share targets are tracked
+     */
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * Create a chooser which reports the picked application when tracking is on (and supported by the device)
+     *
+     * @param context The current context
+     * @param target  The intent to share
+     * @param title   The title for the chooser dialog
+     * @return the chooser intent
+     */
+    public static Intent newChooserIntent(Context context, Intent target, CharSequence title) {
+        if (sEnabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP_MR1) {
+            return newTrackedChooserIntent(context, target, title);
+        }
+        return Intent.createChooser(target, title);
+    }
+
+    private static Intent newTrackedChooserIntent(Context context, Intent target, CharSequence title) {
+        final int flags = Build.VERSION.SDK_INT >= ANDROID_S
+                ? PendingIntent.FLAG_UPDATE_CURRENT | FLAG_MUTABLE
+                : PendingIntent.FLAG_UPDATE_CURRENT;
+        final Intent callback = new Intent(context, ShareTargetReceiver.class);
+        final IntentSender sender = PendingIntent.getBroadcast(context, 0, callback, flags).getIntentSender();
+        return Intent.createChooser(target, title, sender);
+    }
+
+    /**
+     * Count a use of a share target. This is done automatically for the choices made in the choosers created while
+     * tracking is on, and for the direct shares started with {@link IntentLauncher}. Call it after starting a direct
+     * share by other means.
+     *
+     * @param context   The current context
+     * @param component The activity the content has been shared with
+     */
+    public static void recordUse(Context context, ComponentName component) {
+        final String key = component.flattenToShortString();
+        final long now = System.currentTimeMillis();
+
+        synchronized (sLock) {
+            load(context);
+
+            Target target = sTargets.get(key);
+            if (target == null) {
+                target = new Target(component, 0, now);
+                sTargets.put(key, target);
+            }
+            target.score = target.getScore(now) + 1;
+            target.lastUsed = now;
+
+            final SharedPreferences.Editor editor = sPreferences.edit();
+            editor.putString(key, target.encode());
+            if (sTargets.size() > MAX_STORED_TARGETS) {
+                editor.remove(removeLowest(now));
+            }
+            editor.apply();
+        }
+    }
+
+    /**
+     * Get the most used share targets, see {@link #getTopTargets(Context, int)}
+     *
+     * @param context The current context
+     * @return at most {@link #DEFAULT_MAX_TARGETS} targets, the best first
+     */
+    public static List<ComponentName> getTopTargets(Context context) {
+        return getTopTargets(context, DEFAULT_MAX_TARGETS);
+    }
+
+    /**
+     * Get the most used share targets. The stored choices are read from disk on the first call, avoid making it on the
+     * main thread.
+     *
+     * @param context    The current context
+     * @param maxTargets The maximum number of targets to return
+     * @return the targets, the best first
+     */
+    public static List<ComponentName> getTopTargets(Context context, int maxTargets) {
+        final long now = System.currentTimeMillis();
+        final List<Target> targets;
+        synchronized (sLock) {
+            load(context);
+            targets = new ArrayList<Target>(sTargets.values());
+        }
+
+        Collections.sort(targets, new Comparator<Target>() {
+            @Override
+            public int compare(Target lhs, Target rhs) {
+                return Double.compare(rhs.getScore(now), lhs.getScore(now));
+            }
+        });
+
+        final int count = Math.min(maxTargets, targets.size());
+        final List<ComponentName> result = new ArrayList<ComponentName>(count);
+        for (int i = 0; i < count; ++i) {
+            result.add(targets.get(i).component);
+        }
+        return result;
+    }
+
+    /**
+     * Forget a share target, for instance after it failed to start
+     *
+     * @param context   The current context
+     * @param component The activity to forget
+     */
+    public static void forget(Context context, ComponentName component) {
+        final String key = component.flattenToShortString();
+        synchronized (sLock) {
+            load(context);
+            if (sTargets.remove(key) != null) {
+                sPreferences.edit().remove(key).apply();
+            }
+        }
+    }
+
+    /**
+     * Forget all the share targets
+     *
+     * @param context The current context
+     */
+    public static void clear(Context context) {
+        synchronized (sLock) {
+            load(context);
+            sTargets.clear();
+            sPreferences.edit().clear().apply();
+        }
+    }
+
+    private static void forgetPackage(String packageName) {
+        synchronized (sLock) {
+            if (sTargets == null) {
+                return;
+            }
+
+            final SharedPreferences.Editor editor = sPreferences.edit();
+            final Iterator<Map.Entry<String, Target>> it = sTargets.entrySet().iterator();
+            while (it.hasNext()) {
+                final Map.Entry<String, Target> entry = it.next();
+                if (packageName.equals(entry.getValue().component.getPackageName())) {
+                    editor.remove(entry.getKey());
+                    it.remove();
+                }
+            }
+            editor.apply();
+        }
+    }
+
+    /**
+     * Read the stored targets if not done yet. Must be called with the lock held.
+     */
+    private static void load(Context context) {
+        if (sTargets != null) {
+            return;
+        }
+
+        final Context appContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+        PackageChangeMonitor.ensureRegistered(appContext);
+
+        sPreferences = appContext.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        sTargets = new HashMap<String, Target>();
+        for (Map.Entry<String, ?> entry : sPreferences.getAll().entrySet()) {
+            final ComponentName component = ComponentName.unflattenFromString(entry.getKey());
+            final Target target = component == null ? null : Target.decode(component, entry.getValue());
+            if (target != null) {
+                sTargets.put(entry.getKey(), target);
+            }
+        }
+    }
+
+    /**
+     * Remove the target with the lowest score. Must be called with the lock held.
+     *
+     * @return the key of the removed target
+     */
+    private static String removeLowest(long now) {
+        String lowestKey = null;
+        double lowestScore = Double.MAX_VALUE;
+        for (Map.Entry<String, Target> entry : sTargets.entrySet()) {
+            final double score = entry.getValue().getScore(now);
+            if (score < lowestScore) {
+                lowestScore = score;
+                lowestKey = entry.getKey();
+            }
+        }
+        sTargets.remove(lowestKey);
+        return lowestKey;
+    }
+
+    private static final class Target {
+        final ComponentName component;
+        double score;
+        long lastUsed;
+
+        Target(ComponentName component, double score, long lastUsed) {
+            this.component = component;
+            this.score = score;
+            this.lastUsed = lastUsed;
+        }
+
+        /**
+         * @return the score decayed from the last use until the given time
+         */
+        double getScore(long now) {
+            final long age = Math.max(0, now - lastUsed);
+            return score * Math.pow(0.5, (double) age / HALF_LIFE_MILLIS);
+        }
+
+        /**
+         * @return the stored form of the target: "score:lastUsed"
+         */
+        String encode() {
+            return score + ":" + lastUsed;
+        }
+
+        static Target decode(ComponentName component, Object value) {
+            if (!(value instanceof String)) {
+                return null;
+            }
+
+            final String text = (String) value;
+            final int separator = text.indexOf(':');
+            if (separator < 0) {
+                return null;
+            }
+            try {
+                return new Target(component, Double.parseDouble(text.substring(0, separator)),
+                        Long.parseLong(text.substring(separator + 1)));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
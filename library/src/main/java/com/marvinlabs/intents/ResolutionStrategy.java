@@ -0,0 +1,109 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.ActivityInfo;
+import android.content.pm.PackageManager;
+import android.content.pm.ResolveInfo;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * How much the package manager is asked when resolving an intent: whether a single activity matches, which activity
+ * would be started, or the list of every {@link ResolveInfo} which matches.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ * @see IntentUtils#resolve(Context, Intent, ResolutionStrategy)
+ */
+public enum ResolutionStrategy {
+
+    /**
+     * Only tell whether an activity can handle the intent. A single match is returned: the preferred activity, or
+     * the system chooser when there are several candidates.
+     */
+    EXISTS {
+        @Override
+        List<ResolveInfo> resolve(PackageManager packageManager, Intent intent) {
+            final ResolveInfo info = packageManager.resolveActivity(intent, PackageManager.MATCH_DEFAULT_ONLY);
+            return info == null ? Collections.<ResolveInfo>emptyList() : Collections.singletonList(info);
+        }
+    },
+
+    /**
+     * Find the activity which is started without showing a chooser: the only candidate, or the one the user picked
+     * as the default. Nothing is returned when the user would have to choose.
+     */
+    DEFAULT_HANDLER {
+        @Override
+        List<ResolveInfo> resolve(PackageManager packageManager, Intent intent) {
+            final ResolveInfo info = packageManager.resolveActivity(intent, PackageManager.MATCH_DEFAULT_ONLY);
+            return info == null || isChooser(info)
+                    ? Collections.<ResolveInfo>emptyList()
+                    : Collections.singletonList(info);
+        }
+    },
+
+    /**
+     * List all the activities which can handle the intent, for instance to build a custom chooser
+     */
+    EXHAUSTIVE {
+        @Override
+        List<ResolveInfo> resolve(PackageManager packageManager, Intent intent) {
+            return packageManager.queryIntentActivities(intent, PackageManager.MATCH_DEFAULT_ONLY);
+        }
+    };
+
+    private static final String SYSTEM_PACKAGE = "android";
+    private static final String CHOOSER_ACTIVITY_SUFFIX = "ResolverActivity";
+
+    /**
+     * Query the package manager, reporting the query to the {@link IntentMetrics}
+     *
+     * @param context The current context
+     * @param intent  The intent to resolve
+     * @return the matching activities (never null)
+     */
+    List<ResolveInfo> query(Context context, Intent intent) {
+        final long start = IntentMetrics.startResolverQuery();
+        final List<ResolveInfo> result = resolve(context.getPackageManager(), intent);
+        IntentMetrics.endResolverQuery(start, this, result.size());
+        return result;
+    }
+
+    /**
+     * Query the package manager
+     *
+     * @param packageManager The package manager
+     * @param intent         The intent to resolve
+     * @return the matching activities (never null)
+     */
+    abstract List<ResolveInfo> resolve(PackageManager packageManager, Intent intent);
+
+    /**
+     * @return true if the activity is the system chooser, which resolveActivity returns when the user has to choose
+     */
+    static boolean isChooser(ResolveInfo info) {
+        final ActivityInfo activity = info.activityInfo;
+        return activity != null
+                && SYSTEM_PACKAGE.equals(activity.packageName)
+                && activity.name != null
+                && activity.name.endsWith(CHOOSER_ACTIVITY_SUFFIX);
+    }
+}
@@ -16,7 +16,10 @@ limitations under the License.
 
 package com.marvinlabs.intents;
 
+import android.content.ComponentName;
+import android.content.Context;
 import android.content.Intent;
+import android.net.Uri;
 
 /**
  * Provides factory methods to create intents to share stuff
@@ -34,12 +37,109 @@ public class ShareIntents {
      * @return the intent
      */
     public static Intent newShareTextIntent(String subject, String message, String chooserDialogTitle) {
+        final long start = IntentMetrics.startFactory();
         Intent shareIntent = new Intent(Intent.ACTION_SEND);
         shareIntent.putExtra(Intent.EXTRA_TEXT, message);
         shareIntent.putExtra(Intent.EXTRA_SUBJECT, subject);
         shareIntent.setType(MIME_TYPE_TEXT);
-        return Intent.createChooser(shareIntent, chooserDialogTitle);
+        return IntentMetrics.endFactory(start, "ShareIntents.newShareTextIntent",
+                Intent.createChooser(shareIntent, chooserDialogTitle));
     }
 
-    private static final String MIME_TYPE_TEXT = "text/*";
+    /**
+     * Creates a chooser to share some data. If the message is too large to go through the Binder transaction, it is
+     * written to a file and shared as a stream instead (see {@link IntentSizeGuard}). The picked application is
+     * recorded when {@link RecentShareTargets} tracking is on.
+     *
+     * @param context            The current context
+     * @param subject            The subject to share (might be discarded, for instance if the user picks an SMS app)
+     * @param message            The message to share
+     * @param chooserDialogTitle The title for the chooser dialog
+     * @return the intent
+     */
+    public static Intent newShareTextIntent(Context context, String subject, String message,
+                                            String chooserDialogTitle) {
+        final long start = IntentMetrics.startFactory();
+        Intent shareIntent = new Intent(Intent.ACTION_SEND);
+        shareIntent.putExtra(Intent.EXTRA_TEXT, message);
+        shareIntent.putExtra(Intent.EXTRA_SUBJECT, subject);
+        shareIntent.setType(MIME_TYPE_TEXT);
+        IntentSizeGuard.guard(context, shareIntent);
+        return IntentMetrics.endFactory(start, "ShareIntents.newShareTextIntent",
+                RecentShareTargets.newChooserIntent(context, shareIntent, chooserDialogTitle));
+    }
+
+    /**
+     * Creates an intent to share some data with a given application, without showing the chooser. Typically used
+     * with the targets returned by {@link RecentShareTargets#getTopTargets(Context)}. The use of the target is counted
+     * when the intent is started with {@link IntentLauncher}, building the intent alone records nothing.
+     *
+     * @param context The current context
+     * @param target  The activity to share with
+     * @param subject The subject to share (might be discarded, for instance if the user picks an SMS app)
+     * @param message The message to share
+     * @return the intent
+     */
+    public static Intent newDirectShareTextIntent(Context context, ComponentName target, String subject,
+                                                  String message) {
+        final long start = IntentMetrics.startFactory();
+        Intent shareIntent = new Intent(Intent.ACTION_SEND);
+        shareIntent.putExtra(Intent.EXTRA_TEXT, message);
+        shareIntent.putExtra(Intent.EXTRA_SUBJECT, subject);
+        shareIntent.setType(MIME_TYPE_TEXT);
+        shareIntent.setComponent(target);
+        IntentSizeGuard.guard(context, shareIntent);
+        return IntentMetrics.endFactory(start, "ShareIntents.newDirectShareTextIntent", shareIntent);
+    }
+
+    /**
+     * Creates a chooser to share some content which is generated while the receiving application reads it. The
+     * content goes through a pipe, so it never has to be held in memory or on disk as a whole. The stream can be
+     * opened several times, the writer then runs again for each reader. It stays available until
+     * {@link #releaseSharedStream(Intent)} is called or for {@link IntentContentProvider#STREAM_TIMEOUT_MILLIS} at
+     * most.
+     *
+     * @param context            The current context
+     * @param mimeType           The MIME type of the content (for instance "text/plain" or "text/csv")
+     * @param displayName        The name under which the content is presented (for instance "report.csv")
+     * @param writer             The writer producing the content each time the receiving application opens it
+     * @param chooserDialogTitle The title for the chooser dialog
+     * @return the intent
+     */
+    public static Intent newShareStreamIntent(Context context, String mimeType, String displayName,
+                                              StreamWriter writer, String chooserDialogTitle) {
+        final long start = IntentMetrics.startFactory();
+        final Uri streamUri = IntentContentProvider.registerStream(context, mimeType, displayName, writer);
+
+        Intent shareIntent = new Intent(Intent.ACTION_SEND);
+        shareIntent.putExtra(Intent.EXTRA_STREAM, streamUri);
+        shareIntent.setType(mimeType);
+        shareIntent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        return IntentMetrics.endFactory(start, "ShareIntents.newShareStreamIntent",
+                RecentShareTargets.newChooserIntent(context, shareIntent, chooserDialogTitle));
+    }
+
+    /**
+     * Stop serving the content shared by an intent created with
+     * {@link #newShareStreamIntent(Context, String, String, StreamWriter, String)}. Readers which have already opened
+     * the stream are not interrupted.
+     *
+     * @param shareIntent The intent returned by newShareStreamIntent
+     */
+    public static void releaseSharedStream(Intent shareIntent) {
+        Intent target = shareIntent;
+        if (Intent.ACTION_CHOOSER.equals(shareIntent.getAction())) {
+            target = shareIntent.getParcelableExtra(Intent.EXTRA_INTENT);
+        }
+        if (target == null) {
+            return;
+        }
+
+        final Uri streamUri = target.getParcelableExtra(Intent.EXTRA_STREAM);
+        if (streamUri != null) {
+            IntentContentProvider.unregisterStream(streamUri);
+        }
+    }
+
+    static final String MIME_TYPE_TEXT = "text/*";
 }
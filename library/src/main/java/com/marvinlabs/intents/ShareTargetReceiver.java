@@ -0,0 +1,39 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.content.BroadcastReceiver;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+
+/**
+ * Receives the application picked in the share choosers created while {@link RecentShareTargets} tracking is on
+ * (Android 5.1 and above). It is declared in the manifest of the library and is not exported.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+public class ShareTargetReceiver extends BroadcastReceiver {
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        final ComponentName component = intent.getParcelableExtra(Intent.EXTRA_CHOSEN_COMPONENT);
+        if (component != null) {
+            RecentShareTargets.recordUse(context, component);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Produces the content shared by {@link ShareIntents#newShareStreamIntent(android.content.Context, String, String,
+ * StreamWriter, String)}. The content is generated when the receiving application opens the stream and is sent to it
+ * as it gets written, so it never has to be held in memory or on disk as a whole.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+public interface StreamWriter {
+
+    /**
+     * Write the content. This is called on a background thread of the library each time the stream is opened, for
+     * instance when the receiving application reads the content again, so it must write the whole content on every
+     * call. Two readers may open the stream at the same time, the calls can then run concurrently. Writes block until
+     * the receiving application reads the data.
+     *
+     * @param out The stream to write to. It is closed by the library once this method returns.
+     * @throws IOException if the content cannot be written (for instance because the reader closed the stream). From
+     *                     KitKat, the error is reported to the reader when the library closes the stream.
+     */
+    void writeTo(OutputStream out) throws IOException;
+}
@@ -15,7 +15,10 @@ package com.marvinlabs.intents;
 
 import android.content.Context;
 import android.content.Intent;
-import android.net.Uri;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
 /**
  * Provides factory methods to create intents to do some system tasks such as opening the market app, ...
@@ -24,6 +27,25 @@ import android.net.Uri;
  */
 public class SystemIntents {
 
+    private static final String GOOGLE_PLAY_URI = "market://details?id=";
+    private static final String AMAZON_STORE_URI = "amzn://apps/android?p=";
+
+    // The winning store is remembered until the installed packages change
+    private static final IntentFallbackChain MARKET_CHAIN = new IntentFallbackChain.Builder()
+            .tryUri(GOOGLE_PLAY_URI)
+            .tryUri(AMAZON_STORE_URI)
+            .build();
+
+    private static final IntentFallbackChain GOOGLE_PLAY_CHAIN = new IntentFallbackChain.Builder()
+            .tryUri(GOOGLE_PLAY_URI)
+            .orElseUri("https://play.google.com/store/apps/details?id=")
+            .build();
+
+    private static final IntentFallbackChain AMAZON_STORE_CHAIN = new IntentFallbackChain.Builder()
+            .tryUri(AMAZON_STORE_URI)
+            .orElseUri("http://www.amazon.com/gp/mas/dl/android?p=")
+            .build();
+
     /**
      * Intent that should open the app store of the device on the current application page
      *
@@ -43,21 +65,14 @@ public class SystemIntents {
      * @return the intent or null if no market is available for the intent
      */
     public static Intent newMarketForAppIntent(Context context, String packageName) {
-        Intent intent = new Intent(Intent.ACTION_VIEW, Uri.parse("market://details?id=" + packageName));
-
-        if (!IntentUtils.isIntentAvailable(context, intent)) {
-            intent = new Intent(Intent.ACTION_VIEW, Uri.parse("amzn://apps/android?p=" + packageName));
-        }
-
-        if (!IntentUtils.isIntentAvailable(context, intent)) {
-            intent = null;
-        }
+        final long start = IntentMetrics.startFactory();
+        Intent intent = MARKET_CHAIN.newIntent(context, packageName);
 
         if (intent != null) {
             intent.addFlags(Intent.FLAG_ACTIVITY_NO_HISTORY | Intent.FLAG_ACTIVITY_CLEAR_WHEN_TASK_RESET);
         }
 
-        return intent;
+        return IntentMetrics.endFactory(start, "SystemIntents.newMarketForAppIntent", intent);
     }
 
     /**
@@ -68,18 +83,14 @@ public class SystemIntents {
      * @return the intent for native application or an intent to redirect to the browser if google play is not installed
      */
     public static Intent newGooglePlayIntent(Context context, String packageName) {
-        Intent intent = new Intent(Intent.ACTION_VIEW, Uri.parse("market://details?id=" + packageName));
-
-        if (!IntentUtils.isIntentAvailable(context, intent)) {
-            intent = MediaIntents.newOpenWebBrowserIntent("https://play.google.com/store/apps/details?id="
-                    + packageName);
-        }
+        final long start = IntentMetrics.startFactory();
+        Intent intent = GOOGLE_PLAY_CHAIN.newIntent(context, packageName);
 
         if (intent != null) {
             intent.addFlags(Intent.FLAG_ACTIVITY_NO_HISTORY | Intent.FLAG_ACTIVITY_CLEAR_WHEN_TASK_RESET);
         }
 
-        return intent;
+        return IntentMetrics.endFactory(start, "SystemIntents.newGooglePlayIntent", intent);
     }
 
     /**
@@ -90,18 +101,92 @@ public class SystemIntents {
      * @return the intent for native application or an intent to redirect to the browser if google play is not installed
      */
     public static Intent newAmazonStoreIntent(Context context, String packageName) {
-        Intent intent = new Intent(Intent.ACTION_VIEW, Uri.parse("amzn://apps/android?p=" + packageName));
-
-        if (!IntentUtils.isIntentAvailable(context, intent)) {
-            intent = MediaIntents.newOpenWebBrowserIntent("http://www.amazon.com/gp/mas/dl/android?p="
-                    + packageName);
-        }
+        final long start = IntentMetrics.startFactory();
+        Intent intent = AMAZON_STORE_CHAIN.newIntent(context, packageName);
 
         if (intent != null) {
             intent.addFlags(Intent.FLAG_ACTIVITY_NO_HISTORY | Intent.FLAG_ACTIVITY_CLEAR_WHEN_TASK_RESET);
         }
 
-        return intent;
+        return IntentMetrics.endFactory(start, "SystemIntents.newAmazonStoreIntent", intent);
+    }
+
+    /**
+     * Asynchronous version of {@link #newMarketForAppIntent(Context)}: the available stores are looked up on the given
+     * executor instead of the calling thread.
+     *
+     * @param context  The context associated to the application
+     * @param executor The executor to look up the stores on
+     * @param callback The callback to notify once the intent is ready (may be null if you prefer to use the future)
+     * @return a future which gives the intent (or null if no market is available) and can be used to cancel the task
+     */
+    public static Future<Intent> newMarketForAppIntentAsync(Context context, Executor executor,
+                                                           IntentCallback callback) {
+        String packageName = context.getApplicationContext().getPackageName();
+        return newMarketForAppIntentAsync(context, packageName, executor, callback);
+    }
+
+    /**
+     * Asynchronous version of {@link #newMarketForAppIntent(Context, String)}: the available stores are looked up on
+     * the given executor instead of the calling thread.
+     *
+     * @param context     The context associated to the application
+     * @param packageName The package name of the application to find on the market
+     * @param executor    The executor to look up the stores on
+     * @param callback    The callback to notify once the intent is ready (may be null if you prefer to use the future)
+     * @return a future which gives the intent (or null if no market is available) and can be used to cancel the task
+     */
+    public static Future<Intent> newMarketForAppIntentAsync(Context context, final String packageName,
+                                                           Executor executor, IntentCallback callback) {
+        final Context appContext = context.getApplicationContext();
+        return IntentFutureTask.submit(executor, new Callable<Intent>() {
+            @Override
+            public Intent call() throws Exception {
+                return newMarketForAppIntent(appContext, packageName);
+            }
+        }, callback);
+    }
+
+    /**
+     * Asynchronous version of {@link #newGooglePlayIntent(Context, String)}: the Google Play app is looked up on the
+     * given executor instead of the calling thread.
+     *
+     * @param context     The context associated to the application
+     * @param packageName The package name of the application to find on the market
+     * @param executor    The executor to look up the store on
+     * @param callback    The callback to notify once the intent is ready (may be null if you prefer to use the future)
+     * @return a future which gives the intent and can be used to cancel the task
+     */
+    public static Future<Intent> newGooglePlayIntentAsync(Context context, final String packageName,
+                                                         Executor executor, IntentCallback callback) {
+        final Context appContext = context.getApplicationContext();
+        return IntentFutureTask.submit(executor, new Callable<Intent>() {
+            @Override
+            public Intent call() throws Exception {
+                return newGooglePlayIntent(appContext, packageName);
+            }
+        }, callback);
+    }
+
+    /**
+     * Asynchronous version of {@link #newAmazonStoreIntent(Context, String)}: the Amazon store app is looked up on the
+     * given executor instead of the calling thread.
+     *
+     * @param context     The context associated to the application
+     * @param packageName The package name of the application to find on the market
+     * @param executor    The executor to look up the store on
+     * @param callback    The callback to notify once the intent is ready (may be null if you prefer to use the future)
+     * @return a future which gives the intent and can be used to cancel the task
+     */
+    public static Future<Intent> newAmazonStoreIntentAsync(Context context, final String packageName,
+                                                          Executor executor, IntentCallback callback) {
+        final Context appContext = context.getApplicationContext();
+        return IntentFutureTask.submit(executor, new Callable<Intent>() {
+            @Override
+            public Intent call() throws Exception {
+                return newAmazonStoreIntent(appContext, packageName);
+            }
+        }, callback);
     }
 
     /**
@@ -116,8 +201,7 @@ public class SystemIntents {
      * </code></pre>
      */
     public static Intent newPickFileIntent() {
-        Intent intent = new Intent(Intent.ACTION_GET_CONTENT);
-        intent.setType("file/*");
-        return intent;
+        final long start = IntentMetrics.startFactory();
+        return IntentMetrics.endFactory(start, "SystemIntents.newPickFileIntent", IntentPrototypes.newPickFileIntent());
     }
 }
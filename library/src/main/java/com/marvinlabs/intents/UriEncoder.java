@@ -0,0 +1,128 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.net.Uri;
+
+/**
+ * Helpers to write URIs straight into a per-thread buffer. Components are percent-encoded on the fly (with the same
+ * rules as {@link Uri#encode(String)}), which saves the intermediate strings, and the URI is created from the buffer
+ * with {@link Uri#parse(String)}: that only wraps the string, its parts are parsed when they are read.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+final class UriEncoder {
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private static final ThreadLocal<StringBuilder> sBuffer = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(128);
+        }
+    };
+
+    private UriEncoder() {
+    }
+
+    /**
+     * Get the buffer of the current thread, emptied. The buffer must not be held across calls to other methods which
+     * may use it too.
+     */
+    static StringBuilder obtainBuffer() {
+        final StringBuilder sb = sBuffer.get();
+        sb.setLength(0);
+        return sb;
+    }
+
+    /**
+     * Build an opaque URI (such as "geo:..." or "tel:...") from an already encoded scheme-specific part. The scheme is
+     * written in front of the part, in the same buffer, so the only copy made is the string of the URI.
+     *
+     * @param scheme      The URI scheme
+     * @param encodedPart The encoded scheme-specific part, which must not start with a '/'. The buffer is modified.
+     * @return the URI
+     */
+    static Uri newOpaqueUri(String scheme, StringBuilder encodedPart) {
+        encodedPart.insert(0, ':').insert(0, scheme);
+        return Uri.parse(encodedPart.toString());
+    }
+
+    /**
+     * Append the percent-encoded form of some text. Letters, digits and the characters "_-!.~'()*" are left as they
+     * are, everything else is encoded as UTF-8.
+     *
+     * @param sb   The buffer to write to
+     * @param text The text to encode
+     * @return the buffer
+     */
+    static StringBuilder appendEncoded(StringBuilder sb, CharSequence text) {
+        return appendEncoded(sb, text, null);
+    }
+
+    /**
+     * Same as {@link #appendEncoded(StringBuilder, CharSequence)}, leaving some more ASCII characters as they are, like
+     * {@link Uri#encode(String, String)}
+     *
+     * @param sb    The buffer to write to
+     * @param text  The text to encode
+     * @param allow The additional characters to leave as they are (or null)
+     * @return the buffer
+     */
+    static StringBuilder appendEncoded(StringBuilder sb, CharSequence text, String allow) {
+        final int length = text.length();
+        for (int i = 0; i < length; ++i) {
+            final char c = text.charAt(i);
+            if (isAllowed(c) || (allow != null && c < 0x80 && allow.indexOf(c) >= 0)) {
+                sb.append(c);
+            } else if (c < 0x80) {
+                appendEscaped(sb, c);
+            } else if (c < 0x800) {
+                appendEscaped(sb, 0xC0 | (c >> 6));
+                appendEscaped(sb, 0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                appendEscaped(sb, 0xF0 | (codePoint >> 18));
+                appendEscaped(sb, 0x80 | ((codePoint >> 12) & 0x3F));
+                appendEscaped(sb, 0x80 | ((codePoint >> 6) & 0x3F));
+                appendEscaped(sb, 0x80 | (codePoint & 0x3F));
+            } else if (c >= '\uD800' && c <= '\uDFFF') {
+                // Unpaired surrogate, encoded as the replacement character like the platform does
+                appendEscaped(sb, 0xEF);
+                appendEscaped(sb, 0xBF);
+                appendEscaped(sb, 0xBD);
+            } else {
+                appendEscaped(sb, 0xE0 | (c >> 12));
+                appendEscaped(sb, 0x80 | ((c >> 6) & 0x3F));
+                appendEscaped(sb, 0x80 | (c & 0x3F));
+            }
+        }
+        return sb;
+    }
+
+    private static boolean isAllowed(char c) {
+        return (c >= 'a' && c <= 'z')
+                || (c >= 'A' && c <= 'Z')
+                || (c >= '0' && c <= '9')
+                || c == '_' || c == '-' || c == '!' || c == '.' || c == '~' || c == '\'' || c == '(' || c == ')'
+                || c == '*';
+    }
+
+    private static void appendEscaped(StringBuilder sb, int b) {
+        sb.append('%').append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+    }
+}
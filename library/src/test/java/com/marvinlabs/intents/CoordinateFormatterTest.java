@@ -0,0 +1,113 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Vincent Prat @ MarvinLabs
+ */
+public class CoordinateFormatterTest {
+
+    private final CoordinateFormatter formatter = new CoordinateFormatter(CoordinateFormatter.DEFAULT_PRECISION);
+
+    @Test
+    public void dropsTrailingZeros() {
+        assertEquals("43.481055", formatter.format(43.4810550));
+        assertEquals("2", formatter.format(2.0));
+        assertEquals("2.5", formatter.format(2.5));
+        assertEquals("0", formatter.format(0.0));
+    }
+
+    @Test
+    public void roundsToThePrecision() {
+        assertEquals("1.123457", formatter.format(1.1234567));
+        assertEquals("1.000001", formatter.format(1.0000005));
+        assertEquals("1", formatter.format(0.9999999));
+        assertEquals("1.12", new CoordinateFormatter(2).format(1.123));
+        assertEquals("1.123456789", new CoordinateFormatter(CoordinateFormatter.MAX_PRECISION).format(1.123456789));
+    }
+
+    @Test
+    public void precisionZeroWritesIntegers() {
+        final CoordinateFormatter integers = new CoordinateFormatter(0);
+        assertEquals("43", integers.format(43.4));
+        assertEquals("44", integers.format(43.5));
+        assertEquals("-2", integers.format(-1.5));
+    }
+
+    @Test
+    public void writesNegativeValues() {
+        assertEquals("-122.084", formatter.format(-122.084));
+        assertEquals("-0.5", formatter.format(-0.5));
+    }
+
+    @Test
+    public void valuesRoundedToZeroHaveNoSign() {
+        assertEquals("0", formatter.format(-0.0));
+        assertEquals("0", formatter.format(-0.0000001));
+    }
+
+    @Test
+    public void neverUsesExponentNotation() {
+        assertEquals("0.000001", formatter.format(1e-6));
+        assertEquals("8999999999", new CoordinateFormatter(0).format(8.999999999e9));
+    }
+
+    @Test
+    public void appendsToTheBuffer() {
+        final StringBuilder sb = new StringBuilder("geo:");
+        assertSame(sb, formatter.append(sb, 48.8583).append(',').append(2.2945));
+        formatter.append(sb.append(','), 2.2945);
+        assertEquals("geo:48.8583,2.2945,2.2945", sb.toString());
+    }
+
+    @Test
+    public void rejectsOutOfRangePrecision() {
+        assertRejected(-1);
+        assertRejected(CoordinateFormatter.MAX_PRECISION + 1);
+    }
+
+    @Test
+    public void rejectsValuesWhichCannotBeWritten() {
+        assertRejected(Double.NaN);
+        assertRejected(Double.POSITIVE_INFINITY);
+        assertRejected(Double.NEGATIVE_INFINITY);
+        assertRejected(9.0e9);
+        assertRejected(-1.0e10);
+    }
+
+    private static void assertRejected(int precision) {
+        try {
+            new CoordinateFormatter(precision);
+            fail("Precision should be rejected: " + precision);
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private void assertRejected(double value) {
+        try {
+            formatter.format(value);
+            fail("Value should be rejected: " + value);
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * The attachments taken by {@link EmailIntents} within their budgets, and the release of the files it serves.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 21)
+public class EmailIntentsTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void largeFileIsSkippedAndSmallOnesAreTaken() throws IOException {
+        final List<Uri> files = Arrays.asList(file("large.txt", 1000), file("a.txt", 100), file("b.txt", 100),
+                file("c.txt", 100));
+
+        final Intent intent = newEmailWithAttachments(files, 10, 250);
+        assertEquals(Intent.ACTION_SEND_MULTIPLE, intent.getAction());
+        assertEquals(2, getAttachments(intent).size());
+    }
+
+    @Test
+    public void iterationStopsOnceTheCountIsReached() throws IOException {
+        final CountingIterable files = new CountingIterable(Arrays.asList(file("large.txt", 1000),
+                file("a.txt", 10), file("b.txt", 10), file("c.txt", 10)));
+
+        assertEquals(2, getAttachments(newEmailWithAttachments(files, 2, 250)).size());
+        assertEquals(3, files.count);
+    }
+
+    @Test
+    public void iterationStopsOnceTheSizeIsUsedUp() throws IOException {
+        final CountingIterable files = new CountingIterable(Arrays.asList(file("a.txt", 100), file("b.txt", 150),
+                file("c.txt", 10)));
+
+        assertEquals(2, getAttachments(newEmailWithAttachments(files, 10, 250)).size());
+        assertEquals(2, files.count);
+    }
+
+    @Test
+    public void directoryScanSkipsTheLargeFiles() throws IOException {
+        final File directory = folder.newFolder("logs");
+        write(new File(directory, "large.txt"), 1000);
+        write(new File(directory, "small.txt"), 100);
+
+        final Intent intent = EmailIntents.newEmailWithAttachmentsIntent(RuntimeEnvironment.application, null,
+                "Logs", null, directory, null, 10, 250);
+        assertEquals(Intent.ACTION_SEND, intent.getAction());
+        assertNotNull(intent.getParcelableExtra(Intent.EXTRA_STREAM));
+    }
+
+    @Test
+    public void releasedAttachmentsAreNotServedAnymore() throws IOException {
+        final Uri other = Uri.parse("content://com.example.files/report.pdf");
+        final Intent intent = newEmailWithAttachments(Arrays.asList(file("a.txt", 10), file("b.txt", 10), other),
+                10, 250);
+        final List<Uri> attachments = getAttachments(intent);
+        assertEquals(3, attachments.size());
+
+        final IntentContentProvider provider = new IntentContentProvider();
+        assertNotNull(provider.getType(attachments.get(0)));
+
+        EmailIntents.releaseAttachments(intent);
+        assertNull(provider.getType(attachments.get(0)));
+        assertNull(provider.getType(attachments.get(1)));
+
+        // A file attached again gets served again, under a new name
+        final Intent again = newEmailWithAttachments(Arrays.asList(file("a.txt", 10)), 10, 250);
+        final Uri attachment = again.getParcelableExtra(Intent.EXTRA_STREAM);
+        assertNotNull(provider.getType(attachment));
+        assertNull(provider.getType(attachments.get(0)));
+        EmailIntents.releaseAttachments(again);
+    }
+
+    private static Intent newEmailWithAttachments(Iterable<Uri> attachments, int maxAttachments, long maxTotalSize) {
+        final Context context = RuntimeEnvironment.application;
+        return EmailIntents.newEmailWithAttachmentsIntent(context, null, "Logs", null, attachments, maxAttachments,
+                maxTotalSize);
+    }
+
+    private static List<Uri> getAttachments(Intent intent) {
+        return intent.getParcelableArrayListExtra(Intent.EXTRA_STREAM);
+    }
+
+    private Uri file(String name, int size) throws IOException {
+        final File file = new File(folder.getRoot(), name);
+        write(file, size);
+        return Uri.fromFile(file);
+    }
+
+    private static void write(File file, int size) throws IOException {
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[size]);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Counts the attachments enumerated by the factory
+     */
+    private static final class CountingIterable implements Iterable<Uri> {
+        final List<Uri> uris;
+        int count;
+
+        CountingIterable(List<Uri> uris) {
+            this.uris = new ArrayList<Uri>(uris);
+        }
+
+        @Override
+        public Iterator<Uri> iterator() {
+            final Iterator<Uri> it = uris.iterator();
+            return new Iterator<Uri>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public Uri next() {
+                    ++count;
+                    return it.next();
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+}
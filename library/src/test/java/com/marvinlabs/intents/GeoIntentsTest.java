@@ -0,0 +1,71 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.net.Uri;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The URIs written by {@link GeoIntents} in the pooled buffer.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 21)
+public class GeoIntentsTest {
+
+    @Test
+    public void addressWithTitle() {
+        final Uri uri = GeoIntents.newMapsIntent("1 rue de Rivoli, Paris", "Caf\u00E9").getData();
+        assertEquals("geo:0,0?q=1%20rue%20de%20Rivoli%2C%20Paris%20(Caf%C3%A9)", uri.toString());
+        assertEquals("geo", uri.getScheme());
+        assertTrue(uri.isOpaque());
+        assertEquals("0,0?q=1 rue de Rivoli, Paris (Caf\u00E9)", uri.getSchemeSpecificPart());
+    }
+
+    @Test
+    public void addressWithoutTitle() {
+        assertEquals("geo:0,0?q=Paris", GeoIntents.newMapsIntent("Paris", null).getData().toString());
+    }
+
+    @Test
+    public void coordinates() {
+        assertEquals("geo:48.8583,2.2945?q=48.8583,2.2945(Eiffel%20Tower)",
+                GeoIntents.newMapsIntent(48.8583, 2.2945, "Eiffel Tower").getData().toString());
+        assertEquals("google.navigation:q=-33.8568,151.2153",
+                GeoIntents.newNavigationIntent(-33.8568, 151.2153).getData().toString());
+        assertEquals("google.streetview:cbll=48.8583,2.2945&cbp=1,90,,10,2&mz=15",
+                GeoIntents.newStreetViewIntent(48.8583, 2.2945, 90f, 10, 2f, 15).getData().toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nanCoordinateIsRejected() {
+        GeoIntents.newMapsIntent(Double.NaN, 2.2945);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void infiniteCoordinateIsRejected() {
+        GeoIntents.newNavigationIntent(48.8583, Double.POSITIVE_INFINITY);
+    }
+}
@@ -0,0 +1,339 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.app.PendingIntent;
+import android.content.ClipData;
+import android.content.ComponentName;
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Bundle;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Intents and their extras must come back from {@link IntentCodec} as they were, the framework classes are provided
+ * by Robolectric.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 21)
+public class IntentCodecTest {
+
+    // Still the KitKat path with the default SMS package, which Robolectric cannot look up on later versions
+    @Test
+    @Config(sdk = 19)
+    public void sms() throws IOException {
+        assertRoundTrip(PhoneIntents.newSmsIntent(RuntimeEnvironment.application, "Hello",
+                new String[]{"+33123456789", "0612345678"}));
+        assertRoundTrip(PhoneIntents.newEmptySmsIntent(RuntimeEnvironment.application));
+    }
+
+    @Test
+    public void email() throws IOException {
+        assertRoundTrip(EmailIntents.newEmailIntent(new String[]{"a@example.com", "b@example.com"}, "Subject",
+                "Body", Uri.parse("content://com.example.files/report.pdf")));
+        assertRoundTrip(EmailIntents.newEmailIntent(null, null, null));
+    }
+
+    @Test
+    public void chooserWithItsTarget() throws IOException {
+        final Intent chooser = ShareIntents.newShareTextIntent("Subject", "Message", "Share with");
+        final Intent decoded = assertRoundTrip(chooser);
+
+        final Intent target = decoded.getParcelableExtra(Intent.EXTRA_INTENT);
+        assertEquals(Intent.ACTION_SEND, target.getAction());
+        assertEquals("Message", target.getStringExtra(Intent.EXTRA_TEXT));
+    }
+
+    @Test
+    public void everyFieldOfTheIntent() throws IOException {
+        final Intent intent = new Intent("com.example.ACTION");
+        intent.setDataAndType(Uri.parse("https://example.com/video?id=42&t=3"), "video/mp4");
+        intent.setPackage("com.example");
+        intent.setComponent(new ComponentName("com.example", "com.example.PlayerActivity"));
+        intent.addCategory(Intent.CATEGORY_BROWSABLE);
+        intent.addCategory(Intent.CATEGORY_DEFAULT);
+        intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_GRANT_READ_URI_PERMISSION);
+
+        final Intent decoded = assertRoundTrip(intent);
+        assertEquals("video/mp4", decoded.getType());
+        assertEquals(intent.getData(), decoded.getData());
+    }
+
+    @Test
+    public void typedExtras() throws IOException {
+        final Intent intent = new Intent(Intent.ACTION_VIEW);
+        intent.putExtra("string", "\u00E9t\u00E9 \u2600 \uD83D\uDE00");
+        intent.putExtra("charSequence", (CharSequence) new StringBuilder("text"));
+        intent.putExtra("int", Integer.MIN_VALUE);
+        intent.putExtra("long", Long.MAX_VALUE);
+        intent.putExtra("boolean", true);
+        intent.putExtra("component", new ComponentName("com.example", "com.example.MainActivity"));
+        intent.putExtra("uri", Uri.parse("geo:48.8583,2.2945"));
+        intent.putExtra("null", (String) null);
+
+        final Intent decoded = assertRoundTrip(intent);
+        assertEquals("text", decoded.getCharSequenceExtra("charSequence").toString());
+        assertTrue(decoded.getExtras().containsKey("null"));
+    }
+
+    @Test
+    public void listsAndArraysWithNullItems() throws IOException {
+        final ArrayList<Uri> uris = new ArrayList<Uri>();
+        uris.add(Uri.parse("content://com.example.files/1"));
+        uris.add(null);
+        uris.add(Uri.parse("file:///sdcard/DCIM/IMG_0001.jpg"));
+
+        final ArrayList<String> strings = new ArrayList<String>(Arrays.asList("a", null, ""));
+
+        final Intent intent = new Intent(Intent.ACTION_SEND_MULTIPLE);
+        intent.putParcelableArrayListExtra(Intent.EXTRA_STREAM, uris);
+        intent.putStringArrayListExtra("strings", strings);
+        intent.putStringArrayListExtra("empty", new ArrayList<String>());
+        intent.putExtra(Intent.EXTRA_EMAIL, new String[]{"a@example.com", null});
+
+        final Intent decoded = assertRoundTrip(intent);
+        final ArrayList<Uri> decodedUris = decoded.getParcelableArrayListExtra(Intent.EXTRA_STREAM);
+        assertEquals(uris, decodedUris);
+        assertNull(decodedUris.get(1));
+    }
+
+    @Test
+    public void severalIntentsOnTheSameOutput() throws IOException {
+        final Intent first = MediaIntents.newOpenWebBrowserIntent("https://example.com");
+        final Intent second = GeoIntents.newMapsIntent(48.8583, 2.2945, "Eiffel Tower");
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        IntentCodec.write(first, out);
+        IntentCodec.write(second, out);
+
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertIntentEquals(first, IntentCodec.read(in));
+        assertIntentEquals(second, IntentCodec.read(in));
+    }
+
+    @Test
+    public void unsupportedExtraIsRejected() {
+        final Intent intent = new Intent(Intent.ACTION_VIEW);
+        intent.putExtra("float", 1.5f);
+        try {
+            IntentCodec.encode(intent);
+            fail("A float extra cannot be encoded");
+        } catch (IllegalArgumentException expected) {
+        }
+
+        final ArrayList<Object> mixed = new ArrayList<Object>();
+        mixed.add(Uri.parse("content://com.example.files/1"));
+        mixed.add("not a uri");
+        final Intent mixedIntent = new Intent(Intent.ACTION_SEND_MULTIPLE);
+        mixedIntent.putExtra(Intent.EXTRA_STREAM, mixed);
+        try {
+            IntentCodec.encode(mixedIntent);
+            fail("A list mixing URIs and strings cannot be encoded");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void invalidInputIsRejected() {
+        final byte[] encoded = IntentCodec.encode(EmailIntents.newEmailIntent("a@example.com", "Subject", "Body"));
+
+        assertRejected(new byte[0]);
+        assertRejected(Arrays.copyOf(encoded, encoded.length - 1));
+
+        final byte[] newerVersion = encoded.clone();
+        newerVersion[0] = (byte) (IntentCodec.VERSION + 1);
+        assertRejected(newerVersion);
+    }
+
+    @Test
+    public void hugeCountsAreRejected() {
+        // Version, categories field, no flags, 65537 categories, then as many empty strings
+        final byte[] header = {IntentCodec.VERSION, 1 << 5, 0, 0, 0, 0, (byte) 0x81, (byte) 0x80, 0x04};
+        assertRejected(Arrays.copyOf(header, header.length + 65537));
+    }
+
+    @Test
+    public void deeplyNestedIntentsAreRejected() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(IntentCodec.VERSION);
+        for (int depth = 0; depth <= IntentCodec.MAX_DEPTH; ++depth) {
+            // Extras field, no flags, one extra "i" holding the next intent
+            out.writeByte(1 << 6);
+            out.writeInt(0);
+            out.writeByte(1);
+            out.writeByte(1);
+            out.writeByte('i');
+            out.writeByte(11);
+        }
+        out.writeByte(0);
+        out.writeInt(0);
+        assertRejected(bytes.toByteArray());
+    }
+
+    @Test
+    public void longestStringRoundTrips() throws IOException {
+        final Intent intent = ShareIntents.newShareTextIntent("Subject", repeat('a', IntentCodec.MAX_STRING_LENGTH),
+                "Share with");
+        assertRoundTrip(intent);
+    }
+
+    @Test
+    public void tooLongStringIsRejectedWhenEncoding() {
+        assertNotEncodable(ShareIntents.newShareTextIntent("Subject",
+                repeat('a', IntentCodec.MAX_STRING_LENGTH + 1), "Share with"));
+
+        // The limit is in UTF-8 bytes, not in chars
+        assertNotEncodable(EmailIntents.newEmailIntent("a@example.com", "Subject",
+                repeat('\u00E9', IntentCodec.MAX_STRING_LENGTH / 2 + 1)));
+    }
+
+    @Test
+    public void largestListRoundTrips() throws IOException {
+        final ArrayList<Uri> uris = new ArrayList<Uri>(IntentCodec.MAX_COUNT);
+        final Uri uri = Uri.parse("content://com.example.files/1");
+        for (int i = 0; i < IntentCodec.MAX_COUNT; ++i) {
+            uris.add(uri);
+        }
+        final Intent intent = new Intent(Intent.ACTION_SEND_MULTIPLE);
+        intent.putParcelableArrayListExtra(Intent.EXTRA_STREAM, uris);
+        assertRoundTrip(intent);
+
+        uris.add(uri);
+        assertNotEncodable(intent);
+    }
+
+    @Test
+    public void tooLargeArrayIsRejectedWhenEncoding() {
+        final Intent intent = new Intent(Intent.ACTION_SEND);
+        intent.putExtra(Intent.EXTRA_EMAIL, new String[IntentCodec.MAX_COUNT + 1]);
+        assertNotEncodable(intent);
+    }
+
+    @Test
+    public void deepestIntentRoundTrips() throws IOException {
+        Intent intent = new Intent(Intent.ACTION_VIEW);
+        for (int depth = 1; depth <= IntentCodec.MAX_DEPTH; ++depth) {
+            intent = Intent.createChooser(intent, "Level " + depth);
+        }
+        assertRoundTrip(intent);
+
+        assertNotEncodable(Intent.createChooser(intent, "Too deep"));
+    }
+
+    @Test
+    public void intentSenderIsRejected() {
+        // Same extra as the chooser of RecentShareTargets when tracking is on
+        final Intent callback = new Intent("com.example.SHARED");
+        final Intent chooser = Intent.createChooser(new Intent(Intent.ACTION_SEND), "Share with");
+        chooser.putExtra(Intent.EXTRA_CHOSEN_COMPONENT_INTENT_SENDER,
+                PendingIntent.getBroadcast(RuntimeEnvironment.application, 0, callback, 0).getIntentSender());
+        assertNotEncodable(chooser);
+    }
+
+    @Test
+    public void selectorAndClipDataAreDropped() throws IOException {
+        final Intent intent = new Intent(Intent.ACTION_SEND);
+        intent.setClipData(ClipData.newRawUri(null, Uri.parse("content://com.example.files/1")));
+        intent.setSelector(new Intent(Intent.ACTION_MAIN).addCategory(Intent.CATEGORY_APP_EMAIL));
+
+        final Intent decoded = IntentCodec.decode(IntentCodec.encode(intent));
+        assertEquals(Intent.ACTION_SEND, decoded.getAction());
+        assertNull(decoded.getClipData());
+        assertNull(decoded.getSelector());
+    }
+
+    private static Intent assertRoundTrip(Intent intent) throws IOException {
+        final Intent decoded = IntentCodec.decode(IntentCodec.encode(intent));
+        assertIntentEquals(intent, decoded);
+        return decoded;
+    }
+
+    private static void assertIntentEquals(Intent expected, Intent actual) {
+        assertTrue("Expected " + expected + " but was " + actual, expected.filterEquals(actual));
+        assertEquals(expected.getFlags(), actual.getFlags());
+        assertEquals(expected.getPackage(), actual.getPackage());
+
+        final Bundle expectedExtras = expected.getExtras();
+        final Bundle actualExtras = actual.getExtras();
+        if (expectedExtras == null || expectedExtras.isEmpty()) {
+            assertTrue(actualExtras == null || actualExtras.isEmpty());
+            return;
+        }
+
+        final Set<String> keys = expectedExtras.keySet();
+        assertEquals(keys, actualExtras.keySet());
+        for (String key : keys) {
+            final Object expectedValue = expectedExtras.get(key);
+            final Object actualValue = actualExtras.get(key);
+            if (expectedValue instanceof Intent) {
+                assertIntentEquals((Intent) expectedValue, (Intent) actualValue);
+            } else if (expectedValue instanceof String[]) {
+                assertArrayEquals(key, (String[]) expectedValue, (String[]) actualValue);
+            } else if (expectedValue instanceof CharSequence) {
+                assertEquals(key, expectedValue.toString(), actualValue.toString());
+            } else {
+                assertEquals(key, expectedValue, actualValue);
+            }
+        }
+    }
+
+    private static void assertNotEncodable(Intent intent) {
+        try {
+            IntentCodec.encode(intent);
+            fail("Encoding should fail");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    private static void assertRejected(byte[] bytes) {
+        try {
+            IntentCodec.decode(bytes);
+            fail("Decoding should fail");
+        } catch (IOException expected) {
+        }
+    }
+
+    private static String repeat(char c, int count) {
+        final char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The availability checks of the descriptors must be done on an intent of the same shape as the described one, without
+ * the side effects of the factories.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 21)
+public class IntentDescriptorsTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void probesHaveTheShapeOfTheIntents() {
+        final File file = new File(folder.getRoot(), "song.mp3");
+        final StreamWriter writer = new StreamWriter() {
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                out.write('a');
+            }
+        };
+
+        assertSameShape(IntentDescriptors.shareText("Subject", "Message", "Share with"));
+        assertSameShape(IntentDescriptors.directShareText(new ComponentName("com.example", "com.example.Share"),
+                "Subject", "Message"));
+        assertSameShape(IntentDescriptors.shareStream("text/csv", "report.csv", writer, "Share with"));
+        assertSameShape(IntentDescriptors.email("a@example.com", "Subject", "Body"));
+        assertSameShape(IntentDescriptors.emailWithAttachments(null, "Subject", "Body",
+                Collections.<Uri>emptyList(), 5, 1024));
+        assertSameShape(IntentDescriptors.playMediaFile(file));
+        assertSameShape(IntentDescriptors.playAudioFile(file, true));
+    }
+
+    @Test
+    public void availabilityOfALargeShareWritesNothing() {
+        final Context context = RuntimeEnvironment.application;
+        final File spillDirectory = IntentContentProvider.getSpillDirectory(context);
+        final IntentDescriptor descriptor = IntentDescriptors.shareText("Subject",
+                repeat('a', IntentSizeGuard.DEFAULT_MAX_EXTRAS_SIZE), "Share with");
+
+        assertFalse(descriptor.isAvailable(context));
+        assertNull(spillDirectory.list());
+
+        descriptor.newIntent(context);
+        assertEquals(1, spillDirectory.list().length);
+    }
+
+    @Test
+    public void availabilityOfAMediaFileDoesNotReadIt() throws IOException {
+        // A PNG picture saved under the name of a song
+        final File file = new File(folder.getRoot(), "song.mp3");
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[]{(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 0x0D});
+        } finally {
+            out.close();
+        }
+
+        final IntentDescriptor descriptor = IntentDescriptors.playMediaFile(file);
+        try {
+            assertEquals("audio/mpeg", descriptor.newProbeIntent(RuntimeEnvironment.application).getType());
+            assertEquals("image/png", descriptor.newIntent(RuntimeEnvironment.application).getType());
+        } finally {
+            MediaSniffer.clearCache();
+        }
+    }
+
+    @Test
+    public void stringOverloadsDescribeTheSameIntents() {
+        final Context context = RuntimeEnvironment.application;
+        final String path = new File(folder.getRoot(), "movie.mkv").getPath();
+
+        assertEquals(MediaIntents.VIDEO_TYPE, IntentDescriptors.playVideoFile(path).newIntent(context).getType());
+        assertEquals("video/x-matroska", IntentDescriptors.playVideoFile(path, true).newIntent(context).getType());
+        assertTrue(IntentDescriptors.takePicture(path).newIntent(context)
+                .filterEquals(MediaIntents.newTakePictureIntent(path)));
+    }
+
+    private static void assertSameShape(IntentDescriptor descriptor) {
+        final Context context = RuntimeEnvironment.application;
+        final Intent intent = descriptor.newIntent(context);
+        try {
+            assertEquals(IntentShape.of(intent), IntentShape.of(descriptor.newProbeIntent(context)));
+        } finally {
+            ShareIntents.releaseSharedStream(intent);
+        }
+    }
+
+    private static String repeat(char c, int count) {
+        final StringBuilder sb = new StringBuilder(count);
+        for (int i = 0; i < count; ++i) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,137 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.pm.ActivityInfo;
+import android.content.pm.ResolveInfo;
+import android.net.Uri;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The batch availability checks of {@link IntentResolutionCache}, against intents registered in the package manager of
+ * Robolectric. That package manager only answers the exact intents it has been given, so an intent it does not know
+ * can only be found available through the filters of its group.
+ *
+ * @author Vincent Prat @ MarvinLabs
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 21)
+public class IntentResolutionCacheTest {
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+        IntentResolutionCache.clear();
+        IntentResolutionCache.resetCounters();
+    }
+
+    @After
+    public void tearDown() {
+        IntentResolutionCache.clear();
+    }
+
+    @Test
+    public void groupIsResolvedWithTheFiltersOfItsFirstIntent() {
+        final Intent picture = view("http://example.com/picture.png", "image/png");
+        final Intent page = view("http://example.org/index.html", "text/html");
+        final Intent movie = view("http://example.com/movie.mp4", "video/mp4");
+        final Intent map = new Intent(Intent.ACTION_VIEW, Uri.parse("geo:0,0?q=Paris"));
+
+        // A browser which shows pictures and pages, known to the package manager for the picture only
+        final IntentFilter filter = new IntentFilter(Intent.ACTION_VIEW);
+        filter.addCategory(Intent.CATEGORY_DEFAULT);
+        filter.addDataScheme("http");
+        addDataType(filter, "image/*");
+        addDataType(filter, "text/html");
+        RuntimeEnvironment.getRobolectricPackageManager().addResolveInfoForIntent(picture,
+                newResolveInfo("com.example.browser", filter));
+
+        final BitSet available = IntentResolutionCache.areIntentsAvailable(context,
+                Arrays.asList(picture, page, movie, map, page));
+        assertEquals(bits(0, 1, 4), available);
+
+        // One query for the group of the http intents, one for the movie its filters do not accept, one for the map
+        assertEquals(3, IntentResolutionCache.getMissCount());
+        assertEquals(2, IntentResolutionCache.getHitCount());
+
+        // The results have been cached
+        assertTrue(IntentResolutionCache.isIntentAvailable(context, page));
+        assertEquals(3, IntentResolutionCache.getMissCount());
+    }
+
+    @Test
+    public void cachedIntentsAreNotResolvedAgain() {
+        final Intent picture = view("http://example.com/picture.png", "image/png");
+        final Intent page = view("http://example.org/index.html", "text/html");
+        IntentResolutionCache.isIntentAvailable(context, picture);
+        IntentResolutionCache.resetCounters();
+
+        // The only intent left in the group gets the single match query
+        assertEquals(new BitSet(), IntentResolutionCache.areIntentsAvailable(context, Arrays.asList(picture, page)));
+        assertEquals(1, IntentResolutionCache.getMissCount());
+        assertEquals(1, IntentResolutionCache.getHitCount());
+    }
+
+    private static Intent view(String url, String type) {
+        final Intent intent = new Intent(Intent.ACTION_VIEW);
+        intent.setDataAndType(Uri.parse(url), type);
+        return intent;
+    }
+
+    private static void addDataType(IntentFilter filter, String type) {
+        try {
+            filter.addDataType(type);
+        } catch (IntentFilter.MalformedMimeTypeException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static ResolveInfo newResolveInfo(String packageName, IntentFilter filter) {
+        final ResolveInfo info = new ResolveInfo();
+        info.activityInfo = new ActivityInfo();
+        info.activityInfo.packageName = packageName;
+        info.activityInfo.name = packageName + ".MainActivity";
+        info.filter = filter;
+        return info;
+    }
+
+    private static BitSet bits(int... indexes) {
+        final BitSet bits = new BitSet();
+        for (int index : indexes) {
+            bits.set(index);
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,220 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Vincent Prat @ MarvinLabs
+ */
+public class MediaSnifferTest {
+
+    // Whole seconds, some file systems do not keep the milliseconds
+    private static final long MODIFIED = 1400000000000L;
+
+    private static final byte[] PNG = bytes(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 0x0D);
+    private static final byte[] JPEG = bytes(0xFF, 0xD8, 0xFF, 0xE0, 0, 0x10, 'J', 'F', 'I', 'F', 0, 1);
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void tearDown() {
+        MediaSniffer.clearCache();
+    }
+
+    @Test
+    public void images() {
+        assertEquals("image/jpeg", sniff(JPEG));
+        assertEquals("image/png", sniff(PNG));
+        assertEquals("image/gif", sniff(ascii("GIF89a")));
+        assertEquals("image/tiff", sniff(bytes('I', 'I', '*', 0, 8, 0, 0, 0)));
+        assertEquals("image/tiff", sniff(bytes('M', 'M', 0, '*', 0, 0, 0, 8)));
+        assertEquals("image/webp", sniff(ascii("RIFF\0\0\0\0WEBPVP8 ")));
+        assertEquals("image/x-ms-bmp", sniff(ascii("BM\0\0\0\0\0\0\0\0\0\0\0\0")));
+    }
+
+    @Test
+    public void isoBaseMediaBrands() {
+        assertEquals("video/mp4", sniff(fileTypeBox("isom")));
+        assertEquals("video/mp4", sniff(fileTypeBox("mp42")));
+        assertEquals("audio/mp4", sniff(fileTypeBox("M4A ")));
+        assertEquals("video/quicktime", sniff(fileTypeBox("qt  ")));
+        assertEquals("video/3gpp", sniff(fileTypeBox("3gp5")));
+        assertEquals("video/3gpp2", sniff(fileTypeBox("3g2a")));
+        assertEquals("image/heic", sniff(fileTypeBox("heic")));
+        assertEquals("image/heif", sniff(fileTypeBox("mif1")));
+        assertEquals("image/avif", sniff(fileTypeBox("avif")));
+    }
+
+    @Test
+    public void containersLookAtTheirContent() {
+        assertEquals("audio/x-wav", sniff(ascii("RIFF\0\0\0\0WAVEfmt ")));
+        assertEquals("video/avi", sniff(ascii("RIFF\0\0\0\0AVI LIST")));
+        assertNull(sniff(ascii("RIFF\0\0\0\0ACONanih")));
+        assertEquals("audio/x-aiff", sniff(ascii("FORM\0\0\0\0AIFFCOMM")));
+        assertEquals("video/webm", sniff(concat(bytes(0x1A, 0x45, 0xDF, 0xA3, 0x9F, 0x42, 0x82, 0x84), ascii("webm"))));
+        assertEquals("video/x-matroska",
+                sniff(concat(bytes(0x1A, 0x45, 0xDF, 0xA3, 0x9F, 0x42, 0x82, 0x88), ascii("matroska"))));
+        assertEquals("audio/ogg", sniff(ascii("OggS\0\2\0\0\0\0\0\0\0\0\1vorbis")));
+        assertEquals("video/ogg", sniff(ascii("OggS\0\2\0\0\0\0\0\0\0\0\1theora")));
+    }
+
+    @Test
+    public void audioAndVideoStreams() {
+        assertEquals("audio/flac", sniff(ascii("fLaC\0\0\0\"")));
+        assertEquals("audio/midi", sniff(ascii("MThd\0\0\0\6")));
+        assertEquals("audio/amr", sniff(ascii("#!AMR\n")));
+        assertEquals("audio/amr-wb", sniff(ascii("#!AMR-WB\n")));
+        assertEquals("audio/mpeg", sniff(ascii("ID3\4\0\0\0\0")));
+        assertEquals("audio/mpeg", sniff(bytes(0xFF, 0xFB, 0x90, 0x64)));
+        assertEquals("audio/aac", sniff(bytes(0xFF, 0xF1, 0x50, 0x80)));
+        assertEquals("video/x-flv", sniff(bytes('F', 'L', 'V', 1, 5, 0, 0, 0, 9)));
+        assertEquals("video/x-ms-asf", sniff(bytes(0x30, 0x26, 0xB2, 0x75, 0x8E, 0x66, 0xCF, 0x11)));
+        assertEquals("video/mpeg", sniff(bytes(0, 0, 1, 0xBA, 0x44)));
+        assertEquals("video/mpeg", sniff(bytes(0, 0, 1, 0xB3, 0x14)));
+    }
+
+    @Test
+    public void unknownOrTooShortHeaders() {
+        assertNull(sniff(ascii("Hello, world")));
+        assertNull(sniff(ascii("%PDF-1.4")));
+        assertNull(sniff(bytes(0xFF, 0xD8, 0xFF)));
+        assertNull(sniff(new byte[0]));
+    }
+
+    @Test
+    public void readsBetweenThePositionAndTheLimit() {
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        buffer.put(ascii("junk")).put(PNG).put(ascii("more junk"));
+        buffer.position(4).limit(4 + PNG.length);
+        assertEquals("image/png", MediaSniffer.sniff(buffer));
+
+        // The end of the buffer is not part of the header
+        buffer.position(0).limit(3);
+        assertNull(MediaSniffer.sniff(buffer));
+    }
+
+    @Test
+    public void sniffsFilesWhateverTheirName() throws IOException {
+        assertEquals("image/png", MediaSniffer.sniff(write("IMG_0001", PNG, MODIFIED)));
+        assertEquals("image/jpeg", MediaSniffer.sniff(write("photo.png", JPEG, MODIFIED)));
+        assertNull(MediaSniffer.sniff(write("notes", ascii("Hello, world"), MODIFIED)));
+    }
+
+    @Test
+    public void missingFile() {
+        assertNull(MediaSniffer.sniff(new File(folder.getRoot(), "missing")));
+    }
+
+    @Test
+    public void cacheIsKeyedByPathModificationDateAndSize() throws IOException {
+        final File file = write("media", PNG, MODIFIED);
+        assertEquals("image/png", MediaSniffer.sniff(file));
+
+        // Same size and date: the cached type is returned without reading the file
+        write("media", JPEG, MODIFIED);
+        assertEquals(PNG.length, JPEG.length);
+        assertEquals("image/png", MediaSniffer.sniff(file));
+
+        // Another date: the file is read again
+        write("media", JPEG, MODIFIED + 60000);
+        assertEquals("image/jpeg", MediaSniffer.sniff(file));
+
+        // Another size
+        write("media", concat(PNG, ascii("IHDR")), MODIFIED + 60000);
+        assertEquals("image/png", MediaSniffer.sniff(file));
+
+        // Another path with the same content, date and size
+        assertEquals("image/jpeg", MediaSniffer.sniff(write("other", JPEG, MODIFIED + 60000)));
+    }
+
+    @Test
+    public void clearCacheForgetsTheTypes() throws IOException {
+        final File file = write("media", PNG, MODIFIED);
+        assertEquals("image/png", MediaSniffer.sniff(file));
+
+        write("media", JPEG, MODIFIED);
+        MediaSniffer.clearCache();
+        assertEquals("image/jpeg", MediaSniffer.sniff(file));
+    }
+
+    @Test
+    public void unknownTypesAreCachedToo() throws IOException {
+        final File file = write("notes", ascii("Hello, world"), MODIFIED);
+        assertNull(MediaSniffer.sniff(file));
+
+        // Same size and date, not read again
+        write("notes", ascii("GIF89a......"), MODIFIED);
+        assertNull(MediaSniffer.sniff(file));
+    }
+
+    private File write(String name, byte[] content, long lastModified) throws IOException {
+        final File file = new File(folder.getRoot(), name);
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+        assertTrue(file.setLastModified(lastModified));
+        return file;
+    }
+
+    private static String sniff(byte[] header) {
+        return MediaSniffer.sniff(ByteBuffer.wrap(header));
+    }
+
+    private static byte[] fileTypeBox(String brand) {
+        return concat(bytes(0, 0, 0, 0x18), ascii("ftyp" + brand + "\0\0\0\0"));
+    }
+
+    private static byte[] bytes(int... values) {
+        final byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; ++i) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+    private static byte[] ascii(String text) {
+        final byte[] bytes = new byte[text.length()];
+        for (int i = 0; i < bytes.length; ++i) {
+            bytes[i] = (byte) text.charAt(i);
+        }
+        return bytes;
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        final byte[] bytes = new byte[a.length + b.length];
+        System.arraycopy(a, 0, bytes, 0, a.length);
+        System.arraycopy(b, 0, bytes, a.length, b.length);
+        return bytes;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Vincent Prat @ MarvinLabs
+ */
+public class MimeTypesTest {
+
+    @Test
+    public void findsEveryExtensionOfTheTable() {
+        final Map<String, String> expected = new LinkedHashMap<String, String>();
+        expected.put("mp3", "audio/mpeg");
+        expected.put("mpga", "audio/mpeg");
+        expected.put("m4a", "audio/mp4");
+        expected.put("aac", "audio/aac");
+        expected.put("ogg", "audio/ogg");
+        expected.put("oga", "audio/ogg");
+        expected.put("opus", "audio/ogg");
+        expected.put("flac", "audio/flac");
+        expected.put("wav", "audio/x-wav");
+        expected.put("amr", "audio/amr");
+        expected.put("awb", "audio/amr-wb");
+        expected.put("mid", "audio/midi");
+        expected.put("midi", "audio/midi");
+        expected.put("wma", "audio/x-ms-wma");
+        expected.put("mka", "audio/x-matroska");
+        expected.put("3ga", "audio/3gpp");
+        expected.put("aif", "audio/x-aiff");
+        expected.put("aiff", "audio/x-aiff");
+        expected.put("mp4", "video/mp4");
+        expected.put("m4v", "video/mp4");
+        expected.put("3gp", "video/3gpp");
+        expected.put("3gpp", "video/3gpp");
+        expected.put("3g2", "video/3gpp2");
+        expected.put("webm", "video/webm");
+        expected.put("mkv", "video/x-matroska");
+        expected.put("avi", "video/avi");
+        expected.put("mov", "video/quicktime");
+        expected.put("ts", "video/mp2ts");
+        expected.put("mpg", "video/mpeg");
+        expected.put("mpeg", "video/mpeg");
+        expected.put("wmv", "video/x-ms-wmv");
+        expected.put("flv", "video/x-flv");
+        expected.put("ogv", "video/ogg");
+        expected.put("jpg", "image/jpeg");
+        expected.put("jpeg", "image/jpeg");
+        expected.put("jpe", "image/jpeg");
+        expected.put("png", "image/png");
+        expected.put("gif", "image/gif");
+        expected.put("webp", "image/webp");
+        expected.put("bmp", "image/x-ms-bmp");
+        expected.put("heic", "image/heic");
+        expected.put("heif", "image/heif");
+        expected.put("avif", "image/avif");
+        expected.put("svg", "image/svg+xml");
+        expected.put("ico", "image/x-icon");
+        expected.put("tif", "image/tiff");
+        expected.put("tiff", "image/tiff");
+        expected.put("wbmp", "image/vnd.wap.wbmp");
+        expected.put("dng", "image/x-adobe-dng");
+
+        // Colliding entries are probed further in the table, each of them must still be found
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            assertEquals(entry.getKey(), entry.getValue(), MimeTypes.fromExtension(entry.getKey()));
+            assertEquals(entry.getKey(), entry.getValue(), MimeTypes.fromFileName("file." + entry.getKey()));
+        }
+    }
+
+    @Test
+    public void ignoresTheCaseOfTheExtension() {
+        assertEquals("image/jpeg", MimeTypes.fromExtension("JPG"));
+        assertEquals("audio/mpeg", MimeTypes.fromExtension("Mp3"));
+        assertEquals("video/webm", MimeTypes.fromFileName("/sdcard/Movies/CLIP.WebM"));
+    }
+
+    @Test
+    public void onlyFoldsAsciiLetters() {
+        // The Turkish capital I with a dot is not folded to 'i'
+        assertNull(MimeTypes.fromExtension("M\u0130D"));
+    }
+
+    @Test
+    public void unknownExtensions() {
+        assertNull(MimeTypes.fromExtension("txt"));
+        assertNull(MimeTypes.fromExtension("mp34"));
+        assertNull(MimeTypes.fromExtension("p3"));
+        assertNull(MimeTypes.fromExtension(""));
+        assertNull(MimeTypes.fromExtension(null));
+    }
+
+    @Test
+    public void takesTheLastExtensionOfTheFileName() {
+        assertEquals("video/mp4", MimeTypes.fromFileName("backup.tar.mp4"));
+        assertEquals("image/png", MimeTypes.fromFileName(".png"));
+        assertEquals("image/gif", MimeTypes.fromFileName(new StringBuilder("animation.gif")));
+    }
+
+    @Test
+    public void fileNamesWithoutExtension() {
+        assertNull(MimeTypes.fromFileName("README"));
+        assertNull(MimeTypes.fromFileName("photo."));
+        assertNull(MimeTypes.fromFileName("/sdcard/photos.jpg/IMG_0001"));
+        assertNull(MimeTypes.fromFileName(""));
+        assertNull(MimeTypes.fromFileName(null));
+    }
+}
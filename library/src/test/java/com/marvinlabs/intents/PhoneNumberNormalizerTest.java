@@ -0,0 +1,114 @@
+/*
+Copyright 2013 Vincent Mimoun-Prat
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package com.marvinlabs.intents;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Vincent Prat @ MarvinLabs
+ */
+public class PhoneNumberNormalizerTest {
+
+    @Test
+    public void stripsCommonSeparators() {
+        assertEquals("+330123456789", PhoneNumberNormalizer.normalize("+33 (0)1 23.45.67.89"));
+        assertEquals("18005550199", PhoneNumberNormalizer.normalize("1-800-555-0199"));
+        assertEquals("0612345678", PhoneNumberNormalizer.normalize("06/12/34/56/78"));
+        assertEquals("5551234", PhoneNumberNormalizer.normalize("[555] 1234"));
+    }
+
+    @Test
+    public void keepsDialingCharacters() {
+        assertEquals("*#06#", PhoneNumberNormalizer.normalize("*#06#"));
+        assertEquals("+15551234,1;2", PhoneNumberNormalizer.normalize("+1 555 1234,1;2"));
+    }
+
+    @Test
+    public void stripsUnicodeSpacesAndDashes() {
+        // Non-breaking space, narrow no-break space, en dash, fullwidth hyphen-minus and parentheses
+        assertEquals("0123456789",
+                PhoneNumberNormalizer.normalize("01\u00A023\u202F45\u201367\uFF0D8\uFF089\uFF09"));
+        // Left-to-right mark and zero width space, as pasted from formatted text
+        assertEquals("+3312", PhoneNumberNormalizer.normalize("\u200E+33\u200B12"));
+    }
+
+    @Test
+    public void returnsTheSameStringWhenThereIsNothingToStrip() {
+        final String number = "+33123456789";
+        assertSame(number, PhoneNumberNormalizer.normalize(number));
+    }
+
+    @Test
+    public void nullAndBlankGiveEmptyString() {
+        assertEquals("", PhoneNumberNormalizer.normalize(null));
+        assertEquals("", PhoneNumberNormalizer.normalize(""));
+        assertEquals("", PhoneNumberNormalizer.normalize(" - "));
+    }
+
+    @Test
+    public void appendsToTheBuffer() {
+        final StringBuilder sb = new StringBuilder("tel:");
+        assertSame(sb, PhoneNumberNormalizer.appendNormalized(sb, "+33 1 23"));
+        PhoneNumberNormalizer.appendNormalized(sb, null);
+        assertEquals("tel:+33123", sb.toString());
+    }
+
+    @Test
+    public void resultDoesNotShareTheThreadBuffer() {
+        final String first = PhoneNumberNormalizer.normalize("01 23");
+        PhoneNumberNormalizer.normalize("45 67");
+        assertEquals("0123", first);
+        assertEquals("4567", PhoneNumberNormalizer.normalizeToBuffer("45-67").toString());
+    }
+
+    @Test
+    public void telUriPartKeepsTheDialingCharacters() {
+        assertEquals("+33123456789", telPart("+33 1 23 45 67 89"));
+        assertEquals("*21*0612345678", telPart("*21*06 12 34 56 78"));
+        assertEquals("+15551234,1;2", telPart("+1 555 1234,1;2"));
+    }
+
+    @Test
+    public void telUriPartEncodesTheFragmentAndOtherCharacters() {
+        assertEquals("*%2306%23", telPart("*#06#"));
+        assertEquals("1%3F2%25", telPart("1?2/%"));
+        assertEquals("%C3%A9", telPart("\u00E9"));
+    }
+
+    @Test
+    public void separators() {
+        assertTrue(PhoneNumberNormalizer.isSeparator(' '));
+        assertTrue(PhoneNumberNormalizer.isSeparator('\t'));
+        assertTrue(PhoneNumberNormalizer.isSeparator('\u2212'));
+        assertFalse(PhoneNumberNormalizer.isSeparator('7'));
+        assertFalse(PhoneNumberNormalizer.isSeparator('+'));
+        assertFalse(PhoneNumberNormalizer.isSeparator('p'));
+    }
+
+    /**
+     * The scheme-specific part of the "tel:" URI which the phone intents build for a number
+     */
+    private static String telPart(String number) {
+        return UriEncoder.appendEncoded(new StringBuilder(), PhoneNumberNormalizer.normalizeToBuffer(number),
+                PhoneIntents.TEL_LITERALS).toString();
+    }
+}